@@ -0,0 +1,11 @@
+plugins {
+    `java-module`
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    api("software.amazon.awssdk:dynamodb:2.15.61")
+}
@@ -0,0 +1,351 @@
+package ru.nobirds.aws.dynamodb.mapper.fixtures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+// Condition, filter and key condition expressions: comparisons, BETWEEN, IN, AND, OR, NOT and the
+// attribute_exists, attribute_not_exists, begins_with and contains functions over top-level attributes.
+final class Expression {
+
+    private static final Pattern TOKEN = Pattern.compile("\\s*(<>|<=|>=|[=<>(),]|[#:]?[A-Za-z0-9_]+)");
+
+    private final List<String> tokens;
+    private final Map<String, String> names;
+    private final Map<String, AttributeValue> values;
+    private int position;
+
+    private Expression(List<String> tokens, Map<String, String> names, Map<String, AttributeValue> values) {
+        this.tokens = tokens;
+        this.names = names;
+        this.values = values;
+    }
+
+    static Node parse(String expression, Map<String, String> names, Map<String, AttributeValue> values) {
+        Expression parser = new Expression(tokenize(expression), names, values);
+        Node node = parser.or();
+        if (parser.position < parser.tokens.size()) {
+            throw invalid("Unexpected token " + parser.tokens.get(parser.position) + " in " + expression);
+        }
+        return node;
+    }
+
+    static String attributeName(String token, Map<String, String> names) {
+        if (!token.startsWith("#")) {
+            return token;
+        }
+        String name = names.get(token);
+        if (name == null) {
+            throw invalid("Expression attribute name " + token + " is not defined");
+        }
+        return name;
+    }
+
+    static DynamoDbException invalid(String message) {
+        return DynamoDbException.builder().message(message).statusCode(400).build();
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> result = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(expression);
+        int position = 0;
+        while (position < expression.length()) {
+            if (expression.substring(position).isBlank()) {
+                break;
+            }
+            if (!matcher.region(position, expression.length()).lookingAt()) {
+                throw invalid("Invalid expression " + expression);
+            }
+            result.add(matcher.group(1));
+            position = matcher.end();
+        }
+        return result;
+    }
+
+    private Node or() {
+        Node left = and();
+        while (accept("OR")) {
+            left = new Or(left, and());
+        }
+        return left;
+    }
+
+    private Node and() {
+        Node left = not();
+        while (accept("AND")) {
+            left = new And(left, not());
+        }
+        return left;
+    }
+
+    private Node not() {
+        if (accept("NOT")) {
+            Node node = not();
+            return item -> !node.test(item);
+        }
+        return primary();
+    }
+
+    private Node primary() {
+        if (accept("(")) {
+            Node node = or();
+            expect(")");
+            return node;
+        }
+
+        String token = next();
+        if (accept("(")) {
+            return function(token);
+        }
+
+        Operand left = operand(token);
+        if (accept("BETWEEN")) {
+            Operand low = operand(next());
+            expect("AND");
+            return new Between(left, low, operand(next()));
+        }
+        if (accept("IN")) {
+            expect("(");
+            List<Operand> candidates = new ArrayList<>();
+            do {
+                candidates.add(operand(next()));
+            } while (accept(","));
+            expect(")");
+            return item -> {
+                AttributeValue value = left.resolve(item);
+                return value != null && candidates.stream()
+                    .map(candidate -> candidate.resolve(item))
+                    .anyMatch(candidate -> candidate != null && KeyValues.equal(value, candidate));
+            };
+        }
+
+        String operator = next();
+        if (!operator.matches("<>|<=|>=|[=<>]")) {
+            throw invalid("Unexpected token " + operator);
+        }
+        return new Comparison(left, operator, operand(next()));
+    }
+
+    private Node function(String name) {
+        List<Operand> arguments = new ArrayList<>();
+        do {
+            arguments.add(operand(next()));
+        } while (accept(","));
+        expect(")");
+
+        switch (name) {
+            case "attribute_exists":
+                return item -> arguments.get(0).resolve(item) != null;
+            case "attribute_not_exists":
+                return item -> arguments.get(0).resolve(item) == null;
+            case "begins_with":
+                return new BeginsWith(arguments.get(0), arguments.get(1));
+            case "contains":
+                return item -> contains(arguments.get(0).resolve(item), arguments.get(1).resolve(item));
+            default:
+                throw invalid("Unsupported function " + name);
+        }
+    }
+
+    private Operand operand(String token) {
+        if (token.startsWith(":")) {
+            AttributeValue value = values.get(token);
+            if (value == null) {
+                throw invalid("Expression attribute value " + token + " is not defined");
+            }
+            return new Operand(null, value);
+        }
+        return new Operand(attributeName(token, names), null);
+    }
+
+    private boolean accept(String token) {
+        if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw invalid("Expected " + token);
+        }
+    }
+
+    private String next() {
+        if (position == tokens.size()) {
+            throw invalid("Unexpected end of expression");
+        }
+        return tokens.get(position++);
+    }
+
+    private static boolean contains(AttributeValue value, AttributeValue operand) {
+        if (value == null || operand == null) {
+            return false;
+        }
+        if (value.s() != null && operand.s() != null) {
+            return value.s().contains(operand.s());
+        }
+        if (value.hasSs() && operand.s() != null) {
+            return value.ss().contains(operand.s());
+        }
+        if (value.hasNs() && operand.n() != null) {
+            return value.ns().stream()
+                .anyMatch(number -> KeyValues.equal(AttributeValue.builder().n(number).build(), operand));
+        }
+        if (value.hasL()) {
+            return value.l().stream().anyMatch(element -> KeyValues.equal(element, operand));
+        }
+        return false;
+    }
+
+    interface Node extends Predicate<Map<String, AttributeValue>> {
+    }
+
+    static final class Operand {
+
+        final String attribute;
+        final AttributeValue value;
+
+        Operand(String attribute, AttributeValue value) {
+            this.attribute = attribute;
+            this.value = value;
+        }
+
+        AttributeValue resolve(Map<String, AttributeValue> item) {
+            return attribute != null ? item.get(attribute) : value;
+        }
+    }
+
+    static final class And implements Node {
+
+        final Node left;
+        final Node right;
+
+        And(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(Map<String, AttributeValue> item) {
+            return left.test(item) && right.test(item);
+        }
+    }
+
+    static final class Or implements Node {
+
+        final Node left;
+        final Node right;
+
+        Or(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(Map<String, AttributeValue> item) {
+            return left.test(item) || right.test(item);
+        }
+    }
+
+    static final class Comparison implements Node {
+
+        final Operand left;
+        final String operator;
+        final Operand right;
+
+        Comparison(Operand left, String operator, Operand right) {
+            this.left = left;
+            this.operator = operator;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(Map<String, AttributeValue> item) {
+            AttributeValue leftValue = left.resolve(item);
+            AttributeValue rightValue = right.resolve(item);
+            if (leftValue == null || rightValue == null) {
+                return operator.equals("<>");
+            }
+            if (operator.equals("=")) {
+                return KeyValues.equal(leftValue, rightValue);
+            }
+            if (operator.equals("<>")) {
+                return !KeyValues.equal(leftValue, rightValue);
+            }
+
+            Integer result = KeyValues.compare(leftValue, rightValue);
+            if (result == null) {
+                return false;
+            }
+            switch (operator) {
+                case "<":
+                    return result < 0;
+                case "<=":
+                    return result <= 0;
+                case ">":
+                    return result > 0;
+                default:
+                    return result >= 0;
+            }
+        }
+    }
+
+    static final class Between implements Node {
+
+        final Operand value;
+        final Operand low;
+        final Operand high;
+
+        Between(Operand value, Operand low, Operand high) {
+            this.value = value;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        public boolean test(Map<String, AttributeValue> item) {
+            AttributeValue resolved = value.resolve(item);
+            Integer fromLow = KeyValues.compare(resolved, low.resolve(item));
+            Integer toHigh = KeyValues.compare(resolved, high.resolve(item));
+            return fromLow != null && toHigh != null && fromLow >= 0 && toHigh <= 0;
+        }
+    }
+
+    static final class BeginsWith implements Node {
+
+        final Operand value;
+        final Operand prefix;
+
+        BeginsWith(Operand value, Operand prefix) {
+            this.value = value;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean test(Map<String, AttributeValue> item) {
+            AttributeValue resolved = value.resolve(item);
+            AttributeValue start = prefix.resolve(item);
+            if (resolved == null || start == null) {
+                return false;
+            }
+            if (resolved.s() != null && start.s() != null) {
+                return resolved.s().startsWith(start.s());
+            }
+            if (resolved.b() != null && start.b() != null) {
+                byte[] bytes = resolved.b().asByteArrayUnsafe();
+                byte[] head = start.b().asByteArrayUnsafe();
+                return bytes.length >= head.length
+                    && Arrays.equals(bytes, 0, head.length, head, 0, head.length);
+            }
+            return false;
+        }
+    }
+}
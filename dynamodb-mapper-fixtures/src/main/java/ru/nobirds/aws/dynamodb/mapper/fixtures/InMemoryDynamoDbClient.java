@@ -0,0 +1,404 @@
+package ru.nobirds.aws.dynamodb.mapper.fixtures;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import ru.nobirds.aws.dynamodb.mapper.fixtures.InMemoryTable.Page;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.LocalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+import software.amazon.awssdk.services.dynamodb.paginators.QueryIterable;
+import software.amazon.awssdk.services.dynamodb.paginators.ScanIterable;
+
+// In-process stand-in for DynamoDB to measure the mapper without a network. Tables are sorted concurrent maps,
+// secondary indexes are updated with every write. Update expressions and transactions are not supported.
+public class InMemoryDynamoDbClient implements DynamoDbClient {
+
+    private static final int MAX_BATCH_WRITE = 25;
+    private static final int MAX_BATCH_GET = 100;
+
+    private final Map<String, InMemoryTable> tables = new ConcurrentHashMap<>();
+    private final InMemoryOptions options;
+
+    public InMemoryDynamoDbClient() {
+        this(InMemoryOptions.DEFAULT);
+    }
+
+    public InMemoryDynamoDbClient(InMemoryOptions options) {
+        this.options = options;
+    }
+
+    public InMemoryDynamoDbClient createTable(String tableName, String hashKey) {
+        return createTable(tableName, hashKey, null);
+    }
+
+    public InMemoryDynamoDbClient createTable(String tableName, String hashKey, String rangeKey) {
+        if (tables.putIfAbsent(tableName, new InMemoryTable(hashKey, rangeKey)) != null) {
+            throw ResourceInUseException.builder().message("Table already exists: " + tableName).build();
+        }
+        return this;
+    }
+
+    // projects all attributes, rangeKey may be null
+    public InMemoryDynamoDbClient createGlobalIndex(String tableName, String indexName, String hashKey,
+        String rangeKey) {
+        return createIndex(tableName, indexName, hashKey, rangeKey, true, null);
+    }
+
+    private InMemoryDynamoDbClient createIndex(String tableName, String indexName, String hashKey, String rangeKey,
+        boolean global, Projection projection) {
+        InMemoryTable table = table(tableName);
+        table.addIndex(indexName, new InMemoryIndex(table, hashKey, rangeKey, global, projection));
+        return this;
+    }
+
+    public int itemCount(String tableName) {
+        return table(tableName).size();
+    }
+
+    @Override
+    public CreateTableResponse createTable(CreateTableRequest request) {
+        createTable(request.tableName(), hashKey(request.keySchema()), rangeKey(request.keySchema()));
+        for (GlobalSecondaryIndex index : request.globalSecondaryIndexes()) {
+            createIndex(request.tableName(), index.indexName(), hashKey(index.keySchema()),
+                rangeKey(index.keySchema()), true, index.projection());
+        }
+        for (LocalSecondaryIndex index : request.localSecondaryIndexes()) {
+            createIndex(request.tableName(), index.indexName(), hashKey(index.keySchema()),
+                rangeKey(index.keySchema()), false, index.projection());
+        }
+        return CreateTableResponse.builder().build();
+    }
+
+    @Override
+    public DeleteTableResponse deleteTable(DeleteTableRequest request) {
+        if (tables.remove(request.tableName()) == null) {
+            throw notFound(request.tableName());
+        }
+        return DeleteTableResponse.builder().build();
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest request) {
+        simulate();
+        Map<String, AttributeValue> item = table(request.tableName()).get(request.key());
+        GetItemResponse.Builder response = GetItemResponse.builder();
+        if (item != null) {
+            response.item(projection(request.projectionExpression(), request.expressionAttributeNames()).apply(item));
+        }
+        return response.build();
+    }
+
+    @Override
+    public PutItemResponse putItem(PutItemRequest request) {
+        simulate();
+        Map<String, AttributeValue> previous = table(request.tableName()).put(request.item(),
+            condition(request.conditionExpression(), request.expressionAttributeNames(),
+                request.expressionAttributeValues()));
+
+        PutItemResponse.Builder response = PutItemResponse.builder();
+        if (previous != null && request.returnValues() == ReturnValue.ALL_OLD) {
+            response.attributes(previous);
+        }
+        return response.build();
+    }
+
+    @Override
+    public DeleteItemResponse deleteItem(DeleteItemRequest request) {
+        simulate();
+        Map<String, AttributeValue> previous = table(request.tableName()).delete(request.key(),
+            condition(request.conditionExpression(), request.expressionAttributeNames(),
+                request.expressionAttributeValues()));
+
+        DeleteItemResponse.Builder response = DeleteItemResponse.builder();
+        if (previous != null && request.returnValues() == ReturnValue.ALL_OLD) {
+            response.attributes(previous);
+        }
+        return response.build();
+    }
+
+    @Override
+    public QueryResponse query(QueryRequest request) {
+        simulate();
+        InMemoryTable table = table(request.tableName(), request.indexName(), request.consistentRead());
+        KeyCondition keyCondition = KeyCondition.parse(request.keyConditionExpression(),
+            request.expressionAttributeNames(), request.expressionAttributeValues(),
+            table.getHashKey(), table.getRangeKey());
+
+        Page page = table.query(keyCondition,
+            request.hasExclusiveStartKey() ? request.exclusiveStartKey() : null,
+            !Boolean.FALSE.equals(request.scanIndexForward()),
+            limit(request.limit()),
+            condition(request.filterExpression(), request.expressionAttributeNames(),
+                request.expressionAttributeValues()));
+
+        QueryResponse.Builder response = QueryResponse.builder()
+            .count(page.getItems().size())
+            .scannedCount(page.getScannedCount())
+            .lastEvaluatedKey(page.getLastEvaluatedKey());
+        if (request.select() != Select.COUNT) {
+            response.items(project(page.getItems(),
+                projection(request.projectionExpression(), request.expressionAttributeNames())));
+        }
+        return response.build();
+    }
+
+    @Override
+    public QueryIterable queryPaginator(QueryRequest request) {
+        return new QueryIterable(this, request);
+    }
+
+    @Override
+    public ScanResponse scan(ScanRequest request) {
+        simulate();
+        InMemoryTable table = table(request.tableName(), request.indexName(), request.consistentRead());
+
+        int totalSegments = request.totalSegments() != null ? request.totalSegments() : 1;
+        int segment = request.segment() != null ? request.segment() : 0;
+        if (segment < 0 || segment >= totalSegments) {
+            throw Expression.invalid("Segment " + segment + " is out of " + totalSegments + " segments");
+        }
+
+        Page page = table.scan(segment, totalSegments,
+            request.hasExclusiveStartKey() ? request.exclusiveStartKey() : null,
+            limit(request.limit()),
+            condition(request.filterExpression(), request.expressionAttributeNames(),
+                request.expressionAttributeValues()));
+
+        ScanResponse.Builder response = ScanResponse.builder()
+            .count(page.getItems().size())
+            .scannedCount(page.getScannedCount())
+            .lastEvaluatedKey(page.getLastEvaluatedKey());
+        if (request.select() != Select.COUNT) {
+            response.items(project(page.getItems(),
+                projection(request.projectionExpression(), request.expressionAttributeNames())));
+        }
+        return response.build();
+    }
+
+    @Override
+    public ScanIterable scanPaginator(ScanRequest request) {
+        return new ScanIterable(this, request);
+    }
+
+    @Override
+    public BatchWriteItemResponse batchWriteItem(BatchWriteItemRequest request) {
+        int size = request.requestItems().values().stream().mapToInt(List::size).sum();
+        if (size == 0 || size > MAX_BATCH_WRITE) {
+            throw Expression.invalid("Batch write must contain from 1 to " + MAX_BATCH_WRITE + " requests");
+        }
+        request.requestItems().keySet().forEach(this::table);
+        simulate();
+
+        Map<String, List<WriteRequest>> unprocessed = new HashMap<>();
+        request.requestItems().forEach((tableName, requests) -> {
+            InMemoryTable table = table(tableName);
+            for (WriteRequest writeRequest : requests) {
+                if (unprocessed()) {
+                    unprocessed.computeIfAbsent(tableName, name -> new ArrayList<>()).add(writeRequest);
+                } else if (writeRequest.putRequest() != null) {
+                    table.put(writeRequest.putRequest().item(), null);
+                } else {
+                    table.delete(writeRequest.deleteRequest().key(), null);
+                }
+            }
+        });
+
+        return BatchWriteItemResponse.builder()
+            .unprocessedItems(unprocessed)
+            .build();
+    }
+
+    @Override
+    public BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+        int size = request.requestItems().values().stream().mapToInt(keys -> keys.keys().size()).sum();
+        if (size == 0 || size > MAX_BATCH_GET) {
+            throw Expression.invalid("Batch get must contain from 1 to " + MAX_BATCH_GET + " keys");
+        }
+        request.requestItems().keySet().forEach(this::table);
+        simulate();
+
+        Map<String, List<Map<String, AttributeValue>>> responses = new HashMap<>();
+        Map<String, KeysAndAttributes> unprocessed = new HashMap<>();
+        request.requestItems().forEach((tableName, keysAndAttributes) -> {
+            InMemoryTable table = table(tableName);
+            Function<Map<String, AttributeValue>, Map<String, AttributeValue>> projection =
+                projection(keysAndAttributes.projectionExpression(), keysAndAttributes.expressionAttributeNames());
+
+            List<Map<String, AttributeValue>> found = new ArrayList<>();
+            List<Map<String, AttributeValue>> skipped = new ArrayList<>();
+            for (Map<String, AttributeValue> key : keysAndAttributes.keys()) {
+                if (unprocessed()) {
+                    skipped.add(key);
+                    continue;
+                }
+                Map<String, AttributeValue> item = table.get(key);
+                if (item != null) {
+                    found.add(projection.apply(item));
+                }
+            }
+            responses.put(tableName, found);
+            if (!skipped.isEmpty()) {
+                unprocessed.put(tableName, keysAndAttributes.toBuilder().keys(skipped).build());
+            }
+        });
+
+        return BatchGetItemResponse.builder()
+            .responses(responses)
+            .unprocessedKeys(unprocessed)
+            .build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private InMemoryTable table(String tableName) {
+        InMemoryTable table = tables.get(tableName);
+        if (table == null) {
+            throw notFound(tableName);
+        }
+        return table;
+    }
+
+    // the table itself when indexName is null
+    private InMemoryTable table(String tableName, String indexName, Boolean consistentRead) {
+        InMemoryTable table = table(tableName);
+        if (indexName == null) {
+            return table;
+        }
+        InMemoryIndex index = table.index(indexName);
+        if (index.isGlobal() && Boolean.TRUE.equals(consistentRead)) {
+            throw Expression.invalid("Consistent reads are not supported on global secondary indexes");
+        }
+        return index;
+    }
+
+    private int limit(Integer limit) {
+        return limit != null ? Math.min(limit, options.getMaxPageItems()) : options.getMaxPageItems();
+    }
+
+    private boolean unprocessed() {
+        return options.getUnprocessedRate() > 0
+            && ThreadLocalRandom.current().nextDouble() < options.getUnprocessedRate();
+    }
+
+    // latency first, so a throttled call costs a round trip as well
+    private void simulate() {
+        long latency = options.getLatency().toNanos();
+        long jitter = options.getJitter().toNanos();
+        if (jitter > 0) {
+            latency += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        if (latency > 0) {
+            LockSupport.parkNanos(latency);
+        }
+
+        if (options.getThrottleRate() > 0 && ThreadLocalRandom.current().nextDouble() < options.getThrottleRate()) {
+            throw ProvisionedThroughputExceededException.builder()
+                .message("The level of configured provisioned throughput for the table was exceeded")
+                .statusCode(400)
+                .build();
+        }
+    }
+
+    private static String hashKey(List<KeySchemaElement> keySchema) {
+        for (KeySchemaElement element : keySchema) {
+            if (element.keyType() == KeyType.HASH) {
+                return element.attributeName();
+            }
+        }
+        throw Expression.invalid("Key schema must contain a hash key");
+    }
+
+    private static String rangeKey(List<KeySchemaElement> keySchema) {
+        for (KeySchemaElement element : keySchema) {
+            if (element.keyType() == KeyType.RANGE) {
+                return element.attributeName();
+            }
+        }
+        return null;
+    }
+
+    private static Predicate<Map<String, AttributeValue>> condition(String expression, Map<String, String> names,
+        Map<String, AttributeValue> values) {
+        return expression == null ? null : Expression.parse(expression, names, values);
+    }
+
+    private static Function<Map<String, AttributeValue>, Map<String, AttributeValue>> projection(String expression,
+        Map<String, String> names) {
+
+        if (expression == null) {
+            return Function.identity();
+        }
+
+        List<String> attributes = new ArrayList<>();
+        for (String token : expression.split(",")) {
+            attributes.add(Expression.attributeName(token.trim(), names));
+        }
+        return item -> {
+            Map<String, AttributeValue> result = new HashMap<>((int) (attributes.size() / 0.75f) + 1);
+            for (String attribute : attributes) {
+                AttributeValue value = item.get(attribute);
+                if (value != null) {
+                    result.put(attribute, value);
+                }
+            }
+            return result;
+        };
+    }
+
+    private static List<Map<String, AttributeValue>> project(List<Map<String, AttributeValue>> items,
+        Function<Map<String, AttributeValue>, Map<String, AttributeValue>> projection) {
+
+        List<Map<String, AttributeValue>> result = new ArrayList<>(items.size());
+        for (Map<String, AttributeValue> item : items) {
+            result.add(projection.apply(item));
+        }
+        return result;
+    }
+
+    private static ResourceNotFoundException notFound(String tableName) {
+        return ResourceNotFoundException.builder().message("Requested resource not found: " + tableName).build();
+    }
+}
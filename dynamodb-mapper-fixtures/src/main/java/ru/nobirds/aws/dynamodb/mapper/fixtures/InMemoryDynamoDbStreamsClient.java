@@ -0,0 +1,282 @@
+package ru.nobirds.aws.dynamodb.mapper.fixtures;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamResponse;
+import software.amazon.awssdk.services.dynamodb.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.dynamodb.model.OperationType;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.SequenceNumberRange;
+import software.amazon.awssdk.services.dynamodb.model.Shard;
+import software.amazon.awssdk.services.dynamodb.model.StreamDescription;
+import software.amazon.awssdk.services.dynamodb.model.StreamRecord;
+import software.amazon.awssdk.services.dynamodb.model.StreamStatus;
+import software.amazon.awssdk.services.dynamodb.model.StreamViewType;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+
+// In-process stand-in for DynamoDB Streams. Records are appended to shards by hand, sequence numbers grow across the
+// client. Iterators carry their position, so they never expire, and a closed shard ends them once read to the end.
+public class InMemoryDynamoDbStreamsClient implements DynamoDbStreamsClient {
+
+    private static final int MAX_RECORDS = 1000;
+    private static final int MAX_SHARDS = 100;
+    private static final char SEPARATOR = '|';
+
+    private final Map<String, Map<String, StreamShard>> streams = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong(100_000_000_000_000L);
+
+    public InMemoryDynamoDbStreamsClient createStream(String streamArn) {
+        if (streams.putIfAbsent(streamArn, new LinkedHashMap<>()) != null) {
+            throw ResourceInUseException.builder().message("Stream already exists: " + streamArn).build();
+        }
+        return this;
+    }
+
+    public InMemoryDynamoDbStreamsClient createShard(String streamArn, String shardId) {
+        return createShard(streamArn, shardId, null);
+    }
+
+    public InMemoryDynamoDbStreamsClient createShard(String streamArn, String shardId, String parentShardId) {
+        Map<String, StreamShard> shards = stream(streamArn);
+        synchronized (shards) {
+            if (shards.putIfAbsent(shardId, new StreamShard(parentShardId, nextSequence())) != null) {
+                throw ResourceInUseException.builder().message("Shard already exists: " + shardId).build();
+            }
+        }
+        return this;
+    }
+
+    // no more records are accepted, readers get no next iterator after the last one
+    public InMemoryDynamoDbStreamsClient closeShard(String streamArn, String shardId) {
+        StreamShard shard = shard(streamArn, shardId);
+        synchronized (shard) {
+            shard.closed = true;
+        }
+        return this;
+    }
+
+    // either image may be null, returns the sequence number of the record
+    public String append(String streamArn, String shardId, OperationType type, Map<String, AttributeValue> keys,
+        Map<String, AttributeValue> oldImage, Map<String, AttributeValue> newImage) {
+
+        StreamRecord.Builder change = StreamRecord.builder()
+            .keys(keys)
+            .streamViewType(StreamViewType.NEW_AND_OLD_IMAGES);
+        if (oldImage != null) {
+            change.oldImage(oldImage);
+        }
+        if (newImage != null) {
+            change.newImage(newImage);
+        }
+        return append(streamArn, shardId, Record.builder().eventName(type).dynamodb(change.build()).build());
+    }
+
+    // sequence number, event id and creation time are assigned here
+    public String append(String streamArn, String shardId, Record record) {
+        StreamShard shard = shard(streamArn, shardId);
+        synchronized (shard) {
+            if (shard.closed) {
+                throw ResourceInUseException.builder().message("Shard is closed: " + shardId).build();
+            }
+            String sequenceNumber = nextSequence();
+            shard.records.add(record.toBuilder()
+                .eventID(UUID.randomUUID().toString())
+                .eventSource("aws:dynamodb")
+                .dynamodb(record.dynamodb().toBuilder()
+                    .sequenceNumber(sequenceNumber)
+                    .approximateCreationDateTime(Instant.now())
+                    .build())
+                .build());
+            return sequenceNumber;
+        }
+    }
+
+    @Override
+    public DescribeStreamResponse describeStream(DescribeStreamRequest request) {
+        Map<String, StreamShard> shards = stream(request.streamArn());
+        int limit = request.limit() != null ? Math.min(request.limit(), MAX_SHARDS) : MAX_SHARDS;
+
+        List<Shard> result = new ArrayList<>();
+        String lastEvaluated = null;
+        synchronized (shards) {
+            boolean started = request.exclusiveStartShardId() == null;
+            for (Map.Entry<String, StreamShard> entry : shards.entrySet()) {
+                if (!started) {
+                    started = entry.getKey().equals(request.exclusiveStartShardId());
+                    continue;
+                }
+                if (result.size() == limit) {
+                    lastEvaluated = result.get(result.size() - 1).shardId();
+                    break;
+                }
+                result.add(entry.getValue().describe(entry.getKey()));
+            }
+        }
+
+        return DescribeStreamResponse.builder()
+            .streamDescription(StreamDescription.builder()
+                .streamArn(request.streamArn())
+                .streamStatus(StreamStatus.ENABLED)
+                .streamViewType(StreamViewType.NEW_AND_OLD_IMAGES)
+                .shards(result)
+                .lastEvaluatedShardId(lastEvaluated)
+                .build())
+            .build();
+    }
+
+    @Override
+    public GetShardIteratorResponse getShardIterator(GetShardIteratorRequest request) {
+        StreamShard shard = shard(request.streamArn(), request.shardId());
+        int position;
+        synchronized (shard) {
+            switch (request.shardIteratorType()) {
+                case TRIM_HORIZON:
+                    position = 0;
+                    break;
+                case LATEST:
+                    position = shard.records.size();
+                    break;
+                case AT_SEQUENCE_NUMBER:
+                    position = shard.positionOf(request.sequenceNumber(), false);
+                    break;
+                case AFTER_SEQUENCE_NUMBER:
+                    position = shard.positionOf(request.sequenceNumber(), true);
+                    break;
+                default:
+                    throw Expression.invalid("Unsupported shard iterator type: " + request.shardIteratorTypeAsString());
+            }
+        }
+        return GetShardIteratorResponse.builder()
+            .shardIterator(iterator(request.streamArn(), request.shardId(), position))
+            .build();
+    }
+
+    @Override
+    public GetRecordsResponse getRecords(GetRecordsRequest request) {
+        String iterator = request.shardIterator();
+        int first = iterator.indexOf(SEPARATOR);
+        int last = iterator.lastIndexOf(SEPARATOR);
+        int position;
+        try {
+            position = Integer.parseInt(iterator.substring(0, Math.max(first, 0)));
+        } catch (NumberFormatException e) {
+            position = -1;
+        }
+        if (position < 0 || first == last) {
+            throw ExpiredIteratorException.builder().message("Invalid shard iterator: " + iterator).build();
+        }
+        String shardId = iterator.substring(first + 1, last);
+        String streamArn = iterator.substring(last + 1);
+        int limit = request.limit() != null ? Math.min(request.limit(), MAX_RECORDS) : MAX_RECORDS;
+
+        StreamShard shard = shard(streamArn, shardId);
+        List<Record> records;
+        boolean ended;
+        synchronized (shard) {
+            int end = Math.min(shard.records.size(), position + limit);
+            records = new ArrayList<>(shard.records.subList(Math.min(position, end), end));
+            position = end;
+            ended = shard.closed && end == shard.records.size();
+        }
+        return GetRecordsResponse.builder()
+            .records(records)
+            .nextShardIterator(ended ? null : iterator(streamArn, shardId, position))
+            .build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private String nextSequence() {
+        return Long.toString(sequence.incrementAndGet());
+    }
+
+    private Map<String, StreamShard> stream(String streamArn) {
+        Map<String, StreamShard> shards = streams.get(streamArn);
+        if (shards == null) {
+            throw notFound("Requested resource not found: Stream: " + streamArn + " not found");
+        }
+        return shards;
+    }
+
+    private StreamShard shard(String streamArn, String shardId) {
+        Map<String, StreamShard> shards = stream(streamArn);
+        StreamShard shard;
+        synchronized (shards) {
+            shard = shards.get(shardId);
+        }
+        if (shard == null) {
+            throw notFound("Requested resource not found: Shard: " + shardId + " in Stream: " + streamArn);
+        }
+        return shard;
+    }
+
+    // stream arns contain colons and slashes, the arn goes last so only the shard id has to be free of separators
+    private static String iterator(String streamArn, String shardId, int position) {
+        return position + String.valueOf(SEPARATOR) + shardId + SEPARATOR + streamArn;
+    }
+
+    private static ResourceNotFoundException notFound(String message) {
+        return ResourceNotFoundException.builder().message(message).statusCode(400).build();
+    }
+
+    private static final class StreamShard {
+
+        private final String parentShardId;
+        private final String startingSequenceNumber;
+        private final List<Record> records = new ArrayList<>();
+        private boolean closed;
+
+        private StreamShard(String parentShardId, String startingSequenceNumber) {
+            this.parentShardId = parentShardId;
+            this.startingSequenceNumber = startingSequenceNumber;
+        }
+
+        // first record past the sequence number, or at it
+        private int positionOf(String sequenceNumber, boolean after) {
+            BigInteger target = new BigInteger(sequenceNumber);
+            for (int i = 0; i < records.size(); i++) {
+                int order = new BigInteger(records.get(i).dynamodb().sequenceNumber()).compareTo(target);
+                if (order > 0 || order == 0 && !after) {
+                    return i;
+                }
+            }
+            return records.size();
+        }
+
+        private synchronized Shard describe(String shardId) {
+            SequenceNumberRange.Builder range = SequenceNumberRange.builder()
+                .startingSequenceNumber(startingSequenceNumber);
+            if (closed) {
+                range.endingSequenceNumber(records.isEmpty() ? startingSequenceNumber
+                    : records.get(records.size() - 1).dynamodb().sequenceNumber());
+            }
+            return Shard.builder()
+                .shardId(shardId)
+                .parentShardId(parentShardId)
+                .sequenceNumberRange(range.build())
+                .build();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ru.nobirds.aws.dynamodb.mapper.fixtures;
+
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+
+// Secondary index kept in step with its table. Several items may share index keys, so entries are ordered by the
+// index keys and then by the table key. Items without the index key attributes are left out, like in DynamoDB.
+final class InMemoryIndex extends InMemoryTable {
+
+    private final InMemoryTable table;
+
+    @Getter
+    private final boolean global;
+
+    // null when every attribute is projected
+    private final Set<String> projected;
+
+    InMemoryIndex(InMemoryTable table, String hashKey, String rangeKey, boolean global, Projection projection) {
+        super(hashKey, rangeKey);
+        this.table = table;
+        this.global = global;
+        this.projected = projection == null || projection.projectionType() == null
+            || projection.projectionType() == ProjectionType.ALL ? null
+            : projection.projectionType() == ProjectionType.INCLUDE && projection.hasNonKeyAttributes()
+            ? Set.copyOf(projection.nonKeyAttributes()) : Set.of();
+    }
+
+    // called by the table under its write lock, either item may be null
+    void replace(Map<String, AttributeValue> previous, Map<String, AttributeValue> item) {
+        if (previous != null && covers(previous)) {
+            items.remove(key(previous));
+        }
+        if (item != null && covers(item)) {
+            items.put(key(item), project(item));
+        }
+    }
+
+    @Override
+    TableKey key(Map<String, AttributeValue> item) {
+        Object range = getRangeKey() != null ? keyValue(item, getRangeKey()) : KeyValues.LOWEST;
+        return TableKey.of(keyValue(item, getHashKey()), new IndexRange(range, table.key(item)));
+    }
+
+    @Override
+    TableKey bound(int token, Object hash, Object range, boolean last) {
+        return new TableKey(token, hash, new IndexRange(range, last ? KeyValues.HIGHEST : KeyValues.LOWEST));
+    }
+
+    // LastEvaluatedKey of an index carries the table key as well
+    @Override
+    Map<String, AttributeValue> keyOf(Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> key = table.keyOf(item);
+        key.put(getHashKey(), item.get(getHashKey()));
+        if (getRangeKey() != null) {
+            key.put(getRangeKey(), item.get(getRangeKey()));
+        }
+        return key;
+    }
+
+    private boolean covers(Map<String, AttributeValue> item) {
+        return KeyValues.normalize(item.get(getHashKey())) != null
+            && (getRangeKey() == null || KeyValues.normalize(item.get(getRangeKey())) != null);
+    }
+
+    private Map<String, AttributeValue> project(Map<String, AttributeValue> item) {
+        if (projected == null) {
+            return item;
+        }
+        Map<String, AttributeValue> result = keyOf(item);
+        for (String attribute : projected) {
+            AttributeValue value = item.get(attribute);
+            if (value != null) {
+                result.put(attribute, value);
+            }
+        }
+        return Map.copyOf(result);
+    }
+
+    // index range key, then the table key, bounds use the lowest and highest markers in place of the table key
+    private static final class IndexRange implements Comparable<IndexRange> {
+
+        private final Object range;
+        private final Object primary;
+
+        private IndexRange(Object range, Object primary) {
+            this.range = range;
+            this.primary = primary;
+        }
+
+        @Override
+        public int compareTo(IndexRange other) {
+            int order = KeyValues.compare(range, other.range);
+            return order != 0 ? order : KeyValues.compare(primary, other.primary);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.nobirds.aws.dynamodb.mapper.fixtures;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder(toBuilder = true)
+public class InMemoryOptions {
+
+    public static final InMemoryOptions DEFAULT = builder().build();
+
+    // added to every call, the client never sleeps when both are zero
+    @Builder.Default
+    private final Duration latency = Duration.ZERO;
+
+    // random extra latency between zero and this value
+    @Builder.Default
+    private final Duration jitter = Duration.ZERO;
+
+    // share of calls failed with ProvisionedThroughputExceededException
+    @Builder.Default
+    private final double throttleRate = 0;
+
+    // share of batch write requests and batch get keys returned as unprocessed
+    @Builder.Default
+    private final double unprocessedRate = 0;
+
+    // stands in for the 1 MB page limit of query and scan
+    @Builder.Default
+    private final int maxPageItems = 1000;
+
+}
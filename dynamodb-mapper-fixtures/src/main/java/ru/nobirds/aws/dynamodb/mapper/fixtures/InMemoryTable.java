@@ -0,0 +1,231 @@
+package ru.nobirds.aws.dynamodb.mapper.fixtures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+// Items are immutable copies, so readers never see a partially written item and need no locking. Writes to a table
+// with secondary indexes are serialized so the indexes follow the table in order.
+class InMemoryTable {
+
+    private static final Map<String, AttributeValue> MISSING = Map.of();
+
+    @Getter
+    private final String hashKey;
+
+    @Getter
+    private final String rangeKey;
+
+    final ConcurrentSkipListMap<TableKey, Map<String, AttributeValue>> items =
+        new ConcurrentSkipListMap<>(TableKey.ORDER);
+
+    private final Map<String, InMemoryIndex> indexes = new ConcurrentHashMap<>();
+
+    InMemoryTable(String hashKey, String rangeKey) {
+        this.hashKey = hashKey;
+        this.rangeKey = rangeKey;
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    // existing items are indexed right away
+    void addIndex(String indexName, InMemoryIndex index) {
+        synchronized (indexes) {
+            if (indexes.putIfAbsent(indexName, index) != null) {
+                throw Expression.invalid("Duplicate index name: " + indexName);
+            }
+            items.values().forEach(item -> index.replace(null, item));
+        }
+    }
+
+    InMemoryIndex index(String indexName) {
+        InMemoryIndex index = indexes.get(indexName);
+        if (index == null) {
+            throw Expression.invalid("The table does not have the specified index: " + indexName);
+        }
+        return index;
+    }
+
+    Map<String, AttributeValue> get(Map<String, AttributeValue> key) {
+        return items.get(key(key));
+    }
+
+    // condition is checked against the current item, or an empty one, atomically with the write
+    Map<String, AttributeValue> put(Map<String, AttributeValue> item,
+        Predicate<Map<String, AttributeValue>> condition) {
+        Map<String, AttributeValue> copy = Map.copyOf(item);
+        return write(key(copy), copy, condition);
+    }
+
+    Map<String, AttributeValue> delete(Map<String, AttributeValue> key,
+        Predicate<Map<String, AttributeValue>> condition) {
+        return write(key(key), null, condition);
+    }
+
+    Page query(KeyCondition condition, Map<String, AttributeValue> startKey, boolean forward, int limit,
+        Predicate<Map<String, AttributeValue>> filter) {
+
+        int token = KeyValues.token(condition.hash);
+        boolean fromInclusive = condition.fromInclusive;
+        boolean toInclusive = condition.toInclusive;
+        TableKey from = bound(token, condition.hash, condition.from, !fromInclusive);
+        TableKey to = bound(token, condition.hash, condition.to, toInclusive);
+        if (startKey != null && forward && TableKey.ORDER.compare(key(startKey), from) >= 0) {
+            from = key(startKey);
+            fromInclusive = false;
+        } else if (startKey != null && !forward && TableKey.ORDER.compare(key(startKey), to) <= 0) {
+            to = key(startKey);
+            toInclusive = false;
+        }
+
+        NavigableMap<TableKey, Map<String, AttributeValue>> view = range(from, fromInclusive, to, toInclusive);
+        return page(forward ? view : view.descendingMap(), condition.prefix, limit, filter);
+    }
+
+    Page scan(int segment, int totalSegments, Map<String, AttributeValue> startKey, int limit,
+        Predicate<Map<String, AttributeValue>> filter) {
+
+        TableKey from = TableKey.bound(Integer.MIN_VALUE);
+        boolean fromInclusive = true;
+        TableKey to = null;
+        if (totalSegments > 1) {
+            from = TableKey.bound(segmentStart(segment, totalSegments));
+            to = segment == totalSegments - 1 ? null : TableKey.bound(segmentStart(segment + 1, totalSegments));
+        }
+        if (startKey != null && TableKey.ORDER.compare(key(startKey), from) >= 0) {
+            from = key(startKey);
+            fromInclusive = false;
+        }
+        return page(range(from, fromInclusive, to, false), item -> true, limit, filter);
+    }
+
+    Map<String, AttributeValue> keyOf(Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> key = new HashMap<>(4);
+        key.put(hashKey, item.get(hashKey));
+        if (rangeKey != null) {
+            key.put(rangeKey, item.get(rangeKey));
+        }
+        return key;
+    }
+
+    // key of an item, the table key here
+    TableKey key(Map<String, AttributeValue> item) {
+        return TableKey.of(keyValue(item, hashKey), rangeKey != null ? keyValue(item, rangeKey) : null);
+    }
+
+    // bound of a query range, last picks the end of the keys sharing this range value
+    TableKey bound(int token, Object hash, Object range, boolean last) {
+        return new TableKey(token, hash, range);
+    }
+
+    private Map<String, AttributeValue> write(TableKey key, Map<String, AttributeValue> item,
+        Predicate<Map<String, AttributeValue>> condition) {
+
+        if (indexes.isEmpty()) {
+            return write(key, item, condition, null);
+        }
+        synchronized (indexes) {
+            return write(key, item, condition, indexes.values());
+        }
+    }
+
+    private Map<String, AttributeValue> write(TableKey key, Map<String, AttributeValue> item,
+        Predicate<Map<String, AttributeValue>> condition, Iterable<InMemoryIndex> followers) {
+
+        AtomicReference<Map<String, AttributeValue>> previous = new AtomicReference<>();
+        items.compute(key, (ignored, current) -> {
+            if (condition != null && !condition.test(current != null ? current : MISSING)) {
+                throw ConditionalCheckFailedException.builder()
+                    .message("The conditional request failed")
+                    .statusCode(400)
+                    .build();
+            }
+            previous.set(current);
+            return item;
+        });
+        if (followers != null) {
+            for (InMemoryIndex index : followers) {
+                index.replace(previous.get(), item);
+            }
+        }
+        return previous.get();
+    }
+
+    // an empty view when the bounds cross, to is open ended when null
+    private NavigableMap<TableKey, Map<String, AttributeValue>> range(TableKey from, boolean fromInclusive,
+        TableKey to, boolean toInclusive) {
+
+        if (to == null) {
+            return items.tailMap(from, fromInclusive);
+        }
+        int order = TableKey.ORDER.compare(from, to);
+        if (order > 0 || order == 0 && !(fromInclusive && toInclusive)) {
+            return Collections.emptyNavigableMap();
+        }
+        return items.subMap(from, fromInclusive, to, toInclusive);
+    }
+
+    // items before the first one matching the key predicate are skipped, the first one after ends the page
+    private Page page(NavigableMap<TableKey, Map<String, AttributeValue>> view,
+        Predicate<Map<String, AttributeValue>> keyPredicate, int limit,
+        Predicate<Map<String, AttributeValue>> filter) {
+
+        List<Map<String, AttributeValue>> result = new ArrayList<>(Math.min(limit, 64));
+        Map<String, AttributeValue> last = null;
+        int scanned = 0;
+        boolean more = false;
+        for (Map<String, AttributeValue> item : view.values()) {
+            if (!keyPredicate.test(item)) {
+                if (last != null) {
+                    break;
+                }
+                continue;
+            }
+            if (scanned == limit) {
+                more = true;
+                break;
+            }
+            scanned++;
+            last = item;
+            if (filter == null || filter.test(item)) {
+                result.add(item);
+            }
+        }
+        return new Page(result, scanned, more ? keyOf(last) : null);
+    }
+
+    static Object keyValue(Map<String, AttributeValue> item, String name) {
+        Object value = KeyValues.normalize(item.get(name));
+        if (value == null) {
+            throw Expression.invalid("Key attribute " + name + " is missing or is not a string, number or binary");
+        }
+        return value;
+    }
+
+    private static int segmentStart(int segment, int totalSegments) {
+        return (int) (Integer.MIN_VALUE + (1L << 32) * segment / totalSegments);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class Page {
+
+        private final List<Map<String, AttributeValue>> items;
+        private final int scannedCount;
+        private final Map<String, AttributeValue> lastEvaluatedKey;
+
+    }
+}
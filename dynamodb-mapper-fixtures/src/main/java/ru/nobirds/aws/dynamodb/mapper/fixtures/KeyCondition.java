@@ -0,0 +1,124 @@
+package ru.nobirds.aws.dynamodb.mapper.fixtures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import ru.nobirds.aws.dynamodb.mapper.fixtures.Expression.And;
+import ru.nobirds.aws.dynamodb.mapper.fixtures.Expression.BeginsWith;
+import ru.nobirds.aws.dynamodb.mapper.fixtures.Expression.Between;
+import ru.nobirds.aws.dynamodb.mapper.fixtures.Expression.Comparison;
+import ru.nobirds.aws.dynamodb.mapper.fixtures.Expression.Node;
+import ru.nobirds.aws.dynamodb.mapper.fixtures.Expression.Operand;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Key condition of a query turned into a range of the sorted table, begins_with also keeps a predicate
+// because its matches are contiguous but have no upper bound.
+final class KeyCondition {
+
+    private static final Node ANY = item -> true;
+
+    final Object hash;
+    Object from = KeyValues.LOWEST;
+    boolean fromInclusive = true;
+    Object to = KeyValues.HIGHEST;
+    boolean toInclusive = true;
+    Node prefix = ANY;
+
+    private KeyCondition(Object hash) {
+        this.hash = hash;
+    }
+
+    static KeyCondition parse(String expression, Map<String, String> names, Map<String, AttributeValue> values,
+        String hashKey, String rangeKey) {
+
+        if (expression == null) {
+            throw Expression.invalid("KeyConditionExpression is required");
+        }
+
+        List<Node> terms = new ArrayList<>();
+        flatten(Expression.parse(expression, names, values), terms);
+
+        Object hash = null;
+        Node range = null;
+        for (Node term : terms) {
+            if (term instanceof Comparison && hashKey.equals(((Comparison) term).left.attribute)
+                && ((Comparison) term).operator.equals("=") && hash == null) {
+                hash = constant(((Comparison) term).right);
+            } else if (rangeKey != null && range == null && rangeKey.equals(attribute(term))) {
+                range = term;
+            } else {
+                throw Expression.invalid("Unsupported key condition " + expression);
+            }
+        }
+        if (hash == null) {
+            throw Expression.invalid("Key condition must compare " + hashKey + " for equality");
+        }
+
+        KeyCondition condition = new KeyCondition(hash);
+        if (range instanceof Comparison) {
+            condition.bound(((Comparison) range).operator, constant(((Comparison) range).right));
+        } else if (range instanceof Between) {
+            condition.bound(">=", constant(((Between) range).low));
+            condition.bound("<=", constant(((Between) range).high));
+        } else if (range instanceof BeginsWith) {
+            condition.bound(">=", constant(((BeginsWith) range).prefix));
+            condition.prefix = range;
+        }
+        return condition;
+    }
+
+    private void bound(String operator, Object value) {
+        switch (operator) {
+            case "=":
+                from = value;
+                to = value;
+                break;
+            case "<":
+                to = value;
+                toInclusive = false;
+                break;
+            case "<=":
+                to = value;
+                break;
+            case ">":
+                from = value;
+                fromInclusive = false;
+                break;
+            case ">=":
+                from = value;
+                break;
+            default:
+                throw Expression.invalid("Unsupported key condition operator " + operator);
+        }
+    }
+
+    private static void flatten(Node node, List<Node> terms) {
+        if (node instanceof And) {
+            flatten(((And) node).left, terms);
+            flatten(((And) node).right, terms);
+        } else {
+            terms.add(node);
+        }
+    }
+
+    private static String attribute(Node term) {
+        if (term instanceof Comparison) {
+            return ((Comparison) term).left.attribute;
+        }
+        if (term instanceof Between) {
+            return ((Between) term).value.attribute;
+        }
+        if (term instanceof BeginsWith) {
+            return ((BeginsWith) term).value.attribute;
+        }
+        return null;
+    }
+
+    private static Object constant(Operand operand) {
+        Object value = KeyValues.normalize(operand.value);
+        if (value == null) {
+            throw Expression.invalid("Key conditions compare with string, number or binary values");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,112 @@
+package ru.nobirds.aws.dynamodb.mapper.fixtures;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Scalar values in a comparable form: strings, numbers without trailing zeros and unsigned byte arrays.
+final class KeyValues {
+
+    // bounds that sort before and after every value
+    static final Object LOWEST = new Object();
+    static final Object HIGHEST = new Object();
+
+    private KeyValues() {
+    }
+
+    static Object normalize(AttributeValue value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.s() != null) {
+            return value.s();
+        }
+        if (value.n() != null) {
+            return new BigDecimal(value.n()).stripTrailingZeros();
+        }
+        if (value.b() != null) {
+            return new Bytes(value.b().asByteArrayUnsafe());
+        }
+        return null;
+    }
+
+    // strings are in UTF-16 order, it differs from DynamoDB's UTF-8 order only outside the basic plane
+    @SuppressWarnings("unchecked")
+    static int compare(Object left, Object right) {
+        if (left == right) {
+            return 0;
+        }
+        if (left == LOWEST || right == HIGHEST) {
+            return -1;
+        }
+        if (left == HIGHEST || right == LOWEST) {
+            return 1;
+        }
+        if (left.getClass() != right.getClass()) {
+            return Integer.compare(rank(left), rank(right));
+        }
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+
+    // null when the values are not scalars of the same type
+    static Integer compare(AttributeValue left, AttributeValue right) {
+        Object normalizedLeft = normalize(left);
+        Object normalizedRight = normalize(right);
+        if (normalizedLeft == null || normalizedRight == null
+            || normalizedLeft.getClass() != normalizedRight.getClass()) {
+            return null;
+        }
+        return compare(normalizedLeft, normalizedRight);
+    }
+
+    static boolean equal(AttributeValue left, AttributeValue right) {
+        Object normalizedLeft = normalize(left);
+        Object normalizedRight = normalize(right);
+        return normalizedLeft != null && normalizedRight != null
+            ? normalizedLeft.equals(normalizedRight)
+            : left.equals(right);
+    }
+
+    // murmur3 finalizer, spreads partition keys evenly over the segments of a scan
+    static int token(Object hash) {
+        int h = hash.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int rank(Object value) {
+        return value instanceof String ? 0 : value instanceof BigDecimal ? 1 : 2;
+    }
+
+    static final class Bytes implements Comparable<Bytes> {
+
+        private final byte[] value;
+
+        Bytes(byte[] value) {
+            this.value = value;
+        }
+
+        byte[] value() {
+            return value;
+        }
+
+        @Override
+        public int compareTo(Bytes other) {
+            return Arrays.compareUnsigned(value, other.value);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Bytes && Arrays.equals(value, ((Bytes) other).value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(value);
+        }
+    }
+}
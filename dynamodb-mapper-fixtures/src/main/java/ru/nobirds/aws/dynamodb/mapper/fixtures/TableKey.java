@@ -0,0 +1,37 @@
+package ru.nobirds.aws.dynamodb.mapper.fixtures;
+
+import java.util.Comparator;
+
+// Items are ordered by a hash of the partition key first, like DynamoDB does, so scan segments are key ranges.
+final class TableKey implements Comparable<TableKey> {
+
+    static final Comparator<TableKey> ORDER = Comparator.<TableKey>comparingInt(key -> key.token)
+        .thenComparing((left, right) -> KeyValues.compare(left.hash, right.hash))
+        .thenComparing((left, right) -> KeyValues.compare(left.range, right.range));
+
+    private final int token;
+    private final Object hash;
+    private final Object range;
+
+    TableKey(int token, Object hash, Object range) {
+        this.token = token;
+        this.hash = hash;
+        this.range = range;
+    }
+
+    static TableKey of(Object hash, Object range) {
+        return new TableKey(KeyValues.token(hash), hash, range);
+    }
+
+    // sorts before every key with this token or a greater one
+    static TableKey bound(int token) {
+        return new TableKey(token, KeyValues.LOWEST, KeyValues.LOWEST);
+    }
+
+    // index entries end with the table key of their item
+    @Override
+    public int compareTo(TableKey other) {
+        return ORDER.compare(this, other);
+    }
+
+}
@@ -0,0 +1,263 @@
+package ru.nobirds.aws.dynamodb.mapper.fixtures;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+public class InMemoryDynamoDbClientTest {
+
+    private static final String TABLE = "orders";
+
+    private InMemoryDynamoDbClient client;
+
+    @BeforeEach
+    public void setUp() {
+        client = new InMemoryDynamoDbClient(InMemoryOptions.builder().maxPageItems(3).build())
+            .createTable(TABLE, "customer", "order");
+    }
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static AttributeValue n(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+
+    private static Map<String, AttributeValue> order(String customer, long order) {
+        return Map.of("customer", s(customer), "order", n(order), "total", n(order * 10));
+    }
+
+    private void putOrders(String customer, int count) {
+        for (int i = 1; i <= count; i++) {
+            Map<String, AttributeValue> item = order(customer, i);
+            client.putItem(builder -> builder.tableName(TABLE).item(item));
+        }
+    }
+
+    private static List<Long> orders(List<Map<String, AttributeValue>> items) {
+        return items.stream().map(item -> Long.parseLong(item.get("order").n())).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testPutGetAndConditionalWrites() {
+        client.putItem(builder -> builder.tableName(TABLE).item(order("alice", 1)));
+
+        // numbers are compared by value, not by their text
+        Map<String, AttributeValue> key = Map.of("customer", s("alice"), "order",
+            AttributeValue.builder().n("1.0").build());
+        assertThat(client.getItem(builder -> builder.tableName(TABLE).key(key)).item()).isEqualTo(order("alice", 1));
+        assertThat(client.getItem(builder -> builder.tableName(TABLE).key(key)
+            .projectionExpression("#t").expressionAttributeNames(Map.of("#t", "total"))).item())
+            .isEqualTo(Map.of("total", n(10)));
+
+        assertThatThrownBy(() -> client.putItem(builder -> builder.tableName(TABLE).item(order("alice", 1))
+            .conditionExpression("attribute_not_exists(customer)")))
+            .isInstanceOf(ConditionalCheckFailedException.class);
+
+        client.deleteItem(builder -> builder.tableName(TABLE).key(key)
+            .conditionExpression("#t = :t")
+            .expressionAttributeNames(Map.of("#t", "total"))
+            .expressionAttributeValues(Map.of(":t", n(10))));
+        assertThat(client.getItem(builder -> builder.tableName(TABLE).key(key)).hasItem()).isFalse();
+
+        client.putItem(builder -> builder.tableName(TABLE).item(order("bob", 2)));
+        List<Map<String, AttributeValue>> found = client.batchGetItem(builder -> builder.requestItems(Map.of(TABLE,
+            KeysAndAttributes.builder().keys(key, Map.of("customer", s("bob"), "order", n(2))).build())))
+            .responses().get(TABLE);
+        assertThat(found).containsExactly(order("bob", 2));
+
+        assertThatThrownBy(() -> client.getItem(builder -> builder.tableName("missing").key(key)))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    public void testQueryPagesThroughSortKeyRangeInBothDirections() {
+        putOrders("alice", 10);
+        putOrders("bob", 5);
+
+        Map<String, AttributeValue> values = Map.of(":c", s("alice"), ":from", n(3), ":to", n(8));
+        List<Map<String, AttributeValue>> forward = new ArrayList<>();
+        client.queryPaginator(builder -> builder.tableName(TABLE)
+            .keyConditionExpression("customer = :c AND #o BETWEEN :from AND :to")
+            .expressionAttributeNames(Map.of("#o", "order"))
+            .expressionAttributeValues(values))
+            .items()
+            .forEach(forward::add);
+        assertThat(orders(forward)).containsExactly(3L, 4L, 5L, 6L, 7L, 8L);
+
+        List<Map<String, AttributeValue>> backward = new ArrayList<>();
+        client.queryPaginator(builder -> builder.tableName(TABLE)
+            .keyConditionExpression("customer = :c AND #o > :from")
+            .filterExpression("total <> :to")
+            .scanIndexForward(false)
+            .expressionAttributeNames(Map.of("#o", "order"))
+            .expressionAttributeValues(Map.of(":c", s("alice"), ":from", n(3), ":to", n(80))))
+            .items()
+            .forEach(backward::add);
+        assertThat(orders(backward)).containsExactly(10L, 9L, 7L, 6L, 5L, 4L);
+    }
+
+    @Test
+    public void testQueryBeginsWith() {
+        for (String order : List.of("2020-12-31", "2021-01-05", "2021-02-01", "2021-03-10", "2022-01-01")) {
+            Map<String, AttributeValue> item = Map.of("customer", s("alice"), "order", s(order));
+            client.putItem(builder -> builder.tableName(TABLE).item(item));
+        }
+
+        List<String> found = new ArrayList<>();
+        client.queryPaginator(builder -> builder.tableName(TABLE)
+            .keyConditionExpression("customer = :c AND begins_with(#o, :year)")
+            .scanIndexForward(false)
+            .expressionAttributeNames(Map.of("#o", "order"))
+            .expressionAttributeValues(Map.of(":c", s("alice"), ":year", s("2021-"))))
+            .items()
+            .forEach(item -> found.add(item.get("order").s()));
+
+        assertThat(found).containsExactly("2021-03-10", "2021-02-01", "2021-01-05");
+    }
+
+    @Test
+    public void testScanSegmentsCoverTableOnce() {
+        for (int customer = 0; customer < 50; customer++) {
+            putOrders("customer-" + customer, 2);
+        }
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        for (int segment = 0; segment < 4; segment++) {
+            int current = segment;
+            client.scanPaginator(builder -> builder.tableName(TABLE).segment(current).totalSegments(4))
+                .items()
+                .forEach(items::add);
+        }
+
+        assertThat(items).hasSize(100);
+        assertThat(new HashSet<>(items)).hasSize(100);
+        assertThat(client.scan(builder -> builder.tableName(TABLE).limit(7)).count()).isEqualTo(3);
+    }
+
+    @Test
+    public void testGlobalIndexFollowsWrites() {
+        InMemoryDynamoDbClient indexed = new InMemoryDynamoDbClient(InMemoryOptions.builder()
+            .maxPageItems(1)
+            .build());
+        indexed.createTable(builder -> builder.tableName(TABLE)
+            .keySchema(KeySchemaElement.builder().attributeName("customer").keyType(KeyType.HASH).build(),
+                KeySchemaElement.builder().attributeName("order").keyType(KeyType.RANGE).build())
+            .globalSecondaryIndexes(GlobalSecondaryIndex.builder()
+                .indexName("by-status")
+                .keySchema(KeySchemaElement.builder().attributeName("status").keyType(KeyType.HASH).build(),
+                    KeySchemaElement.builder().attributeName("total").keyType(KeyType.RANGE).build())
+                .projection(Projection.builder().projectionType(ProjectionType.KEYS_ONLY).build())
+                .build()));
+
+        for (long order = 1; order <= 5; order++) {
+            Map<String, AttributeValue> item = new HashMap<>(order("alice", order));
+            item.put("note", s("gift"));
+            if (order != 3) {
+                item.put("status", s(order % 2 == 0 ? "shipped" : "open"));
+            }
+            indexed.putItem(builder -> builder.tableName(TABLE).item(item));
+        }
+        indexed.putItem(builder -> builder.tableName(TABLE)
+            .item(Map.of("customer", s("bob"), "order", n(1), "total", n(30), "status", s("open"))));
+        // moves from open to shipped
+        indexed.putItem(builder -> builder.tableName(TABLE)
+            .item(Map.of("customer", s("alice"), "order", n(5), "total", n(50), "status", s("shipped"))));
+        indexed.deleteItem(builder -> builder.tableName(TABLE).key(Map.of("customer", s("alice"), "order", n(2))));
+
+        List<Map<String, AttributeValue>> shipped = new ArrayList<>();
+        indexed.queryPaginator(builder -> builder.tableName(TABLE).indexName("by-status")
+            .keyConditionExpression("#s = :s AND total >= :t")
+            .expressionAttributeNames(Map.of("#s", "status"))
+            .expressionAttributeValues(Map.of(":s", s("shipped"), ":t", n(0))))
+            .items()
+            .forEach(shipped::add);
+        assertThat(orders(shipped)).containsExactly(4L, 5L);
+        assertThat(shipped.get(0)).containsOnlyKeys("customer", "order", "status", "total");
+
+        List<Map<String, AttributeValue>> open = new ArrayList<>();
+        indexed.queryPaginator(builder -> builder.tableName(TABLE).indexName("by-status")
+            .keyConditionExpression("#s = :s")
+            .scanIndexForward(false)
+            .expressionAttributeNames(Map.of("#s", "status"))
+            .expressionAttributeValues(Map.of(":s", s("open"))))
+            .items()
+            .forEach(open::add);
+        assertThat(open).extracting(item -> item.get("customer").s() + item.get("order").n())
+            .containsExactly("bob1", "alice1");
+        assertThat(indexed.scanPaginator(builder -> builder.tableName(TABLE).indexName("by-status")).items())
+            .hasSize(4);
+
+        assertThatThrownBy(() -> indexed.query(builder -> builder.tableName(TABLE).indexName("by-status")
+            .consistentRead(true)
+            .keyConditionExpression("#s = :s")
+            .expressionAttributeNames(Map.of("#s", "status"))
+            .expressionAttributeValues(Map.of(":s", s("open")))))
+            .isInstanceOf(DynamoDbException.class)
+            .hasMessageContaining("Consistent reads are not supported");
+        assertThatThrownBy(() -> indexed.scan(builder -> builder.tableName(TABLE).indexName("missing")))
+            .isInstanceOf(DynamoDbException.class)
+            .hasMessageContaining("does not have the specified index");
+    }
+
+    @Test
+    public void testBatchWriteReturnsUnprocessedItems() {
+        InMemoryDynamoDbClient flaky = new InMemoryDynamoDbClient(InMemoryOptions.builder()
+            .unprocessedRate(0.5)
+            .build())
+            .createTable(TABLE, "customer", "order");
+
+        List<WriteRequest> pending = IntStream.rangeClosed(1, 25)
+            .mapToObj(i -> WriteRequest.builder()
+                .putRequest(PutRequest.builder().item(order("alice", i)).build())
+                .build())
+            .collect(Collectors.toList());
+
+        int attempts = 0;
+        while (!pending.isEmpty() && attempts++ < 100) {
+            List<WriteRequest> requests = pending;
+            BatchWriteItemResponse response = flaky.batchWriteItem(builder -> builder
+                .requestItems(Map.of(TABLE, requests)));
+            pending = response.unprocessedItems().getOrDefault(TABLE, List.of());
+        }
+
+        assertThat(attempts).isGreaterThan(1);
+        assertThat(flaky.itemCount(TABLE)).isEqualTo(25);
+    }
+
+    @Test
+    public void testThrottling() {
+        InMemoryDynamoDbClient throttled = new InMemoryDynamoDbClient(InMemoryOptions.builder()
+            .throttleRate(1)
+            .build())
+            .createTable(TABLE, "customer");
+
+        assertThatThrownBy(() -> throttled.putItem(builder -> builder.tableName(TABLE).item(order("alice", 1))))
+            .isInstanceOf(ProvisionedThroughputExceededException.class);
+        assertThat(throttled.itemCount(TABLE)).isZero();
+    }
+}
@@ -0,0 +1,29 @@
+plugins {
+    java
+    id("me.champeau.gradle.jmh") version "0.5.3"
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    jmhImplementation(project(":dynamodb-mapper"))
+    jmhImplementation(project(":dynamodb-mapper-fixtures"))
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(11))
+    }
+}
+
+jmh {
+    jmhVersion = "1.27"
+    // allocation rate next to throughput, so bytes/op regressions show up as well
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+}
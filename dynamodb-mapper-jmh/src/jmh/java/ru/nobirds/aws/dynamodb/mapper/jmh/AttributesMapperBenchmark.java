@@ -0,0 +1,57 @@
+package ru.nobirds.aws.dynamodb.mapper.jmh;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.nobirds.aws.dynamodb.mapper.AttributeMappers.AttributesBuilder;
+import ru.nobirds.aws.dynamodb.mapper.AttributesMapper;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AttributesMapperBenchmark {
+
+    @Param({"narrow", "wide"})
+    private String shape;
+
+    @Param({"built", "compiled"})
+    private String mapper;
+
+    private AttributesMapper<Object> attributesMapper;
+    private Object item;
+    private Map<String, AttributeValue> attributes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        AttributesBuilder<?> builder;
+        if (shape.equals("narrow")) {
+            builder = NarrowItem.attributes();
+            item = NarrowItem.sample(42);
+        } else {
+            builder = WideItem.attributes();
+            item = WideItem.sample(42);
+        }
+
+        attributesMapper = (AttributesMapper<Object>) (mapper.equals("compiled") ? builder.compile() : builder.build());
+        attributes = attributesMapper.map(item);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> write() {
+        return attributesMapper.map(item);
+    }
+
+    @Benchmark
+    public Object read() {
+        return attributesMapper.map(attributes);
+    }
+}
@@ -0,0 +1,75 @@
+package ru.nobirds.aws.dynamodb.mapper.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.nobirds.aws.dynamodb.mapper.AttributeMapper;
+import ru.nobirds.aws.dynamodb.mapper.AttributeMappers;
+import ru.nobirds.aws.dynamodb.mapper.BidirectionalMapper;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BidirectionalMapperBenchmark {
+
+    private BidirectionalMapper<String, String> prefixed;
+    private BidirectionalMapper<String, Long> chain;
+    private AttributeMapper<Long> attributeChain;
+
+    private String prefixedValue;
+    private String chainValue;
+    private Long number;
+    private AttributeValue attributeValue;
+
+    @Setup
+    public void setUp() {
+        prefixed = BidirectionalMapper.hashed("ITEM");
+        chain = BidirectionalMapper.withPrefix("A_")
+            .then(BidirectionalMapper.withPrefix("B_"))
+            .then(BidirectionalMapper.STRING_TO_NUMERIC);
+        attributeChain = AttributeMappers.STRING
+            .map(BidirectionalMapper.hashed("ITEM"))
+            .map(BidirectionalMapper.STRING_TO_NUMERIC);
+
+        prefixedValue = "ITEM#12345";
+        chainValue = "A_B_12345";
+        number = 12345L;
+        attributeValue = AttributeValue.builder().s("ITEM#12345").build();
+    }
+
+    @Benchmark
+    public String prefixedRead() {
+        return prefixed.read(prefixedValue);
+    }
+
+    @Benchmark
+    public String prefixedWrite() {
+        return prefixed.write(prefixedValue);
+    }
+
+    @Benchmark
+    public Long chainRead() {
+        return chain.read(chainValue);
+    }
+
+    @Benchmark
+    public String chainWrite() {
+        return chain.write(number);
+    }
+
+    @Benchmark
+    public Long attributeChainRead() {
+        return attributeChain.map(attributeValue);
+    }
+
+    @Benchmark
+    public AttributeValue attributeChainWrite() {
+        return attributeChain.map(number);
+    }
+}
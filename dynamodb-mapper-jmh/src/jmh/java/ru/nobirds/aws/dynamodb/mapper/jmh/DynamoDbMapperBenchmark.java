@@ -0,0 +1,57 @@
+package ru.nobirds.aws.dynamodb.mapper.jmh;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.nobirds.aws.dynamodb.mapper.AttributesMapper;
+import ru.nobirds.aws.dynamodb.mapper.DynamoDbMapper;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Measures the mapper's own overhead per page against an in-process client, there is no network involved.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DynamoDbMapperBenchmark {
+
+    private static final String TABLE = "items";
+
+    @Param({"1000"})
+    private int items;
+
+    @Param({"100"})
+    private int pageSize;
+
+    private AttributesMapper<NarrowItem> mapper;
+    private DynamoDbMapper dynamoDbMapper;
+
+    @Setup
+    public void setUp() {
+        mapper = NarrowItem.attributes().build();
+        List<Map<String, AttributeValue>> values = LongStream.range(0, items)
+            .mapToObj(NarrowItem::sample)
+            .map(mapper::map)
+            .collect(Collectors.toList());
+        dynamoDbMapper = new DynamoDbMapper(new StubDynamoDbClient(values, pageSize), name -> name);
+    }
+
+    @Benchmark
+    public void query(Blackhole blackhole) {
+        dynamoDbMapper.query(TABLE, mapper).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) {
+        dynamoDbMapper.scan(TABLE, mapper).forEach(blackhole::consume);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.nobirds.aws.dynamodb.mapper.jmh;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import ru.nobirds.aws.dynamodb.mapper.AttributesMapper;
+import ru.nobirds.aws.dynamodb.mapper.DynamoDbMapper;
+import ru.nobirds.aws.dynamodb.mapper.fixtures.InMemoryDynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Concurrent gets and saves through the mapper against the in-memory client, the table is shared by all threads.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class InMemoryMapperBenchmark {
+
+    private static final String TABLE = "items";
+
+    @Param({"10000"})
+    private int items;
+
+    private AttributesMapper<NarrowItem> mapper;
+    private DynamoDbMapper dynamoDbMapper;
+    private List<NarrowItem> samples;
+    private List<Map<String, AttributeValue>> keys;
+
+    @Setup
+    public void setUp() {
+        mapper = NarrowItem.attributes().compile();
+        dynamoDbMapper = new DynamoDbMapper(new InMemoryDynamoDbClient().createTable(TABLE, "pk", "sk"), name -> name);
+        samples = LongStream.range(0, items)
+            .mapToObj(NarrowItem::sample)
+            .collect(Collectors.toList());
+        keys = samples.stream()
+            .map(mapper::map)
+            .map(item -> Map.of("pk", item.get("pk"), "sk", item.get("sk")))
+            .collect(Collectors.toList());
+        samples.forEach(sample -> dynamoDbMapper.save(TABLE, mapper, sample));
+    }
+
+    @Benchmark
+    public Object get() {
+        return dynamoDbMapper.get(TABLE, mapper, keys.get(ThreadLocalRandom.current().nextInt(items)));
+    }
+
+    @Benchmark
+    public Object save() {
+        return dynamoDbMapper.save(TABLE, mapper, samples.get(ThreadLocalRandom.current().nextInt(items)));
+    }
+}
@@ -0,0 +1,83 @@
+package ru.nobirds.aws.dynamodb.mapper.jmh;
+
+import java.time.LocalDate;
+import ru.nobirds.aws.dynamodb.mapper.AttributeMappers;
+import ru.nobirds.aws.dynamodb.mapper.AttributeMappers.AttributesBuilder;
+import ru.nobirds.aws.dynamodb.mapper.BidirectionalMapper;
+
+public class NarrowItem {
+
+    private Long id;
+    private String name;
+    private Double cost;
+    private LocalDate date;
+    private Kind kind;
+
+    public static AttributesBuilder<NarrowItem> attributes() {
+        return AttributeMappers.builder(NarrowItem::new)
+            .constantValue("pk", "ITEM", AttributeMappers.STRING)
+            .attribute("sk", NarrowItem::getId, NarrowItem::setId, AttributeMappers.STRING
+                .map(BidirectionalMapper.hashed("ITEM"))
+                .map(BidirectionalMapper.STRING_TO_NUMERIC))
+            .number("id", NarrowItem::getId, NarrowItem::setId)
+            .string("name", NarrowItem::getName, NarrowItem::setName)
+            .decimal("cost", NarrowItem::getCost, NarrowItem::setCost)
+            .attribute("date", NarrowItem::getDate, NarrowItem::setDate,
+                AttributeMappers.STRING.map(BidirectionalMapper.STRING_TO_DATE))
+            .enumeration("kind", NarrowItem::getKind, NarrowItem::setKind, Kind.class);
+    }
+
+    public static NarrowItem sample(long id) {
+        NarrowItem item = new NarrowItem();
+        item.setId(id);
+        item.setName("item-" + id);
+        item.setCost(id * 1.5);
+        item.setDate(LocalDate.of(2020, 1, 1).plusDays(id));
+        item.setKind(id % 2 == 0 ? Kind.SMALL : Kind.LARGE);
+        return item;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Double getCost() {
+        return cost;
+    }
+
+    public void setCost(Double cost) {
+        this.cost = cost;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public void setKind(Kind kind) {
+        this.kind = kind;
+    }
+
+    public enum Kind {
+        SMALL, LARGE
+    }
+}
@@ -0,0 +1,57 @@
+package ru.nobirds.aws.dynamodb.mapper.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import ru.nobirds.aws.dynamodb.mapper.AttributeMappers;
+import ru.nobirds.aws.dynamodb.mapper.AttributesMapper;
+
+public class NestedItem {
+
+    private static final AttributesMapper<NarrowItem> CHILD_MAPPER = NarrowItem.attributes().build();
+
+    public static final AttributesMapper<NestedItem> MAPPER = AttributeMappers.builder(NestedItem::new)
+        .string("id", NestedItem::getId, NestedItem::setId)
+        .object("head", NestedItem::getHead, NestedItem::setHead, CHILD_MAPPER)
+        .list("children", NestedItem::getChildren, NestedItem::setChildren, AttributeMappers.object(CHILD_MAPPER))
+        .build();
+
+    private String id;
+    private NarrowItem head;
+    private List<NarrowItem> children;
+
+    public static NestedItem sample(int children) {
+        NestedItem item = new NestedItem();
+        item.setId("nested");
+        item.setHead(NarrowItem.sample(0));
+        List<NarrowItem> list = new ArrayList<>(children);
+        for (int i = 0; i < children; i++) {
+            list.add(NarrowItem.sample(i + 1));
+        }
+        item.setChildren(list);
+        return item;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public NarrowItem getHead() {
+        return head;
+    }
+
+    public void setHead(NarrowItem head) {
+        this.head = head;
+    }
+
+    public List<NarrowItem> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<NarrowItem> children) {
+        this.children = children;
+    }
+}
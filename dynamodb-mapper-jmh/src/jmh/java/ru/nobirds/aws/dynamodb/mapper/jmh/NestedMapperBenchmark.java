@@ -0,0 +1,41 @@
+package ru.nobirds.aws.dynamodb.mapper.jmh;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NestedMapperBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int children;
+
+    private NestedItem item;
+    private Map<String, AttributeValue> attributes;
+
+    @Setup
+    public void setUp() {
+        item = NestedItem.sample(children);
+        attributes = NestedItem.MAPPER.map(item);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> write() {
+        return NestedItem.MAPPER.map(item);
+    }
+
+    @Benchmark
+    public NestedItem read() {
+        return NestedItem.MAPPER.map(attributes);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.nobirds.aws.dynamodb.mapper.jmh;
+
+import java.util.List;
+import java.util.Map;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.paginators.QueryIterable;
+import software.amazon.awssdk.services.dynamodb.paginators.ScanIterable;
+
+// Serves the same prepared items for every query and scan, pageSize items per page.
+public class StubDynamoDbClient implements DynamoDbClient {
+
+    private static final String OFFSET = "offset";
+
+    private final List<Map<String, AttributeValue>> items;
+    private final int pageSize;
+
+    public StubDynamoDbClient(List<Map<String, AttributeValue>> items, int pageSize) {
+        this.items = items;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public QueryResponse query(QueryRequest request) {
+        int offset = offset(request.hasExclusiveStartKey() ? request.exclusiveStartKey() : null);
+        int to = Math.min(offset + pageSize, items.size());
+
+        QueryResponse.Builder response = QueryResponse.builder()
+            .items(items.subList(offset, to))
+            .count(to - offset);
+        if (to < items.size()) {
+            response.lastEvaluatedKey(startKey(to));
+        }
+        return response.build();
+    }
+
+    @Override
+    public QueryIterable queryPaginator(QueryRequest request) {
+        return new QueryIterable(this, request);
+    }
+
+    @Override
+    public ScanResponse scan(ScanRequest request) {
+        int offset = offset(request.hasExclusiveStartKey() ? request.exclusiveStartKey() : null);
+        int to = Math.min(offset + pageSize, items.size());
+
+        ScanResponse.Builder response = ScanResponse.builder()
+            .items(items.subList(offset, to))
+            .count(to - offset);
+        if (to < items.size()) {
+            response.lastEvaluatedKey(startKey(to));
+        }
+        return response.build();
+    }
+
+    @Override
+    public ScanIterable scanPaginator(ScanRequest request) {
+        return new ScanIterable(this, request);
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static int offset(Map<String, AttributeValue> startKey) {
+        return startKey == null ? 0 : Integer.parseInt(startKey.get(OFFSET).n());
+    }
+
+    private static Map<String, AttributeValue> startKey(int offset) {
+        return Map.of(OFFSET, AttributeValue.builder().n(Integer.toString(offset)).build());
+    }
+}
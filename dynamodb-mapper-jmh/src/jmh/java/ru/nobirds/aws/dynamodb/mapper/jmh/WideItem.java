@@ -0,0 +1,37 @@
+package ru.nobirds.aws.dynamodb.mapper.jmh;
+
+import ru.nobirds.aws.dynamodb.mapper.AttributeMappers;
+import ru.nobirds.aws.dynamodb.mapper.AttributeMappers.AttributesBuilder;
+
+public class WideItem {
+
+    public static final int STRINGS = 30;
+    public static final int NUMBERS = 30;
+
+    private final String[] strings = new String[STRINGS];
+    private final Long[] numbers = new Long[NUMBERS];
+
+    public static AttributesBuilder<WideItem> attributes() {
+        AttributesBuilder<WideItem> builder = AttributeMappers.builder(WideItem::new);
+        for (int i = 0; i < STRINGS; i++) {
+            int index = i;
+            builder.string("string" + i, item -> item.strings[index], (item, value) -> item.strings[index] = value);
+        }
+        for (int i = 0; i < NUMBERS; i++) {
+            int index = i;
+            builder.number("number" + i, item -> item.numbers[index], (item, value) -> item.numbers[index] = value);
+        }
+        return builder;
+    }
+
+    public static WideItem sample(long id) {
+        WideItem item = new WideItem();
+        for (int i = 0; i < STRINGS; i++) {
+            item.strings[i] = "value-" + id + "-" + i;
+        }
+        for (int i = 0; i < NUMBERS; i++) {
+            item.numbers[i] = id * NUMBERS + i;
+        }
+        return item;
+    }
+}
@@ -0,0 +1,7 @@
+plugins {
+    `java-module`
+}
+
+repositories {
+    mavenCentral()
+}
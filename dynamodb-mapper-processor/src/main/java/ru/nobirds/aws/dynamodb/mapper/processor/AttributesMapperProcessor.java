@@ -0,0 +1,291 @@
+package ru.nobirds.aws.dynamodb.mapper.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+// Generates a straight-line AttributesMapper for every @DynamoDbEntity class. Accessors are named like Lombok
+// names them and looked up among the entity methods, Lombok generated ones may not be visible to this round, so
+// a Lombok annotation on the field or its class stands in for them.
+@SupportedAnnotationTypes(AttributesMapperProcessor.ENTITY)
+public class AttributesMapperProcessor extends AbstractProcessor {
+
+    static final String PACKAGE = "ru.nobirds.aws.dynamodb.mapper";
+    static final String ENTITY = PACKAGE + ".DynamoDbEntity";
+    static final String ATTRIBUTE = PACKAGE + ".DynamoDbAttribute";
+    static final String PREFIX = PACKAGE + ".DynamoDbPrefix";
+    static final String CONSTANT = PACKAGE + ".DynamoDbConstant";
+    static final String CONSTANTS = PACKAGE + ".DynamoDbConstants";
+    static final String IGNORE = PACKAGE + ".DynamoDbIgnore";
+
+    private static final String NO_ARGS_CONSTRUCTOR = "lombok.NoArgsConstructor";
+    private static final String DATA = "lombok.Data";
+    private static final String GETTER = "lombok.Getter";
+    private static final String SETTER = "lombok.Setter";
+
+    private static final String MAPPER_SUFFIX = "AttributesMapper";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                try {
+                    if (element.getKind() != ElementKind.CLASS) {
+                        throw new InvalidEntityException("@DynamoDbEntity is only supported on classes", element);
+                    }
+                    write((TypeElement) element, entity((TypeElement) element));
+                } catch (InvalidEntityException e) {
+                    processingEnv.getMessager().printMessage(Kind.ERROR, e.getMessage(), e.getElement());
+                } catch (IOException e) {
+                    processingEnv.getMessager().printMessage(Kind.ERROR,
+                        "Unable to write mapper: " + e.getMessage(), element);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void write(TypeElement type, EntityModel entity) throws IOException {
+        String name = entity.getPackageName().isEmpty()
+            ? entity.getMapperSimpleName()
+            : entity.getPackageName() + "." + entity.getMapperSimpleName();
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(name, type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(new MapperWriter(entity, getClass().getName()).write());
+        }
+    }
+
+    private EntityModel entity(TypeElement type) {
+        // Lombok constructors may not be visible yet
+        boolean hasDefaultConstructor = annotation(type, NO_ARGS_CONSTRUCTOR).isPresent()
+            || ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+            .anyMatch(constructor -> constructor.getParameters().isEmpty()
+                && !constructor.getModifiers().contains(Modifier.PRIVATE));
+        if (!hasDefaultConstructor || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new InvalidEntityException("Entity needs a non-private no-args constructor", type);
+        }
+
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type));
+        List<FieldModel> fields = new ArrayList<>();
+        for (VariableElement field : fields(type)) {
+            fields.add(field(field, methods));
+        }
+
+        return new EntityModel(
+            processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString(),
+            mapperSimpleName(type),
+            type.getQualifiedName().toString(),
+            constants(type),
+            fields);
+    }
+
+    private List<VariableElement> fields(TypeElement type) {
+        List<VariableElement> result = new ArrayList<>();
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED) {
+            TypeElement parent = (TypeElement) ((DeclaredType) superclass).asElement();
+            if (!parent.getQualifiedName().contentEquals("java.lang.Object")) {
+                result.addAll(fields(parent));
+            }
+        }
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT)
+                && annotation(field, IGNORE).isEmpty()) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+
+    private FieldModel field(VariableElement field, List<ExecutableElement> methods) {
+        String name = field.getSimpleName().toString();
+        String attributeName = annotation(field, ATTRIBUTE)
+            .map(attribute -> (String) value(attribute, "value"))
+            .filter(value -> !value.isEmpty())
+            .orElse(name);
+
+        ValueType type = valueType(field.asType(), field);
+
+        String prefix = annotation(field, PREFIX)
+            .map(annotation -> {
+                String value = (String) value(annotation, "value");
+                return (Boolean) value(annotation, "hashed") ? value + "#" : value;
+            })
+            .orElse(null);
+
+        if (prefix != null && type.getKind() != ValueType.Kind.STRING && type.getKind() != ValueType.Kind.LONG) {
+            throw new InvalidEntityException("@DynamoDbPrefix is only supported on String and Long fields", field);
+        }
+
+        // Lombok drops the is prefix of a primitive boolean: isActive gets isActive() and setActive()
+        String property = field.asType().getKind() == TypeKind.BOOLEAN && name.length() > 2 && name.startsWith("is")
+            && Character.isUpperCase(name.charAt(2)) ? name.substring(2) : name;
+        String capitalized = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        String getter = (field.asType().getKind() == TypeKind.BOOLEAN ? "is" : "get") + capitalized;
+        String setter = "set" + capitalized;
+
+        requireAccessor(field, methods, getter, 0, GETTER);
+        requireAccessor(field, methods, setter, 1, SETTER);
+        return new FieldModel(attributeName, getter, setter, type, prefix);
+    }
+
+    private void requireAccessor(VariableElement field, List<ExecutableElement> methods, String name,
+        int parameters, String lombokAnnotation) {
+        for (ExecutableElement method : methods) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == parameters
+                && !method.getModifiers().contains(Modifier.PRIVATE)
+                && !method.getModifiers().contains(Modifier.STATIC)) {
+                return;
+            }
+        }
+        Element owner = field.getEnclosingElement();
+        if (annotation(field, lombokAnnotation).isPresent() || annotation(owner, lombokAnnotation).isPresent()
+            || annotation(owner, DATA).isPresent()) {
+            return;
+        }
+        throw new InvalidEntityException("Field " + field.getSimpleName() + " needs a non-private " + name + "("
+            + (parameters == 0 ? "" : field.asType().toString()) + ") method", field);
+    }
+
+    private ValueType valueType(TypeMirror type, Element field) {
+        switch (type.getKind()) {
+            case LONG:
+                return ValueType.primitive(ValueType.Kind.LONG, "java.lang.Long");
+            case INT:
+                return ValueType.primitive(ValueType.Kind.INTEGER, "java.lang.Integer");
+            case DOUBLE:
+                return ValueType.primitive(ValueType.Kind.DOUBLE, "java.lang.Double");
+            case BOOLEAN:
+                return ValueType.primitive(ValueType.Kind.BOOLEAN, "java.lang.Boolean");
+            case DECLARED:
+                return declaredType((DeclaredType) type, field);
+            default:
+                throw new InvalidEntityException("Unsupported attribute type " + type, field);
+        }
+    }
+
+    private ValueType declaredType(DeclaredType type, Element field) {
+        TypeElement element = (TypeElement) type.asElement();
+        String name = element.getQualifiedName().toString();
+
+        switch (name) {
+            case "java.lang.String":
+                return ValueType.of(ValueType.Kind.STRING, name);
+            case "java.lang.Long":
+                return ValueType.of(ValueType.Kind.LONG, name);
+            case "java.lang.Integer":
+                return ValueType.of(ValueType.Kind.INTEGER, name);
+            case "java.lang.Double":
+                return ValueType.of(ValueType.Kind.DOUBLE, name);
+            case "java.lang.Boolean":
+                return ValueType.of(ValueType.Kind.BOOLEAN, name);
+            case "java.time.LocalDate":
+                return ValueType.of(ValueType.Kind.DATE, name);
+            case "java.time.Instant":
+                return ValueType.of(ValueType.Kind.INSTANT, name);
+            case "java.util.List":
+                if (type.getTypeArguments().size() != 1) {
+                    throw new InvalidEntityException("Raw lists are not supported", field);
+                }
+                ValueType elementType = valueType(type.getTypeArguments().get(0), field);
+                if (elementType.getKind() == ValueType.Kind.LIST) {
+                    throw new InvalidEntityException("Nested lists are not supported", field);
+                }
+                return ValueType.list(elementType);
+            default:
+                break;
+        }
+
+        if (element.getKind() == ElementKind.ENUM) {
+            return ValueType.of(ValueType.Kind.ENUM, name);
+        }
+
+        if (annotation(element, ENTITY).isPresent()) {
+            String packageName = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+            String mapperName = mapperSimpleName(element);
+            return ValueType.object(name, packageName.isEmpty() ? mapperName : packageName + "." + mapperName);
+        }
+
+        throw new InvalidEntityException("Unsupported attribute type " + name
+            + ", nested classes have to be annotated with @DynamoDbEntity", field);
+    }
+
+    private Map<String, String> constants(TypeElement type) {
+        Map<String, String> result = new LinkedHashMap<>();
+        annotation(type, CONSTANT).ifPresent(constant -> addConstant(result, constant));
+        annotation(type, CONSTANTS).ifPresent(container -> {
+            @SuppressWarnings("unchecked")
+            List<? extends AnnotationValue> values = (List<? extends AnnotationValue>) value(container, "value");
+            for (AnnotationValue value : values) {
+                addConstant(result, (AnnotationMirror) value.getValue());
+            }
+        });
+        return result;
+    }
+
+    private void addConstant(Map<String, String> constants, AnnotationMirror constant) {
+        constants.put((String) value(constant, "name"), (String) value(constant, "value"));
+    }
+
+    private String mapperSimpleName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name.append(MAPPER_SUFFIX).toString();
+    }
+
+    private static Optional<AnnotationMirror> annotation(Element element, String annotationName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return Optional.of(annotation);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Object value(AnnotationMirror annotation, String name) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+            processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+}
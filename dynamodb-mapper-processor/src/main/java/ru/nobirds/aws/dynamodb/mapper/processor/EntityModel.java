@@ -0,0 +1,17 @@
+package ru.nobirds.aws.dynamodb.mapper.processor;
+
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+
+@Data
+class EntityModel {
+
+    private final String packageName;
+    private final String mapperSimpleName;
+    private final String entityTypeName;
+    // attribute name to value, in declaration order
+    private final Map<String, String> constants;
+    private final List<FieldModel> fields;
+
+}
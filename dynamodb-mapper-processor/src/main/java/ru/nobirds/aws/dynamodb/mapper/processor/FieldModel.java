@@ -0,0 +1,15 @@
+package ru.nobirds.aws.dynamodb.mapper.processor;
+
+import lombok.Data;
+
+@Data
+class FieldModel {
+
+    private final String attributeName;
+    private final String getter;
+    private final String setter;
+    private final ValueType type;
+    // null when the field has no prefix
+    private final String prefix;
+
+}
@@ -0,0 +1,15 @@
+package ru.nobirds.aws.dynamodb.mapper.processor;
+
+import javax.lang.model.element.Element;
+import lombok.Getter;
+
+@Getter
+class InvalidEntityException extends RuntimeException {
+
+    private final Element element;
+
+    InvalidEntityException(String message, Element element) {
+        super(message);
+        this.element = element;
+    }
+}
@@ -0,0 +1,248 @@
+package ru.nobirds.aws.dynamodb.mapper.processor;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+class MapperWriter {
+
+    private static final String SUPPORT = "ru.nobirds.aws.dynamodb.mapper.MappingSupport";
+    private static final String ATTRIBUTE_VALUE = "software.amazon.awssdk.services.dynamodb.model.AttributeValue";
+    private static final String ATTRIBUTES = "java.util.Map<java.lang.String, " + ATTRIBUTE_VALUE + ">";
+
+    private final EntityModel entity;
+    private final String generator;
+    private final StringBuilder out = new StringBuilder();
+
+    String write() {
+        String mapper = entity.getMapperSimpleName();
+        String type = entity.getEntityTypeName();
+        List<FieldModel> fields = entity.getFields();
+        int size = fields.size() + entity.getConstants().size();
+
+        if (!entity.getPackageName().isEmpty()) {
+            line(0, "package " + entity.getPackageName() + ";");
+            line(0, "");
+        }
+        line(0, "@javax.annotation.processing.Generated(\"" + generator + "\")");
+        line(0, "public final class " + mapper + " implements ru.nobirds.aws.dynamodb.mapper.AttributesMapper<"
+            + type + "> {");
+        line(0, "");
+        line(1, "public static final " + mapper + " INSTANCE = new " + mapper + "();");
+
+        int index = 0;
+        for (String value : entity.getConstants().values()) {
+            line(1, "private static final " + ATTRIBUTE_VALUE + " CONSTANT_" + index++ + " = " + SUPPORT
+                + ".writeString(" + literal(value) + ");");
+        }
+        Set<String> names = new LinkedHashSet<>();
+        fields.forEach(field -> names.add(literal(field.getAttributeName())));
+        line(1, "private static final java.util.Optional<java.util.Set<java.lang.String>> ATTRIBUTE_NAMES = "
+            + "java.util.Optional.of(java.util.Set.of(" + String.join(", ", names) + "));");
+        line(0, "");
+
+        line(1, "@Override");
+        line(1, "public " + type + " map(" + ATTRIBUTES + " attributes) {");
+        line(2, type + " instance = new " + type + "();");
+        for (int i = 0; i < fields.size(); i++) {
+            readField(fields.get(i), i);
+        }
+        line(2, "return instance;");
+        line(1, "}");
+        line(0, "");
+
+        line(1, "@Override");
+        line(1, "public " + ATTRIBUTES + " map(" + type + " value) {");
+        line(2, ATTRIBUTES + " result = new java.util.HashMap<>(" + ((int) (size / 0.75f) + 1) + ");");
+        index = 0;
+        for (String name : entity.getConstants().keySet()) {
+            line(2, "result.put(" + literal(name) + ", CONSTANT_" + index++ + ");");
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            writeField(fields.get(i), i);
+        }
+        line(2, "return result;");
+        line(1, "}");
+        line(0, "");
+
+        line(1, "@Override");
+        line(1, "public java.util.Optional<java.util.Set<java.lang.String>> attributeNames() {");
+        line(2, "return ATTRIBUTE_NAMES;");
+        line(1, "}");
+        line(0, "}");
+
+        return out.toString();
+    }
+
+    private void readField(FieldModel field, int index) {
+        ValueType type = field.getType();
+        String attribute = "attributes.get(" + literal(field.getAttributeName()) + ")";
+
+        if (type.getKind() == ValueType.Kind.LIST) {
+            ValueType element = type.getElement();
+            String values = "values" + index;
+            String items = "items" + index;
+            line(2, "java.util.List<" + ATTRIBUTE_VALUE + "> " + values + " = " + SUPPORT + ".readList("
+                + attribute + ");");
+            line(2, "if (" + values + " == null) {");
+            line(3, "instance." + field.getSetter() + "(null);");
+            line(2, "} else {");
+            line(3, type.getTypeName() + " " + items + " = new java.util.ArrayList<>(" + values + ".size());");
+            line(3, "for (" + ATTRIBUTE_VALUE + " item : " + values + ") {");
+            line(4, items + ".add(" + read(element, "item", null) + ");");
+            line(3, "}");
+            line(3, "instance." + field.getSetter() + "(" + items + ");");
+            line(2, "}");
+        } else if (type.isPrimitive() && field.getPrefix() == null && primitiveReader(type) != null) {
+            // numbers are read straight into the primitive setter without boxing
+            String value = "attribute" + index;
+            line(2, ATTRIBUTE_VALUE + " " + value + " = " + attribute + ";");
+            line(2, "if (" + SUPPORT + ".hasNumber(" + value + ")) {");
+            line(3, "instance." + field.getSetter() + "(" + SUPPORT + "." + primitiveReader(type) + "(" + value + "));");
+            line(2, "}");
+        } else if (type.isPrimitive()) {
+            String value = "value" + index;
+            line(2, type.getTypeName() + " " + value + " = " + read(type, attribute, field.getPrefix()) + ";");
+            line(2, "if (" + value + " != null) {");
+            line(3, "instance." + field.getSetter() + "(" + value + ");");
+            line(2, "}");
+        } else {
+            line(2, "instance." + field.getSetter() + "(" + read(type, attribute, field.getPrefix()) + ");");
+        }
+    }
+
+    private void writeField(FieldModel field, int index) {
+        ValueType type = field.getType();
+        String name = literal(field.getAttributeName());
+        String getter = "value." + field.getGetter() + "()";
+
+        if (type.getKind() == ValueType.Kind.LIST) {
+            ValueType element = type.getElement();
+            String values = "values" + index;
+            String items = "items" + index;
+            line(2, type.getTypeName() + " " + values + " = " + getter + ";");
+            line(2, "if (" + values + " == null) {");
+            line(3, "result.put(" + name + ", " + SUPPORT + ".NULL);");
+            line(2, "} else {");
+            line(3, "java.util.List<" + ATTRIBUTE_VALUE + "> " + items + " = new java.util.ArrayList<>("
+                + values + ".size());");
+            line(3, "for (" + element.getTypeName() + " item : " + values + ") {");
+            line(4, items + ".add(" + write(element, "item", null) + ");");
+            line(3, "}");
+            line(3, "result.put(" + name + ", " + SUPPORT + ".writeList(" + items + "));");
+            line(2, "}");
+        } else {
+            line(2, "result.put(" + name + ", " + write(type, getter, field.getPrefix()) + ");");
+        }
+    }
+
+    private static String primitiveReader(ValueType type) {
+        switch (type.getKind()) {
+            case LONG:
+                return "readLongValue";
+            case INTEGER:
+                return "readIntegerValue";
+            case DOUBLE:
+                return "readDoubleValue";
+            default:
+                return null;
+        }
+    }
+
+    private static String read(ValueType type, String value, String prefix) {
+        switch (type.getKind()) {
+            case STRING:
+                return prefix == null
+                    ? SUPPORT + ".readString(" + value + ")"
+                    : SUPPORT + ".readPrefixed(" + value + ", " + literal(prefix) + ")";
+            case LONG:
+                return prefix == null
+                    ? SUPPORT + ".readLong(" + value + ")"
+                    : SUPPORT + ".readPrefixedLong(" + value + ", " + literal(prefix) + ")";
+            case INTEGER:
+                return SUPPORT + ".readInteger(" + value + ")";
+            case DOUBLE:
+                return SUPPORT + ".readDouble(" + value + ")";
+            case BOOLEAN:
+                return SUPPORT + ".readBoolean(" + value + ")";
+            case DATE:
+                return SUPPORT + ".readDate(" + value + ")";
+            case INSTANT:
+                return SUPPORT + ".readInstant(" + value + ")";
+            case ENUM:
+                return SUPPORT + ".readEnum(" + value + ", " + type.getTypeName() + ".class)";
+            case OBJECT:
+                return SUPPORT + ".readObject(" + value + ", " + type.getMapperName() + ".INSTANCE)";
+            default:
+                throw new IllegalStateException("Unexpected type " + type.getKind());
+        }
+    }
+
+    private static String write(ValueType type, String value, String prefix) {
+        switch (type.getKind()) {
+            case STRING:
+                return prefix == null
+                    ? SUPPORT + ".writeString(" + value + ")"
+                    : SUPPORT + ".writePrefixed(" + value + ", " + literal(prefix) + ")";
+            case LONG:
+                return prefix == null
+                    ? SUPPORT + ".writeLong(" + value + ")"
+                    : SUPPORT + ".writePrefixedLong(" + value + ", " + literal(prefix) + ")";
+            case INTEGER:
+                return SUPPORT + ".writeInteger(" + value + ")";
+            case DOUBLE:
+                return SUPPORT + ".writeDouble(" + value + ")";
+            case BOOLEAN:
+                return SUPPORT + ".writeBoolean(" + value + ")";
+            case DATE:
+                return SUPPORT + ".writeDate(" + value + ")";
+            case INSTANT:
+                return SUPPORT + ".writeInstant(" + value + ")";
+            case ENUM:
+                return SUPPORT + ".writeEnum(" + value + ")";
+            case OBJECT:
+                return SUPPORT + ".writeObject(" + value + ", " + type.getMapperName() + ".INSTANCE)";
+            default:
+                throw new IllegalStateException("Unexpected type " + type.getKind());
+        }
+    }
+
+    private static String literal(String value) {
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    private void line(int indent, String text) {
+        if (!text.isEmpty()) {
+            out.append("    ".repeat(indent)).append(text);
+        }
+        out.append('\n');
+    }
+}
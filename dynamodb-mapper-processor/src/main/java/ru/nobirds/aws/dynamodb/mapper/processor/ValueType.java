@@ -0,0 +1,37 @@
+package ru.nobirds.aws.dynamodb.mapper.processor;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+class ValueType {
+
+    enum Kind {
+        STRING, LONG, INTEGER, DOUBLE, BOOLEAN, DATE, INSTANT, ENUM, OBJECT, LIST
+    }
+
+    private final Kind kind;
+    private final boolean primitive;
+    // boxed type for primitives
+    private final String typeName;
+    private final String mapperName;
+    private final ValueType element;
+
+    static ValueType of(Kind kind, String typeName) {
+        return new ValueType(kind, false, typeName, null, null);
+    }
+
+    static ValueType primitive(Kind kind, String boxedTypeName) {
+        return new ValueType(kind, true, boxedTypeName, null, null);
+    }
+
+    static ValueType object(String typeName, String mapperName) {
+        return new ValueType(Kind.OBJECT, false, typeName, mapperName, null);
+    }
+
+    static ValueType list(ValueType element) {
+        return new ValueType(Kind.LIST, false, "java.util.List<" + element.typeName + ">", null, element);
+    }
+}
@@ -0,0 +1,13 @@
+plugins {
+    `java-module`
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    api(project(":dynamodb-mapper"))
+
+    testImplementation(project(":dynamodb-mapper-fixtures"))
+}
@@ -0,0 +1,28 @@
+package ru.nobirds.aws.dynamodb.mapper.streams;
+
+import java.time.Instant;
+import java.util.Map;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.OperationType;
+
+// before is null for inserts, after is null for removes, both are null when the stream does not carry that image
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ChangeEvent<T> {
+
+    private final String shardId;
+    private final String sequenceNumber;
+    private final OperationType type;
+    private final Instant approximateCreationTime;
+    private final Map<String, AttributeValue> keys;
+    private final T before;
+    private final T after;
+
+    // removes done by DynamoDB itself when the item expired
+    private final boolean expired;
+
+}
@@ -0,0 +1,12 @@
+package ru.nobirds.aws.dynamodb.mapper.streams;
+
+import java.util.List;
+
+// called by the worker of a shard with its changes in stream order, never concurrently for the same shard.
+// A batch that throws is retried, the changes are at least once delivered.
+@FunctionalInterface
+public interface ChangeHandler<T> {
+
+    void handle(List<ChangeEvent<T>> events);
+
+}
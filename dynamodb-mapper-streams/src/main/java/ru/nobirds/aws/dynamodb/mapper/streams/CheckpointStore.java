@@ -0,0 +1,12 @@
+package ru.nobirds.aws.dynamodb.mapper.streams;
+
+import java.util.Optional;
+
+// last handled sequence number per shard, the processor resumes right after it
+public interface CheckpointStore {
+
+    Optional<String> load(String streamArn, String shardId);
+
+    void save(String streamArn, String shardId, String sequenceNumber);
+
+}
@@ -0,0 +1,44 @@
+package ru.nobirds.aws.dynamodb.mapper.streams;
+
+import java.util.Map;
+import java.util.Optional;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// checkpoints in a table with a string hash key named shard, one item per stream and shard
+public class DynamoDbCheckpointStore implements CheckpointStore {
+
+    private static final String SHARD = "shard";
+    private static final String SEQUENCE_NUMBER = "sequenceNumber";
+
+    private final DynamoDbClient client;
+    private final String tableName;
+
+    public DynamoDbCheckpointStore(DynamoDbClient client, String tableName) {
+        this.client = client;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public Optional<String> load(String streamArn, String shardId) {
+        Map<String, AttributeValue> item = client.getItem(builder -> builder
+            .tableName(tableName)
+            .key(Map.of(SHARD, key(streamArn, shardId)))
+            .consistentRead(true))
+            .item();
+        return Optional.ofNullable(item.get(SEQUENCE_NUMBER)).map(AttributeValue::s);
+    }
+
+    @Override
+    public void save(String streamArn, String shardId, String sequenceNumber) {
+        client.putItem(builder -> builder
+            .tableName(tableName)
+            .item(Map.of(
+                SHARD, key(streamArn, shardId),
+                SEQUENCE_NUMBER, AttributeValue.builder().s(sequenceNumber).build())));
+    }
+
+    private static AttributeValue key(String streamArn, String shardId) {
+        return AttributeValue.builder().s(streamArn + "/" + shardId).build();
+    }
+}
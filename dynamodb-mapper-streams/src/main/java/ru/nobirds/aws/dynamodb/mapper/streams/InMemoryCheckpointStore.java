@@ -0,0 +1,25 @@
+package ru.nobirds.aws.dynamodb.mapper.streams;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// checkpoints of one process, a restart reads the shards from their initial position again
+public class InMemoryCheckpointStore implements CheckpointStore {
+
+    private final Map<String, String> checkpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<String> load(String streamArn, String shardId) {
+        return Optional.ofNullable(checkpoints.get(key(streamArn, shardId)));
+    }
+
+    @Override
+    public void save(String streamArn, String shardId, String sequenceNumber) {
+        checkpoints.put(key(streamArn, shardId), sequenceNumber);
+    }
+
+    private static String key(String streamArn, String shardId) {
+        return streamArn + "/" + shardId;
+    }
+}
@@ -0,0 +1,384 @@
+package ru.nobirds.aws.dynamodb.mapper.streams;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import ru.nobirds.aws.dynamodb.mapper.AttributesMapper;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.dynamodb.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.dynamodb.model.InternalServerErrorException;
+import software.amazon.awssdk.services.dynamodb.model.LimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.model.Shard;
+import software.amazon.awssdk.services.dynamodb.model.ShardIteratorType;
+import software.amazon.awssdk.services.dynamodb.model.StreamDescription;
+import software.amazon.awssdk.services.dynamodb.model.StreamRecord;
+import software.amazon.awssdk.services.dynamodb.model.TrimmedDataAccessException;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+
+// Reads a DynamoDB stream with one worker per shard. There are no leases, a single processor owns the stream.
+// Records of a shard are decoded on its worker and handed to the handler in order, batch by batch, the sequence
+// number of a batch is checkpointed once the handler returns. A child shard starts after its parent is read to
+// the end, so the changes of a key are never handled out of order.
+public class StreamProcessor<T> implements AutoCloseable {
+
+    // removes of expired items are done by this principal
+    private static final String TTL_PRINCIPAL = "dynamodb.amazonaws.com";
+
+    private final DynamoDbStreamsClient client;
+    private final String streamArn;
+    private final AttributesMapper<T> mapper;
+    private final CheckpointStore checkpoints;
+    private final ChangeHandler<T> handler;
+    private final StreamProcessorOptions options;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService ownExecutor;
+    private final Executor executor;
+
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    // shards read to the end, their children start at their beginning
+    private final Set<String> read = ConcurrentHashMap.newKeySet();
+    // shards read or skipped, their children may start
+    private final Set<String> done = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    public StreamProcessor(DynamoDbStreamsClient client, String streamArn, AttributesMapper<T> mapper,
+        CheckpointStore checkpoints, ChangeHandler<T> handler) {
+        this(client, streamArn, mapper, checkpoints, handler, StreamProcessorOptions.DEFAULT);
+    }
+
+    public StreamProcessor(DynamoDbStreamsClient client, String streamArn, AttributesMapper<T> mapper,
+        CheckpointStore checkpoints, ChangeHandler<T> handler, StreamProcessorOptions options) {
+        ShardIteratorType position = options.getInitialPosition();
+        if (position != ShardIteratorType.TRIM_HORIZON && position != ShardIteratorType.LATEST) {
+            throw new IllegalArgumentException("Initial position must be TRIM_HORIZON or LATEST: " + position);
+        }
+        if (options.getBatchSize() < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + options.getBatchSize());
+        }
+        this.client = client;
+        this.streamArn = streamArn;
+        this.mapper = mapper;
+        this.checkpoints = checkpoints;
+        this.handler = handler;
+        this.options = options;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemon("dynamodb-stream-discovery"));
+        this.ownExecutor = options.getExecutor() == null
+            ? Executors.newCachedThreadPool(daemon("dynamodb-stream-shard"))
+            : null;
+        this.executor = ownExecutor != null ? ownExecutor : options.getExecutor();
+    }
+
+    public StreamProcessor<T> start() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Stream processor is already started: " + streamArn);
+        }
+        scheduler.scheduleWithFixedDelay(this::discover, 0, options.getDiscoveryInterval().toMillis(),
+            TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    public Set<String> activeShards() {
+        return Set.copyOf(running);
+    }
+
+    public boolean isClosed() {
+        return closed.getCount() == 0;
+    }
+
+    // the error that stopped the processor, a handler batch out of attempts or a failing stream
+    public Optional<RuntimeException> failure() {
+        return Optional.ofNullable(failure.get());
+    }
+
+    // workers stop after their current batch, awaitTermination waits for them
+    @Override
+    public void close() {
+        closed.countDown();
+        scheduler.shutdown();
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+        }
+    }
+
+    public boolean awaitTermination(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (running) {
+            while (!running.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(running, remaining);
+            }
+        }
+        return true;
+    }
+
+    // runs on the scheduler only, repeated until no shard is skipped since skipping frees its children
+    private synchronized void discover() {
+        if (isClosed()) {
+            return;
+        }
+        try {
+            List<Shard> shards = shards();
+            Set<String> present = new HashSet<>();
+            shards.forEach(shard -> present.add(shard.shardId()));
+
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (Shard shard : shards) {
+                    String parent = shard.parentShardId();
+                    boolean ready = parent == null || done.contains(parent) || !present.contains(parent);
+                    if (ready && !running.contains(shard.shardId()) && !done.contains(shard.shardId())) {
+                        changed |= begin(shard);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // retryable errors that ran out of attempts are tried again on the next round
+            if (!retryable(e)) {
+                fail(e);
+            }
+        }
+    }
+
+    // true when the shard is skipped instead of read
+    private boolean begin(Shard shard) {
+        String shardId = shard.shardId();
+        String checkpoint = checkpoints.load(streamArn, shardId).orElse(null);
+        ShardIteratorType position = shard.parentShardId() != null && read.contains(shard.parentShardId())
+            ? ShardIteratorType.TRIM_HORIZON
+            : options.getInitialPosition();
+
+        // a closed shard holds nothing newer than now
+        boolean ended = shard.sequenceNumberRange() != null
+            && shard.sequenceNumberRange().endingSequenceNumber() != null;
+        if (checkpoint == null && position == ShardIteratorType.LATEST && ended) {
+            done.add(shardId);
+            return true;
+        }
+
+        running.add(shardId);
+        try {
+            executor.execute(() -> run(shardId, position, checkpoint));
+        } catch (RejectedExecutionException e) {
+            running.remove(shardId);
+            throw e;
+        }
+        return false;
+    }
+
+    private void run(String shardId, ShardIteratorType position, String checkpoint) {
+        try {
+            if (read(shardId, position, checkpoint)) {
+                read.add(shardId);
+                done.add(shardId);
+                if (!isClosed()) {
+                    scheduler.execute(this::discover);
+                }
+            }
+        } catch (RuntimeException e) {
+            fail(e);
+        } finally {
+            synchronized (running) {
+                running.remove(shardId);
+                running.notifyAll();
+            }
+        }
+    }
+
+    // true when the shard is read to its end, false when the processor is closed first
+    private boolean read(String shardId, ShardIteratorType position, String checkpoint) {
+        String last = checkpoint;
+        ShardIteratorType from = position;
+        String iterator = null;
+        boolean expired = true;
+        while (!isClosed()) {
+            GetRecordsResponse response;
+            try {
+                if (expired) {
+                    iterator = iterator(shardId, from, last);
+                    if (iterator == null) {
+                        return true;
+                    }
+                    // a new LATEST iterator would skip the records written meanwhile, so before the first record
+                    // the shard is read again from its start
+                    from = ShardIteratorType.TRIM_HORIZON;
+                    expired = false;
+                }
+                String current = iterator;
+                response = retry(() -> client.getRecords(builder -> builder
+                    .shardIterator(current)
+                    .limit(options.getBatchSize())));
+            } catch (ExpiredIteratorException | TrimmedDataAccessException e) {
+                // a reader fallen behind the retention period gets a new iterator from the trimmed shard start
+                expired = true;
+                continue;
+            } catch (SdkException e) {
+                // still throttled after the retry policy, like discovery the shard waits and keeps reading
+                if (!retryable(e)) {
+                    throw e;
+                }
+                if (!pause(Math.max(options.getRetryPolicy().getMaxDelay().toMillis(),
+                    options.getIdleInterval().toMillis()))) {
+                    return false;
+                }
+                continue;
+            }
+
+            List<Record> records = response.records();
+            if (!records.isEmpty()) {
+                if (!handle(decode(shardId, records))) {
+                    return false;
+                }
+                last = records.get(records.size() - 1).dynamodb().sequenceNumber();
+                checkpoints.save(streamArn, shardId, last);
+            }
+
+            iterator = response.nextShardIterator();
+            if (iterator == null) {
+                return true;
+            }
+            if (records.isEmpty() && !pause(options.getIdleInterval().toMillis())) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private String iterator(String shardId, ShardIteratorType position, String after) {
+        GetShardIteratorRequest.Builder request = GetShardIteratorRequest.builder()
+            .streamArn(streamArn)
+            .shardId(shardId);
+        if (after != null) {
+            request.shardIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER).sequenceNumber(after);
+        } else {
+            request.shardIteratorType(position);
+        }
+
+        try {
+            return retry(() -> client.getShardIterator(request.build()).shardIterator());
+        } catch (TrimmedDataAccessException e) {
+            // the checkpoint is past the retention period, the rest of the shard is read from its start
+            GetShardIteratorRequest trimmed = request
+                .shardIteratorType(ShardIteratorType.TRIM_HORIZON)
+                .sequenceNumber(null)
+                .build();
+            return retry(() -> client.getShardIterator(trimmed).shardIterator());
+        }
+    }
+
+    private List<ChangeEvent<T>> decode(String shardId, List<Record> records) {
+        List<ChangeEvent<T>> events = new ArrayList<>(records.size());
+        for (Record record : records) {
+            StreamRecord change = record.dynamodb();
+            boolean expired = record.userIdentity() != null
+                && TTL_PRINCIPAL.equals(record.userIdentity().principalId());
+            events.add(new ChangeEvent<>(shardId, change.sequenceNumber(), record.eventName(),
+                change.approximateCreationDateTime(), change.keys(),
+                change.hasOldImage() ? mapper.map(change.oldImage()) : null,
+                change.hasNewImage() ? mapper.map(change.newImage()) : null,
+                expired));
+        }
+        return events;
+    }
+
+    // false when the processor is closed while the batch waits for another attempt
+    private boolean handle(List<ChangeEvent<T>> events) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                handler.handle(events);
+                return true;
+            } catch (RuntimeException e) {
+                if (!options.getRetryPolicy().canRetry(attempt)) {
+                    throw e;
+                }
+                if (!pause(options.getRetryPolicy().delayMillis(attempt))) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private List<Shard> shards() {
+        List<Shard> shards = new ArrayList<>();
+        String lastEvaluated = null;
+        do {
+            String start = lastEvaluated;
+            StreamDescription description = retry(() -> client.describeStream(builder -> builder
+                .streamArn(streamArn)
+                .exclusiveStartShardId(start)))
+                .streamDescription();
+            shards.addAll(description.shards());
+            lastEvaluated = description.lastEvaluatedShardId();
+        } while (lastEvaluated != null);
+        return shards;
+    }
+
+    private <R> R retry(Supplier<R> call) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (SdkException e) {
+                if (!retryable(e) || !options.getRetryPolicy().canRetry(attempt)
+                    || !pause(options.getRetryPolicy().delayMillis(attempt))) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static boolean retryable(RuntimeException e) {
+        return e instanceof LimitExceededException
+            || e instanceof InternalServerErrorException
+            || e instanceof SdkClientException
+            || e instanceof SdkServiceException && ((SdkServiceException) e).isThrottlingException();
+    }
+
+    // false when the processor is closed meanwhile
+    private boolean pause(long millis) {
+        try {
+            return millis <= 0 ? !isClosed() : !closed.await(millis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void fail(RuntimeException e) {
+        if (!isClosed() && failure.compareAndSet(null, e)) {
+            close();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package ru.nobirds.aws.dynamodb.mapper.streams;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import lombok.Builder;
+import lombok.Getter;
+import ru.nobirds.aws.dynamodb.mapper.RetryPolicy;
+import software.amazon.awssdk.services.dynamodb.model.ShardIteratorType;
+
+@Getter
+@Builder(toBuilder = true)
+public class StreamProcessorOptions {
+
+    public static final StreamProcessorOptions DEFAULT = builder().build();
+
+    // records per GetRecords call and so per handler batch, DynamoDB Streams returns at most 1000
+    @Builder.Default
+    private final int batchSize = 1000;
+
+    // pause after a read without records, a shard allows about five reads a second
+    @Builder.Default
+    private final Duration idleInterval = Duration.ofMillis(500);
+
+    // how often the stream is described to pick up new shards, a finished shard triggers it right away
+    @Builder.Default
+    private final Duration discoveryInterval = Duration.ofSeconds(10);
+
+    // TRIM_HORIZON or LATEST for shards without a checkpoint, children of read shards always start at their beginning
+    @Builder.Default
+    private final ShardIteratorType initialPosition = ShardIteratorType.TRIM_HORIZON;
+
+    // throttled calls and failing handler batches, the processor stops once a batch runs out of attempts while
+    // throttled reads wait the max delay and go on
+    @Builder.Default
+    private final RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+
+    // runs one long task per shard, null starts a daemon thread per shard
+    private final Executor executor;
+
+}
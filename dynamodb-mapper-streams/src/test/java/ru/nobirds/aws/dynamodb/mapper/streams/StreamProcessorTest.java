@@ -0,0 +1,267 @@
+package ru.nobirds.aws.dynamodb.mapper.streams;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.nobirds.aws.dynamodb.mapper.AttributeMappers;
+import ru.nobirds.aws.dynamodb.mapper.AttributesMapper;
+import ru.nobirds.aws.dynamodb.mapper.RetryPolicy;
+import ru.nobirds.aws.dynamodb.mapper.fixtures.InMemoryDynamoDbStreamsClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsResponse;
+import software.amazon.awssdk.services.dynamodb.model.LimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.OperationType;
+import software.amazon.awssdk.services.dynamodb.model.ShardIteratorType;
+import software.amazon.awssdk.services.dynamodb.model.TrimmedDataAccessException;
+
+public class StreamProcessorTest {
+
+    private static final String STREAM =
+        "arn:aws:dynamodb:eu-west-1:123456789012:table/orders/stream/2021-01-01T00:00:00.000";
+
+    private static final AttributesMapper<Order> ORDER_MAPPER = AttributeMappers.builder(Order::new)
+        .string("id", Order::getId, Order::setId)
+        .number("total", Order::getTotal, Order::setTotal)
+        .build();
+
+    private static final StreamProcessorOptions OPTIONS = StreamProcessorOptions.builder()
+        .idleInterval(Duration.ofMillis(5))
+        .discoveryInterval(Duration.ofMillis(20))
+        .retryPolicy(RetryPolicy.of(3, Duration.ZERO, Duration.ZERO))
+        .build();
+
+    private InMemoryDynamoDbStreamsClient client;
+    private InMemoryCheckpointStore checkpoints;
+
+    @BeforeEach
+    public void setUp() {
+        client = new InMemoryDynamoDbStreamsClient()
+            .createStream(STREAM)
+            .createShard(STREAM, "shard-1")
+            .createShard(STREAM, "shard-2");
+        checkpoints = new InMemoryCheckpointStore();
+    }
+
+    private String change(String shardId, String id, Long before, Long after) {
+        OperationType type = before == null ? OperationType.INSERT
+            : after == null ? OperationType.REMOVE : OperationType.MODIFY;
+        return client.append(STREAM, shardId, type, Map.of("id", AttributeValue.builder().s(id).build()),
+            before != null ? ORDER_MAPPER.map(new Order(id, before)) : null,
+            after != null ? ORDER_MAPPER.map(new Order(id, after)) : null);
+    }
+
+    private static Long total(Order order) {
+        return order != null ? order.getTotal() : null;
+    }
+
+    @Test
+    public void testShardsAreReadInOrderAndChildrenAfterTheirParents() throws Exception {
+        change("shard-1", "a", null, 1L);
+        change("shard-1", "a", 1L, 2L);
+        change("shard-1", "a", 2L, 3L);
+        change("shard-2", "b", null, 5L);
+        client.closeShard(STREAM, "shard-1");
+        // the child is there from the start, it still has to wait for its parent
+        client.createShard(STREAM, "shard-3", "shard-1");
+        change("shard-3", "a", 3L, 4L);
+        String last = change("shard-3", "a", 4L, null);
+
+        List<ChangeEvent<Order>> events = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch handled = new CountDownLatch(6);
+        StreamProcessorOptions options = OPTIONS.toBuilder().batchSize(2).build();
+
+        try (StreamProcessor<Order> processor = new StreamProcessor<>(client, STREAM, ORDER_MAPPER, checkpoints,
+            batch -> {
+                batches.add(batch.size());
+                events.addAll(batch);
+                batch.forEach(event -> handled.countDown());
+            }, options).start()) {
+
+            assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+            processor.close();
+            assertThat(processor.awaitTermination(Duration.ofSeconds(5))).isTrue();
+            assertThat(processor.failure()).isEmpty();
+        }
+
+        List<ChangeEvent<Order>> changesOfA = events.stream()
+            .filter(event -> event.getKeys().get("id").s().equals("a"))
+            .collect(Collectors.toList());
+        assertThat(changesOfA).extracting(ChangeEvent::getType).containsExactly(OperationType.INSERT,
+            OperationType.MODIFY, OperationType.MODIFY, OperationType.MODIFY, OperationType.REMOVE);
+        assertThat(changesOfA).extracting(event -> total(event.getBefore())).containsExactly(null, 1L, 2L, 3L, 4L);
+        assertThat(changesOfA).extracting(event -> total(event.getAfter())).containsExactly(1L, 2L, 3L, 4L, null);
+        assertThat(changesOfA).extracting(ChangeEvent::getShardId)
+            .containsExactly("shard-1", "shard-1", "shard-1", "shard-3", "shard-3");
+
+        assertThat(batches).allMatch(size -> size <= 2);
+        assertThat(checkpoints.load(STREAM, "shard-3")).contains(last);
+    }
+
+    @Test
+    public void testResumesAfterCheckpointAndRetriesFailedBatches() throws Exception {
+        String handledBefore = change("shard-1", "a", null, 1L);
+        change("shard-1", "c", null, 7L);
+        checkpoints.save(STREAM, "shard-1", handledBefore);
+
+        AtomicInteger calls = new AtomicInteger();
+        List<ChangeEvent<Order>> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch handled = new CountDownLatch(1);
+
+        try (StreamProcessor<Order> processor = new StreamProcessor<>(client, STREAM, ORDER_MAPPER, checkpoints,
+            batch -> {
+                if (calls.incrementAndGet() == 1) {
+                    throw new IllegalStateException("index is not available");
+                }
+                events.addAll(batch);
+                handled.countDown();
+            }, OPTIONS).start()) {
+
+            assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(events).extracting(event -> event.getAfter().getId()).containsExactly("c");
+    }
+
+    @Test
+    public void testBatchOutOfAttemptsStopsTheProcessor() throws Exception {
+        change("shard-2", "b", null, 5L);
+
+        AtomicInteger calls = new AtomicInteger();
+        StreamProcessor<Order> processor = new StreamProcessor<>(client, STREAM, ORDER_MAPPER, checkpoints,
+            batch -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("index is not available");
+            }, OPTIONS).start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!processor.isClosed() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertThat(processor.awaitTermination(Duration.ofSeconds(5))).isTrue();
+        assertThat(processor.failure().map(Throwable::getMessage)).contains("index is not available");
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(checkpoints.load(STREAM, "shard-2")).isEmpty();
+    }
+
+    @Test
+    public void testThrottledReadsKeepTheProcessorRunning() throws Exception {
+        AtomicInteger throttled = new AtomicInteger();
+        client = new InMemoryDynamoDbStreamsClient() {
+            @Override
+            public GetRecordsResponse getRecords(GetRecordsRequest request) {
+                // more throttled calls than the retry policy allows
+                if (throttled.incrementAndGet() <= 10) {
+                    throw LimitExceededException.builder().message("Rate exceeded for shard").build();
+                }
+                return super.getRecords(request);
+            }
+        }.createStream(STREAM).createShard(STREAM, "shard-1");
+        change("shard-1", "a", null, 1L);
+
+        List<ChangeEvent<Order>> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch handled = new CountDownLatch(1);
+
+        try (StreamProcessor<Order> processor = new StreamProcessor<>(client, STREAM, ORDER_MAPPER, checkpoints,
+            batch -> {
+                events.addAll(batch);
+                handled.countDown();
+            }, OPTIONS).start()) {
+
+            assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(processor.failure()).isEmpty();
+        }
+
+        assertThat(throttled.get()).isGreaterThan(10);
+        assertThat(events).extracting(event -> event.getAfter().getId()).containsExactly("a");
+    }
+
+    @Test
+    public void testExpiredLatestIteratorDoesNotSkipRecordsWrittenMeanwhile() throws Exception {
+        AtomicInteger reads = new AtomicInteger();
+        client = new InMemoryDynamoDbStreamsClient() {
+            @Override
+            public GetRecordsResponse getRecords(GetRecordsRequest request) {
+                if (reads.incrementAndGet() == 1) {
+                    change("shard-1", "a", null, 2L);
+                    throw ExpiredIteratorException.builder().message("Iterator expired").build();
+                }
+                return super.getRecords(request);
+            }
+        }.createStream(STREAM).createShard(STREAM, "shard-1");
+        change("shard-1", "old", null, 1L);
+
+        List<ChangeEvent<Order>> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch handled = new CountDownLatch(1);
+        StreamProcessorOptions options = OPTIONS.toBuilder().initialPosition(ShardIteratorType.LATEST).build();
+
+        try (StreamProcessor<Order> processor = new StreamProcessor<>(client, STREAM, ORDER_MAPPER, checkpoints,
+            batch -> {
+                events.addAll(batch);
+                handled.countDown();
+            }, options).start()) {
+
+            assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(events).extracting(event -> event.getAfter().getId()).contains("a");
+    }
+
+    @Test
+    public void testTrimmedRecordsAreSkippedWithoutStoppingTheProcessor() throws Exception {
+        AtomicInteger reads = new AtomicInteger();
+        client = new InMemoryDynamoDbStreamsClient() {
+            @Override
+            public GetRecordsResponse getRecords(GetRecordsRequest request) {
+                if (reads.incrementAndGet() == 1) {
+                    throw TrimmedDataAccessException.builder().message("Records are past the retention period").build();
+                }
+                return super.getRecords(request);
+            }
+        }.createStream(STREAM).createShard(STREAM, "shard-1");
+        change("shard-1", "a", null, 1L);
+
+        List<ChangeEvent<Order>> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch handled = new CountDownLatch(1);
+
+        try (StreamProcessor<Order> processor = new StreamProcessor<>(client, STREAM, ORDER_MAPPER, checkpoints,
+            batch -> {
+                events.addAll(batch);
+                handled.countDown();
+            }, OPTIONS).start()) {
+
+            assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(processor.failure()).isEmpty();
+        }
+
+        assertThat(reads.get()).isGreaterThan(1);
+        assertThat(events).extracting(event -> event.getAfter().getId()).containsExactly("a");
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Order {
+
+        private String id;
+        private Long total;
+
+    }
+}
@@ -9,5 +9,7 @@ repositories {
 dependencies {
     api("software.amazon.awssdk:dynamodb:2.15.61")
     compileOnly("javax.inject:javax.inject:1")
+
+    testAnnotationProcessor(project(":dynamodb-mapper-processor"))
 }
 
@@ -0,0 +1,140 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+// Same contract as BatchWriter, but batches are chained on the client futures and backoff uses a delayed executor,
+// so no thread is parked while batches are in flight.
+@RequiredArgsConstructor
+public class AsyncBatchWriter {
+
+    private final DynamoDbAsyncClient client;
+    private final BatchOptions options;
+
+    public <E> CompletableFuture<BatchWriteResult> write(String tableName, List<E> items,
+        Function<E, WriteRequest> encoder) {
+
+        List<List<E>> chunks = Parallel.partition(items, BatchWriter.MAX_BATCH_SIZE);
+        BatchCounters counters = new BatchCounters();
+        AtomicInteger next = new AtomicInteger();
+
+        int lanes = Math.max(1, Math.min(options.getParallelism(), chunks.size()));
+        List<CompletableFuture<Void>> futures = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            futures.add(nextChunk(tableName, chunks, next, encoder, counters));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> counters.toResult(items.size()));
+    }
+
+    private <E> CompletableFuture<Void> nextChunk(String tableName, List<List<E>> chunks, AtomicInteger next,
+        Function<E, WriteRequest> encoder, BatchCounters counters) {
+
+        // chunks written right away (oversized items only, a client completing in place) are looped over here,
+        // chaining them would recurse once per chunk
+        while (true) {
+            int index = next.getAndIncrement();
+            if (index >= chunks.size()) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            List<E> chunk = chunks.get(index);
+            List<WriteRequest> requests = new ArrayList<>(chunk.size());
+            for (E item : chunk) {
+                requests.add(encoder.apply(item));
+            }
+
+            List<WriteRequest> accepted = BatchWriter.withinItemLimit(requests, counters);
+            if (accepted.isEmpty()) {
+                continue;
+            }
+            CompletableFuture<Void> written = writeChunk(tableName, accepted, 1, counters);
+            if (!written.isDone() || written.isCompletedExceptionally()) {
+                return written.thenCompose(ignored -> nextChunk(tableName, chunks, next, encoder, counters));
+            }
+        }
+    }
+
+    private CompletableFuture<Void> writeChunk(String tableName, List<WriteRequest> pending, int attempt,
+        BatchCounters counters) {
+
+        counters.requests.incrementAndGet();
+
+        CapacityLimiter limiter = options.getLimiter();
+        double reserved = limiter == null ? 0 : ItemSize.writeUnits(pending);
+        long wait = limiter == null ? 0 : limiter.reserve(reserved);
+        CompletableFuture<Void> ready = wait <= 0
+            ? CompletableFuture.<Void>completedFuture(null)
+            : CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS));
+
+        return ready
+            .thenCompose(ignored -> client.batchWriteItem(BatchWriteItemRequest.builder()
+                .requestItems(Map.of(tableName, pending))
+                .returnConsumedCapacity(limiter != null ? ReturnConsumedCapacity.TOTAL : null)
+                .build()))
+            .handle((response, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (!(cause instanceof SdkException)) {
+                        throw new CompletionException(cause);
+                    }
+                    if (limiter != null) {
+                        limiter.charge(-reserved);
+                    }
+                    if (!BatchWriter.retryable(cause)) {
+                        // duplicate keys in the chunk and the like, its items fail and the other chunks go on
+                        counters.failed(pending);
+                        return List.<WriteRequest>of();
+                    }
+                    if (limiter != null && cause instanceof ProvisionedThroughputExceededException) {
+                        limiter.throttled();
+                    }
+                    return pending;
+                }
+
+                List<WriteRequest> unprocessed = response.hasUnprocessedItems()
+                    ? response.unprocessedItems().getOrDefault(tableName, List.of())
+                    : List.<WriteRequest>of();
+
+                if (limiter != null) {
+                    limiter.charge(BatchWriter.consumed(response, reserved) - reserved);
+                    if (!unprocessed.isEmpty()) {
+                        limiter.throttled();
+                    }
+                }
+                counters.written.addAndGet(pending.size() - unprocessed.size());
+                return unprocessed;
+            })
+            .thenCompose(unprocessed -> {
+                if (unprocessed.isEmpty()) {
+                    return CompletableFuture.<Void>completedFuture(null);
+                }
+
+                RetryPolicy retryPolicy = options.getRetryPolicy();
+                if (!retryPolicy.canRetry(attempt)) {
+                    counters.failed(unprocessed);
+                    return CompletableFuture.<Void>completedFuture(null);
+                }
+
+                counters.retries.incrementAndGet();
+                return CompletableFuture
+                    .runAsync(() -> {}, CompletableFuture.delayedExecutor(
+                        retryPolicy.delayMillis(attempt), TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> writeChunk(tableName, unprocessed, attempt + 1, counters));
+            });
+    }
+}
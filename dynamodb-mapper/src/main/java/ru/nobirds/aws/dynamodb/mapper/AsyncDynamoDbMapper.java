@@ -0,0 +1,129 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import ru.nobirds.aws.dynamodb.mapper.DynamoDbMapper.BatchBuilder;
+import ru.nobirds.aws.dynamodb.mapper.DynamoDbMapper.ValueAndMapper;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+// Pages of query and scan are requested only when the subscriber signals demand for more items.
+@RequiredArgsConstructor
+public class AsyncDynamoDbMapper {
+
+    private final DynamoDbAsyncClient client;
+    private final NamingStrategy namingStrategy;
+
+    public <T> SdkPublisher<T> scan(String tableName, AttributesMapper<T> mapper) {
+        return scan(tableName, mapper, builder -> {});
+    }
+
+    public <T> SdkPublisher<T> scan(String tableName, AttributesMapper<T> mapper,
+        Consumer<ScanRequest.Builder> requestBuilder) {
+
+        return client.scanPaginator(Projection.scan(requestBuilder, mapper)
+            .andThen(builder -> builder.tableName(namingStrategy.name(tableName))))
+            .items()
+            .map(mapper::map);
+    }
+
+    public <T> SdkPublisher<T> query(String tableName, AttributesMapper<T> mapper) {
+        return query(tableName, mapper, builder -> {});
+    }
+
+    public <T> SdkPublisher<T> query(String tableName, String indexName, AttributesMapper<T> mapper) {
+        return query(tableName, mapper, builder -> builder.indexName(indexName));
+    }
+
+    public <T> SdkPublisher<T> query(String tableName, String indexName, AttributesMapper<T> mapper,
+        Consumer<QueryRequest.Builder> requestBuilder) {
+        return query(tableName, mapper, requestBuilder.andThen(b -> b.indexName(indexName)));
+    }
+
+    public <T> SdkPublisher<T> query(String tableName, AttributesMapper<T> mapper,
+        Consumer<QueryRequest.Builder> requestBuilder) {
+
+        return client.queryPaginator(Projection.query(requestBuilder, mapper)
+            .andThen(builder -> builder.tableName(namingStrategy.name(tableName))))
+            .items()
+            .map(mapper::map);
+    }
+
+    public <T> CompletableFuture<Optional<T>> get(String tableName, AttributesMapper<T> mapper,
+        String key, AttributeValue value) {
+        return get(tableName, mapper, Map.of(key, value));
+    }
+
+    public <T> CompletableFuture<Optional<T>> get(String tableName, AttributesMapper<T> mapper,
+        String key, AttributeValue value,
+        String sortKey, AttributeValue sortValue
+    ) {
+        return get(tableName, mapper, Map.of(key, value, sortKey, sortValue));
+    }
+
+    public <T> CompletableFuture<Optional<T>> get(String tableName, AttributesMapper<T> mapper,
+        Map<String, AttributeValue> key) {
+
+        return client.getItem(Projection.get(mapper)
+            .andThen(builder -> builder.tableName(namingStrategy.name(tableName)).key(key)))
+            .thenApply(response -> response.hasItem()
+                ? Optional.of(mapper.map(response.item()))
+                : Optional.<T>empty());
+    }
+
+    public <T> CompletableFuture<T> save(String tableName, AttributesMapper<T> mapper, T value) {
+        return save(tableName, mapper, value, builder -> {});
+    }
+
+    public <T> CompletableFuture<T> save(String tableName, AttributesMapper<T> mapper, T value,
+        Consumer<PutItemRequest.Builder> saveBuilder) {
+
+        return client.putItem(saveBuilder
+            .andThen(builder -> builder.tableName(namingStrategy.name(tableName)).item(mapper.map(value))))
+            .thenApply(response -> value);
+    }
+
+    public CompletableFuture<Void> delete(String tableName, Map<String, AttributeValue> key) {
+        return client.deleteItem(builder -> builder.tableName(namingStrategy.name(tableName)).key(key))
+            .thenApply(response -> null);
+    }
+
+    public CompletableFuture<Void> delete(String tableName,
+        String key, AttributeValue value,
+        String sortKey, AttributeValue sortValue
+    ) {
+        return delete(tableName, Map.of(key, value, sortKey, sortValue));
+    }
+
+    public CompletableFuture<Void> delete(String tableName, String key, AttributeValue value) {
+        return delete(tableName, Map.of(key, value));
+    }
+
+    public CompletableFuture<BatchWriteResult> batchSave(String tableName, Consumer<BatchBuilder> batchBuilder) {
+        return batchSave(tableName, BatchOptions.DEFAULT, batchBuilder);
+    }
+
+    // options.executor is not used, parallelism limits the number of batches in flight
+    public CompletableFuture<BatchWriteResult> batchSave(String tableName, BatchOptions options,
+        Consumer<BatchBuilder> batchBuilder) {
+
+        BatchBuilder batch = new BatchBuilder();
+        batchBuilder.accept(batch);
+        List<ValueAndMapper<?>> items = batch.build();
+
+        return new AsyncBatchWriter(client, options).write(namingStrategy.name(tableName), items,
+            valueAndMapper -> WriteRequest.builder()
+                .putRequest(builder -> builder.item(valueAndMapper.toAttributes()))
+                .build());
+    }
+
+}
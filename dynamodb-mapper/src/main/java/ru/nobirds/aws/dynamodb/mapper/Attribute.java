@@ -1,6 +1,9 @@
 package ru.nobirds.aws.dynamodb.mapper;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 public interface Attribute<R> {
@@ -8,4 +11,16 @@ public interface Attribute<R> {
     void writeFromMapToInstance(Map<String, AttributeValue> attributeValues, R instance);
 
     void writeFromInstanceToMap(R instance, Map<String, AttributeValue> result);
+
+    // attributes read by writeFromMapToInstance, empty when unknown
+    default Optional<Set<String>> attributeNames() {
+        return Optional.empty();
+    }
+
+    // bytes the attributes written by writeFromInstanceToMap add to the item
+    default long size(R instance) {
+        Map<String, AttributeValue> result = new HashMap<>(4);
+        writeFromInstanceToMap(instance, result);
+        return ItemSize.bytes(result);
+    }
 }
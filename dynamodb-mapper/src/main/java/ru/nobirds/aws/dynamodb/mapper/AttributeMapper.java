@@ -9,13 +9,17 @@ public interface AttributeMapper<T> {
 
     AttributeValue map(T value);
 
+    // ItemSize.bytes(map(value)), scalar and list mappers compute it from the value, nested objects still build it
+    default long size(T value) {
+        return ItemSize.bytes(map(value));
+    }
+
     default <R> AttributeMapper<R> map(Function<T, R> reader, Function<R, T> writer) {
         return map(BidirectionalMapper.of(reader, writer));
     }
 
     default <R> AttributeMapper<R> map(BidirectionalMapper<T, R> mapper) {
-        return new SimpleAttributeMapper<>(attributeValue -> mapper.read(map(attributeValue)),
-            value -> map(mapper.write(value)));
+        return new ConvertingAttributeMapper<>(this, mapper);
     }
 
 }
@@ -1,13 +1,25 @@
 package ru.nobirds.aws.dynamodb.mapper;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 public class AttributeMappers {
@@ -18,19 +30,98 @@ public class AttributeMappers {
 
     public static final AttributeMapper<String> STRING = new SimpleAttributeMapper<>(
         AttributeValue::s,
-        value -> AttributeValue.builder().s(value).build()
+        value -> AttributeValue.builder().s(value).build(),
+        ItemSize::utf8
     );
 
-    public static final AttributeMapper<Long> NUMBER = new SimpleAttributeMapper<>(
-        attributeValue -> processIfNotNull(attributeValue.n(), Long::parseLong),
-        value -> AttributeValue.builder().n(Long.toString(value)).build()
+    public static final AttributeMapper<Boolean> BOOLEAN = new SimpleAttributeMapper<>(
+        AttributeValue::bool,
+        AttributeValues::bool,
+        value -> 1
     );
 
-    public static final AttributeMapper<Double> DECIMAL = new SimpleAttributeMapper<>(
-        attributeValue -> processIfNotNull(attributeValue.n(), Double::parseDouble),
-        value -> AttributeValue.builder().n(Double.toString(value)).build()
+    public static final AttributeMapper<SdkBytes> BINARY = new SimpleAttributeMapper<>(
+        AttributeValue::b,
+        value -> AttributeValue.builder().b(value).build(),
+        value -> value.asByteArrayUnsafe().length
     );
 
+    // read-only views of the attribute bytes, buffers backed by a whole array are stored without copying
+    public static final AttributeMapper<ByteBuffer> BYTE_BUFFER = new SimpleAttributeMapper<>(
+        attributeValue -> processIfNotNull(attributeValue.b(), SdkBytes::asByteBuffer),
+        value -> AttributeValue.builder().b(bytes(value)).build(),
+        ByteBuffer::remaining
+    );
+
+    public static final LongAttributeMapper LONG = new LongAttributeMapper() {
+        @Override
+        public long readLong(AttributeValue attributeValue) {
+            return DynamoDbNumbers.parseLong(attributeValue.n());
+        }
+
+        @Override
+        public AttributeValue writeLong(long value) {
+            return AttributeValues.number(value);
+        }
+
+        @Override
+        public long size(Long value) {
+            return value == null ? ItemSize.bytes(AttributeValues.NULL) : ItemSize.number(value);
+        }
+    };
+
+    public static final IntAttributeMapper INT = new IntAttributeMapper() {
+        @Override
+        public int readInt(AttributeValue attributeValue) {
+            return DynamoDbNumbers.parseInt(attributeValue.n());
+        }
+
+        @Override
+        public AttributeValue writeInt(int value) {
+            return AttributeValues.number(value);
+        }
+
+        @Override
+        public long size(Integer value) {
+            return value == null ? ItemSize.bytes(AttributeValues.NULL) : ItemSize.number(value);
+        }
+    };
+
+    public static final DoubleAttributeMapper DOUBLE = new DoubleAttributeMapper() {
+        @Override
+        public double readDouble(AttributeValue attributeValue) {
+            return DynamoDbNumbers.parseDouble(attributeValue.n());
+        }
+
+        @Override
+        public AttributeValue writeDouble(double value) {
+            return AttributeValue.builder().n(DynamoDbNumbers.formatDouble(value)).build();
+        }
+
+        @Override
+        public long size(Double value) {
+            return value == null ? ItemSize.bytes(AttributeValues.NULL) : ItemSize.number(value);
+        }
+    };
+
+    public static final AttributeMapper<Long> NUMBER = LONG;
+
+    public static final AttributeMapper<Integer> INTEGER = INT;
+
+    public static final AttributeMapper<Double> DECIMAL = DOUBLE;
+
+    public static AttributeMapper<String> internedString(AttributeValuePool pool) {
+        return new SimpleAttributeMapper<>(AttributeValue::s, pool::string, ItemSize::utf8);
+    }
+
+    private static SdkBytes bytes(ByteBuffer value) {
+        if (value.hasArray() && !value.isReadOnly() && value.arrayOffset() == 0 && value.position() == 0
+            && value.remaining() == value.array().length) {
+            return SdkBytes.fromByteArrayUnsafe(value.array());
+        }
+        return SdkBytes.fromByteBuffer(value);
+    }
+
     public static <T> AttributeMapper<T> object(AttributesMapper<T> mapper) {
         return new SimpleAttributeMapper<>(
             attributeValue -> attributeValue.hasM() ? mapper.map(attributeValue.m()) : null,
@@ -40,15 +131,56 @@ public class AttributeMappers {
     public static <T extends Enum<T>> AttributeMapper<T> enumeration(Class<T> enumType) {
         return new SimpleAttributeMapper<>(
             attributeValue -> processIfNotNull(attributeValue.s(), value -> Enum.valueOf(enumType, value)),
-            value -> AttributeValue.builder().s(value.name()).build());
+            AttributeValues::enumeration,
+            value -> ItemSize.utf8(value.name()));
     }
 
     public static <T> AttributeMapper<List<T>> list(AttributeMapper<T> mapper) {
         return new SimpleAttributeMapper<>(
             attributeValue -> attributeValue.hasL()
                 ? attributeValue.l().stream().map(mapper::map).collect(Collectors.toList()) : null,
-            value -> (value == null) ? AttributeValue.builder().nul(true).build() : AttributeValue.builder()
-                .l(value.stream().map(mapper::map).collect(Collectors.toList())).build());
+            value -> (value == null) ? AttributeValues.NULL : AttributeValue.builder()
+                .l(value.stream().map(mapper::map).collect(Collectors.toList())).build(),
+            value -> {
+                long size = ItemSize.DOCUMENT_BYTES;
+                for (T element : value) {
+                    size += ItemSize.ELEMENT_BYTES + mapper.size(element);
+                }
+                return size;
+            });
+    }
+
+    // decoded on first get(), untouched values are written back from the raw attributes
+    public static <T> AttributeMapper<Lazy<T>> lazyObject(AttributesMapper<T> mapper) {
+        return new SimpleAttributeMapper<>(
+            attributeValue -> attributeValue.hasM() ? Lazy.decoding(mapper, attributeValue.m()) : null,
+            value -> {
+                Map<String, AttributeValue> attributes = value.toAttributes(mapper);
+                return attributes == null ? AttributeValues.NULL : AttributeValue.builder().m(attributes).build();
+            });
+    }
+
+    // elements are decoded on first access, see LazyList
+    @SuppressWarnings("unchecked")
+    public static <T> AttributeMapper<List<T>> lazyList(AttributeMapper<T> mapper) {
+        return new SimpleAttributeMapper<>(
+            attributeValue -> attributeValue.hasL() ? new LazyList<>(attributeValue.l(), mapper) : null,
+            value -> AttributeValue.builder().l(value instanceof LazyList
+                ? ((LazyList<T>) value).toAttributeValues(mapper)
+                : value.stream().map(mapper::map).collect(Collectors.toList())).build());
+    }
+
+    // binary encoded object, deflated when larger than CompressedAttributeMapper.DEFAULT_THRESHOLD bytes
+    public static <T> AttributeMapper<T> compressed(AttributesMapper<T> mapper) {
+        return compressed(object(mapper));
+    }
+
+    public static <T> AttributeMapper<T> compressed(AttributeMapper<T> mapper) {
+        return new CompressedAttributeMapper<>(mapper);
+    }
+
+    public static <T> AttributeMapper<T> compressed(AttributeMapper<T> mapper, int threshold) {
+        return new CompressedAttributeMapper<>(mapper, threshold);
     }
 
     public static <T> AttributesBuilder<T> builder(Supplier<T> constructor) {
@@ -71,13 +203,22 @@ public class AttributeMappers {
         }
 
         public <T> AttributesBuilder<R> constantValue(String name, T value, AttributeMapper<T> mapper) {
-            return constant(name, () -> value, mapper);
+            return attribute(ConstantAttribute.fixed(name, value, mapper));
         }
 
         public AttributesBuilder<R> string(String name, Function<R, String> getter, BiConsumer<R, String> setter) {
             return attribute(name, getter, setter, STRING);
         }
 
+        public AttributesBuilder<R> bool(String name, Function<R, Boolean> getter, BiConsumer<R, Boolean> setter) {
+            return attribute(name, getter, setter, BOOLEAN);
+        }
+
+        public AttributesBuilder<R> binary(String name, Function<R, SdkBytes> getter,
+            BiConsumer<R, SdkBytes> setter) {
+            return attribute(name, getter, setter, BINARY);
+        }
+
         public <T extends Enum<T>> AttributesBuilder<R> enumeration(
             String name, Function<R, T> getter, BiConsumer<R, T> setter, Class<T> enumType) {
             return attribute(name, getter, setter, AttributeMappers.enumeration(enumType));
@@ -91,16 +232,44 @@ public class AttributeMappers {
             return attribute(name, getter, setter, DECIMAL);
         }
 
+        public AttributesBuilder<R> longAttribute(String name, ToLongFunction<R> getter, ObjLongConsumer<R> setter) {
+            return attribute(new LongAttribute<>(name, getter, setter, LONG));
+        }
+
+        public AttributesBuilder<R> intAttribute(String name, ToIntFunction<R> getter, ObjIntConsumer<R> setter) {
+            return attribute(new IntAttribute<>(name, getter, setter, INT));
+        }
+
+        public AttributesBuilder<R> doubleAttribute(String name, ToDoubleFunction<R> getter,
+            ObjDoubleConsumer<R> setter) {
+            return attribute(new DoubleAttribute<>(name, getter, setter, DOUBLE));
+        }
+
         public <T> AttributesBuilder<R> object(String name, Function<R, T> getter, BiConsumer<R, T> setter,
             AttributesMapper<T> mapper) {
             return attribute(name, getter, setter, AttributeMappers.object(mapper));
         }
 
+        public <T> AttributesBuilder<R> compressed(String name, Function<R, T> getter, BiConsumer<R, T> setter,
+            AttributesMapper<T> mapper) {
+            return attribute(name, getter, setter, AttributeMappers.compressed(mapper));
+        }
+
         public <T> AttributesBuilder<R> list(String name, Function<R, List<T>> getter, BiConsumer<R, List<T>> setter,
             AttributeMapper<T> mapper) {
             return attribute(name, getter, setter, AttributeMappers.list(mapper));
         }
 
+        public <T> AttributesBuilder<R> lazyObject(String name, Function<R, Lazy<T>> getter,
+            BiConsumer<R, Lazy<T>> setter, AttributesMapper<T> mapper) {
+            return attribute(name, getter, setter, AttributeMappers.lazyObject(mapper));
+        }
+
+        public <T> AttributesBuilder<R> lazyList(String name, Function<R, List<T>> getter,
+            BiConsumer<R, List<T>> setter, AttributeMapper<T> mapper) {
+            return attribute(name, getter, setter, AttributeMappers.lazyList(mapper));
+        }
+
         public <T> AttributesBuilder<R> attribute(
             String name,
             Function<R, T> getter,
@@ -114,7 +283,34 @@ public class AttributeMappers {
         }
 
         public AttributesMapper<R> build() {
-            return new SimpleAttributesMapper<>(constructor, attributes);
+            return new SimpleAttributesMapper<>(constructor, List.copyOf(attributes));
+        }
+
+        public AttributesMapper<R> compile() {
+            return new CompiledAttributesMapper<>(constructor, List.copyOf(attributes));
+        }
+
+        // decodes only the given attributes and leaves other fields unset, meant for reads:
+        // saving through it would drop every attribute outside the subset
+        public AttributesMapper<R> partial(String... names) {
+            Set<String> selected = Set.of(names);
+            Set<String> matched = new HashSet<>();
+            List<Attribute<R>> result = new ArrayList<>();
+            for (Attribute<R> attribute : attributes) {
+                Optional<Set<String>> attributeNames = attribute.attributeNames();
+                if (attributeNames.isPresent() && selected.containsAll(attributeNames.get())) {
+                    matched.addAll(attributeNames.get());
+                    result.add(attribute);
+                }
+            }
+
+            if (!matched.containsAll(selected)) {
+                Set<String> unknown = new HashSet<>(selected);
+                unknown.removeAll(matched);
+                throw new IllegalArgumentException("Unknown attributes " + unknown);
+            }
+
+            return new CompiledAttributesMapper<>(constructor, List.copyOf(result));
         }
     }
 
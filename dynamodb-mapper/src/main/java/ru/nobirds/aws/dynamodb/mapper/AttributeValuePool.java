@@ -0,0 +1,54 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Bounded intern cache for short repeated strings. Once full, new strings are no longer interned
+// instead of evicting, so the hot values seen first stay shared and lookups never block.
+public class AttributeValuePool {
+
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    public static final int DEFAULT_MAX_LENGTH = 64;
+
+    private final int maxEntries;
+    private final int maxLength;
+    private final Map<String, AttributeValue> strings = new ConcurrentHashMap<>();
+
+    public AttributeValuePool() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_LENGTH);
+    }
+
+    public AttributeValuePool(int maxEntries, int maxLength) {
+        if (maxEntries < 0 || maxLength < 0) {
+            throw new IllegalArgumentException("maxEntries and maxLength must not be negative");
+        }
+        this.maxEntries = maxEntries;
+        this.maxLength = maxLength;
+    }
+
+    public AttributeValue string(String value) {
+        if (value.length() > maxLength) {
+            return AttributeValues.string(value);
+        }
+        AttributeValue cached = strings.get(value);
+        if (cached != null) {
+            return cached;
+        }
+        AttributeValue created = AttributeValues.string(value);
+        if (strings.size() >= maxEntries) {
+            return created;
+        }
+        AttributeValue existing = strings.putIfAbsent(value, created);
+        return existing != null ? existing : created;
+    }
+
+    public int size() {
+        return strings.size();
+    }
+
+    public void clear() {
+        strings.clear();
+    }
+
+}
@@ -0,0 +1,60 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// AttributeValue is immutable, so values that repeat across items are built once and shared.
+public final class AttributeValues {
+
+    public static final AttributeValue NULL = AttributeValue.builder().nul(true).build();
+    public static final AttributeValue TRUE = AttributeValue.builder().bool(true).build();
+    public static final AttributeValue FALSE = AttributeValue.builder().bool(false).build();
+
+    private static final int SMALL_NUMBER_MIN = -128;
+    private static final int SMALL_NUMBER_MAX = 1023;
+    private static final AttributeValue[] SMALL_NUMBERS = new AttributeValue[SMALL_NUMBER_MAX - SMALL_NUMBER_MIN + 1];
+
+    private static final ClassValue<AttributeValue[]> ENUM_VALUES = new ClassValue<>() {
+        @Override
+        protected AttributeValue[] computeValue(Class<?> type) {
+            Object[] constants = type.getEnumConstants();
+            AttributeValue[] values = new AttributeValue[constants.length];
+            for (int i = 0; i < constants.length; i++) {
+                values[i] = string(((Enum<?>) constants[i]).name());
+            }
+            return values;
+        }
+    };
+
+    static {
+        for (int i = 0; i < SMALL_NUMBERS.length; i++) {
+            SMALL_NUMBERS[i] = AttributeValue.builder().n(DynamoDbNumbers.formatLong(i + SMALL_NUMBER_MIN)).build();
+        }
+    }
+
+    private AttributeValues() {
+    }
+
+    public static AttributeValue bool(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    public static AttributeValue number(long value) {
+        if (value >= SMALL_NUMBER_MIN && value <= SMALL_NUMBER_MAX) {
+            return SMALL_NUMBERS[(int) value - SMALL_NUMBER_MIN];
+        }
+        return AttributeValue.builder().n(DynamoDbNumbers.formatLong(value)).build();
+    }
+
+    public static AttributeValue number(int value) {
+        return number((long) value);
+    }
+
+    public static AttributeValue string(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    public static AttributeValue enumeration(Enum<?> value) {
+        return ENUM_VALUES.get(value.getDeclaringClass())[value.ordinal()];
+    }
+
+}
@@ -1,6 +1,8 @@
 package ru.nobirds.aws.dynamodb.mapper;
 
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 public interface AttributesMapper<T> {
@@ -9,5 +11,15 @@ public interface AttributesMapper<T> {
 
     Map<String, AttributeValue> map(T value);
 
+    // attributes consumed by map(attributes), empty when unknown and whole items have to be read
+    default Optional<Set<String>> attributeNames() {
+        return Optional.empty();
+    }
+
+    // size of map(value) as DynamoDB counts it, mappers built from attributes sum AttributeMapper.size of the fields
+    default long size(T value) {
+        return ItemSize.bytes(map(value));
+    }
+
 }
 
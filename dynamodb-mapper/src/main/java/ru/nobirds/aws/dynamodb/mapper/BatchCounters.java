@@ -0,0 +1,24 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+class BatchCounters {
+
+    final AtomicInteger written = new AtomicInteger();
+    final AtomicInteger requests = new AtomicInteger();
+    final AtomicInteger retries = new AtomicInteger();
+    final Queue<WriteRequest> failed = new ConcurrentLinkedQueue<>();
+
+    void failed(List<WriteRequest> requests) {
+        failed.addAll(requests);
+    }
+
+    BatchWriteResult toResult(int itemCount) {
+        return new BatchWriteResult(itemCount, written.get(), requests.get(), retries.get(), new ArrayList<>(failed));
+    }
+}
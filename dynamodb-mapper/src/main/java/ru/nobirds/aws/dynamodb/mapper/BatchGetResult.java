@@ -0,0 +1,61 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+@RequiredArgsConstructor
+public class BatchGetResult {
+
+    private final Map<String, Set<Map<String, AttributeValue>>> requestedKeys;
+    private final Map<String, Map<Map<String, AttributeValue>, Map<String, AttributeValue>>> items;
+
+    @Getter
+    private final Map<String, List<Map<String, AttributeValue>>> unprocessedKeys;
+
+    @Getter
+    private final int requestCount;
+
+    @Getter
+    private final int retryCount;
+
+    public boolean isComplete() {
+        return unprocessedKeys.isEmpty();
+    }
+
+    public Optional<Map<String, AttributeValue>> item(String tableName, Map<String, AttributeValue> key) {
+        return Optional.ofNullable(items.getOrDefault(tableName, Map.of()).get(key));
+    }
+
+    // found items in the order their keys were requested
+    public <T> List<T> list(String tableName, AttributesMapper<T> mapper) {
+        Map<Map<String, AttributeValue>, Map<String, AttributeValue>> tableItems = items.getOrDefault(tableName, Map.of());
+        List<T> result = new ArrayList<>(tableItems.size());
+        for (Map<String, AttributeValue> key : requestedKeys.getOrDefault(tableName, Set.of())) {
+            Map<String, AttributeValue> item = tableItems.get(key);
+            if (item != null) {
+                result.add(mapper.map(item));
+            }
+        }
+        return result;
+    }
+
+    public <T> Map<Map<String, AttributeValue>, T> map(String tableName, AttributesMapper<T> mapper) {
+        Map<Map<String, AttributeValue>, Map<String, AttributeValue>> tableItems = items.getOrDefault(tableName, Map.of());
+        Map<Map<String, AttributeValue>, T> result = new LinkedHashMap<>();
+        for (Map<String, AttributeValue> key : requestedKeys.getOrDefault(tableName, Set.of())) {
+            Map<String, AttributeValue> item = tableItems.get(key);
+            if (item != null) {
+                result.put(key, mapper.map(item));
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,25 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.concurrent.Executor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder(toBuilder = true)
+public class BatchOptions {
+
+    public static final BatchOptions DEFAULT = builder().build();
+
+    @Builder.Default
+    private final int parallelism = 4;
+
+    @Builder.Default
+    private final RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+
+    // when null a temporary pool of parallelism threads is used for the duration of the call
+    private final Executor executor;
+
+    // write capacity budget, requests reserve an estimate by item size and are charged the consumed capacity
+    private final CapacityLimiter limiter;
+
+}
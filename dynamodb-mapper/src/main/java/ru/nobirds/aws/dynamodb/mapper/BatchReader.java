@@ -0,0 +1,141 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+
+@RequiredArgsConstructor
+public class BatchReader {
+
+    public static final int MAX_BATCH_SIZE = 100;
+
+    private final DynamoDbClient client;
+    private final NamingStrategy namingStrategy;
+    private final BatchOptions options;
+    private final MapperMetrics metrics;
+
+    public BatchReader(DynamoDbClient client, NamingStrategy namingStrategy, BatchOptions options) {
+        this(client, namingStrategy, options, MapperMetrics.NOOP);
+    }
+
+    // keys are grouped by table name and expected to be distinct
+    public BatchGetResult read(Map<String, Set<Map<String, AttributeValue>>> keysByTable) {
+        Map<String, String> tableNames = new HashMap<>();
+        Map<String, Set<String>> keyNames = new HashMap<>();
+        Map<String, Map<Map<String, AttributeValue>, Map<String, AttributeValue>>> items = new HashMap<>();
+        List<TableKey> keys = new ArrayList<>();
+
+        keysByTable.forEach((tableName, tableKeys) -> {
+            if (tableKeys.isEmpty()) {
+                return;
+            }
+            tableNames.put(namingStrategy.name(tableName), tableName);
+            keyNames.put(tableName, tableKeys.iterator().next().keySet());
+            items.put(tableName, new ConcurrentHashMap<>());
+            tableKeys.forEach(key -> keys.add(new TableKey(tableName, key)));
+        });
+
+        Map<String, List<Map<String, AttributeValue>>> unprocessed = new HashMap<>();
+        AtomicInteger requests = new AtomicInteger();
+        AtomicInteger retries = new AtomicInteger();
+
+        Parallel.forEach(Parallel.partition(keys, MAX_BATCH_SIZE), options.getParallelism(), options.getExecutor(),
+            chunk -> {
+                Map<String, KeysAndAttributes> pending = toRequestItems(chunk);
+                RetryPolicy retryPolicy = options.getRetryPolicy();
+                int attempt = 0;
+
+                while (true) {
+                    attempt++;
+                    requests.incrementAndGet();
+                    Map<String, KeysAndAttributes> sent = pending;
+                    long start = System.nanoTime();
+                    try {
+                        BatchGetItemResponse response = client.batchGetItem(BatchGetItemRequest.builder()
+                            .requestItems(pending)
+                            .returnConsumedCapacity(Metered.returnConsumedCapacity(metrics))
+                            .build());
+                        if (response.hasConsumedCapacity()) {
+                            Metered.capacity(metrics, MapperOperation.BATCH_GET, response.consumedCapacity());
+                        }
+
+                        response.responses().forEach((resolvedName, tableItems) -> {
+                            String tableName = tableNames.get(resolvedName);
+                            Set<String> names = keyNames.get(tableName);
+                            Map<Map<String, AttributeValue>, Map<String, AttributeValue>> found = items.get(tableName);
+                            for (Map<String, AttributeValue> item : tableItems) {
+                                found.put(extractKey(item, names), item);
+                            }
+                            metrics.recordItems(resolvedName, MapperOperation.BATCH_GET, tableItems.size());
+                        });
+
+                        pending = response.hasUnprocessedKeys() ? response.unprocessedKeys() : Map.of();
+                    } catch (ProvisionedThroughputExceededException e) {
+                        // whole batch is still pending
+                    } finally {
+                        // a request may span tables, each of them is charged the full round trip
+                        long elapsed = System.nanoTime() - start;
+                        for (String resolvedName : sent.keySet()) {
+                            metrics.recordLatency(resolvedName, MapperOperation.BATCH_GET, elapsed);
+                        }
+                    }
+
+                    if (pending.isEmpty()) {
+                        return;
+                    }
+
+                    if (!retryPolicy.canRetry(attempt) || !retryPolicy.backoff(attempt)) {
+                        synchronized (unprocessed) {
+                            pending.forEach((resolvedName, keysAndAttributes) -> unprocessed
+                                .computeIfAbsent(tableNames.get(resolvedName), name -> new ArrayList<>())
+                                .addAll(keysAndAttributes.keys()));
+                        }
+                        return;
+                    }
+
+                    retries.incrementAndGet();
+                }
+            });
+
+        return new BatchGetResult(keysByTable, items, unprocessed, requests.get(), retries.get());
+    }
+
+    private Map<String, KeysAndAttributes> toRequestItems(List<TableKey> chunk) {
+        Map<String, List<Map<String, AttributeValue>>> keysByTable = new LinkedHashMap<>();
+        for (TableKey key : chunk) {
+            keysByTable.computeIfAbsent(namingStrategy.name(key.getTableName()), name -> new ArrayList<>())
+                .add(key.getKey());
+        }
+
+        Map<String, KeysAndAttributes> result = new LinkedHashMap<>();
+        keysByTable.forEach((tableName, keys) -> result.put(tableName, KeysAndAttributes.builder().keys(keys).build()));
+        return result;
+    }
+
+    private static Map<String, AttributeValue> extractKey(Map<String, AttributeValue> item, Set<String> names) {
+        Map<String, AttributeValue> key = new HashMap<>(names.size() * 2);
+        for (String name : names) {
+            key.put(name, item.get(name));
+        }
+        return key;
+    }
+
+    @Data
+    private static class TableKey {
+        private final String tableName;
+        private final Map<String, AttributeValue> key;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.List;
+import lombok.Data;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+@Data
+public class BatchWriteResult {
+
+    private final int itemCount;
+    private final int writtenCount;
+    private final int requestCount;
+    private final int retryCount;
+    private final List<WriteRequest> failedItems;
+
+    public boolean isSuccessful() {
+        return failedItems.isEmpty();
+    }
+
+}
@@ -0,0 +1,155 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.InternalServerErrorException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+@RequiredArgsConstructor
+public class BatchWriter {
+
+    public static final int MAX_BATCH_SIZE = 25;
+
+    private final DynamoDbClient client;
+    private final BatchOptions options;
+    private final MapperMetrics metrics;
+
+    public BatchWriter(DynamoDbClient client, BatchOptions options) {
+        this(client, options, MapperMetrics.NOOP);
+    }
+
+    public <E> BatchWriteResult write(String tableName, List<E> items, Function<E, WriteRequest> encoder) {
+        BatchCounters counters = new BatchCounters();
+
+        Parallel.forEach(Parallel.partition(items, MAX_BATCH_SIZE), options.getParallelism(), options.getExecutor(),
+            chunk -> {
+                List<WriteRequest> requests = new ArrayList<>(chunk.size());
+                for (E item : chunk) {
+                    requests.add(encoder.apply(item));
+                }
+                List<WriteRequest> accepted = withinItemLimit(requests, counters);
+                if (!accepted.isEmpty()) {
+                    writeChunk(tableName, accepted, counters);
+                }
+            });
+
+        return counters.toResult(items.size());
+    }
+
+    private void writeChunk(String tableName, List<WriteRequest> requests, BatchCounters counters) {
+        RetryPolicy retryPolicy = options.getRetryPolicy();
+        CapacityLimiter limiter = options.getLimiter();
+        List<WriteRequest> pending = requests;
+        int attempt = 0;
+
+        while (true) {
+            attempt++;
+            counters.requests.incrementAndGet();
+            metrics.recordItems(tableName, MapperOperation.BATCH_WRITE, pending.size());
+            double reserved = limiter == null ? 0 : ItemSize.writeUnits(pending);
+            if (limiter != null) {
+                limiter.acquire(reserved);
+            }
+            long start = System.nanoTime();
+            try {
+                BatchWriteItemResponse response = client.batchWriteItem(BatchWriteItemRequest.builder()
+                    .requestItems(Map.of(tableName, pending))
+                    .returnConsumedCapacity(limiter != null
+                        ? ReturnConsumedCapacity.TOTAL
+                        : Metered.returnConsumedCapacity(metrics))
+                    .build());
+                if (response.hasConsumedCapacity()) {
+                    Metered.capacity(metrics, MapperOperation.BATCH_WRITE, response.consumedCapacity());
+                }
+                if (limiter != null) {
+                    limiter.charge(consumed(response, reserved) - reserved);
+                }
+
+                List<WriteRequest> unprocessed = response.hasUnprocessedItems()
+                    ? response.unprocessedItems().getOrDefault(tableName, List.of())
+                    : List.of();
+
+                counters.written.addAndGet(pending.size() - unprocessed.size());
+                if (limiter != null && !unprocessed.isEmpty()) {
+                    limiter.throttled();
+                }
+                pending = unprocessed;
+            } catch (SdkException e) {
+                if (limiter != null) {
+                    limiter.charge(-reserved);
+                }
+                if (!retryable(e)) {
+                    // duplicate keys in the chunk and the like, its items fail and the other chunks go on
+                    counters.failed(pending);
+                    return;
+                }
+                // whole batch is still pending
+                if (limiter != null && e instanceof ProvisionedThroughputExceededException) {
+                    limiter.throttled();
+                }
+            } finally {
+                metrics.recordLatency(tableName, MapperOperation.BATCH_WRITE, System.nanoTime() - start);
+            }
+
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            if (!retryPolicy.canRetry(attempt) || !retryPolicy.backoff(attempt)) {
+                counters.failed(pending);
+                return;
+            }
+
+            counters.retries.incrementAndGet();
+        }
+    }
+
+    // errors left after the SDK retries that another attempt of the same batch may get past
+    static boolean retryable(Throwable e) {
+        return e instanceof ProvisionedThroughputExceededException
+            || e instanceof RequestLimitExceededException
+            || e instanceof InternalServerErrorException
+            || e instanceof SdkClientException
+            || e instanceof SdkServiceException && ((SdkServiceException) e).isThrottlingException();
+    }
+
+    // an oversized item fails the whole batch, so it is reported as failed without being sent
+    static List<WriteRequest> withinItemLimit(List<WriteRequest> requests, BatchCounters counters) {
+        List<WriteRequest> accepted = new ArrayList<>(requests.size());
+        for (WriteRequest request : requests) {
+            if (request.putRequest() != null
+                && ItemSize.bytes(request.putRequest().item()) > ItemSize.MAX_ITEM_BYTES) {
+                counters.failed(List.of(request));
+            } else {
+                accepted.add(request);
+            }
+        }
+        return accepted;
+    }
+
+    static double consumed(BatchWriteItemResponse response, double reserved) {
+        if (!response.hasConsumedCapacity()) {
+            return reserved;
+        }
+        double units = 0;
+        for (ConsumedCapacity capacity : response.consumedCapacity()) {
+            if (capacity.capacityUnits() != null) {
+                units += capacity.capacityUnits();
+            }
+        }
+        return units;
+    }
+}
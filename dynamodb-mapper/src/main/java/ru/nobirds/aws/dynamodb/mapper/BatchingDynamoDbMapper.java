@@ -0,0 +1,84 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+
+// get() calls made at about the same time from different threads are sent together as BatchGetItem,
+// see GetBatcher. Batched reads return whole items, the mapper projection is not applied.
+public class BatchingDynamoDbMapper extends DynamoDbMapper implements AutoCloseable {
+
+    private final GetBatcher batcher;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownScheduler;
+    private final ExecutorService ownExecutor;
+
+    public BatchingDynamoDbMapper(DynamoDbClient client, NamingStrategy namingStrategy) {
+        this(client, namingStrategy, MapperMetrics.NOOP, GetBatchConfig.DEFAULT);
+    }
+
+    public BatchingDynamoDbMapper(DynamoDbClient client, NamingStrategy namingStrategy, MapperMetrics metrics,
+        GetBatchConfig config) {
+        this(client, namingStrategy, metrics, config, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dynamodb-get-batcher");
+            thread.setDaemon(true);
+            return thread;
+        }), true);
+    }
+
+    // the scheduler sends batches when their window closes, it is not shut down by close()
+    public BatchingDynamoDbMapper(DynamoDbClient client, NamingStrategy namingStrategy, MapperMetrics metrics,
+        GetBatchConfig config, ScheduledExecutorService scheduler) {
+        this(client, namingStrategy, metrics, config, scheduler, false);
+    }
+
+    private BatchingDynamoDbMapper(DynamoDbClient client, NamingStrategy namingStrategy, MapperMetrics metrics,
+        GetBatchConfig config, ScheduledExecutorService scheduler, boolean ownScheduler) {
+        super(client, namingStrategy, metrics);
+        this.scheduler = scheduler;
+        this.ownScheduler = ownScheduler;
+        this.ownExecutor = config.getExecutor() == null ? Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "dynamodb-get-batch");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        Executor executor = ownExecutor != null ? ownExecutor : config.getExecutor();
+        this.batcher = new GetBatcher(config, scheduler, executor,
+            keys -> batchGet(config.getBatchOptions(), batch -> keys.forEach(batch::keys)),
+            super::getItem);
+    }
+
+    public <T> CompletableFuture<Optional<T>> getAsync(String tableName, AttributesMapper<T> mapper,
+        Map<String, AttributeValue> key) {
+        return batcher.get(tableName, key).thenApply(item -> item.map(mapper::map));
+    }
+
+    @Override
+    protected Optional<Map<String, AttributeValue>> getItem(String tableName, String resolvedName,
+        Map<String, AttributeValue> key, Consumer<GetItemRequest.Builder> projection) {
+        try {
+            return batcher.get(tableName, key).join();
+        } catch (CompletionException e) {
+            throw Parallel.unwrap(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownScheduler) {
+            scheduler.shutdown();
+        }
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+        }
+    }
+}
@@ -11,7 +11,7 @@ public interface BidirectionalMapper<T, R> {
     T write(R value);
 
     default <NR> BidirectionalMapper<T, NR> then(BidirectionalMapper<R, NR> mapper) {
-        return of(value -> mapper.read(read(value)), value -> write(mapper.write(value)));
+        return ChainedBidirectionalMapper.of(this, mapper);
     }
 
     static <T, R> BidirectionalMapper<T, R> of(Function<T, R> reader, Function<R, T> writer) {
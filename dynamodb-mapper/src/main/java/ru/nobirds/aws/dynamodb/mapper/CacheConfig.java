@@ -0,0 +1,24 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder(toBuilder = true)
+public class CacheConfig {
+
+    @Builder.Default
+    private final int maxEntries = 10_000;
+
+    @Builder.Default
+    private final Duration ttl = Duration.ofMinutes(5);
+
+    @Builder.Default
+    private final CachePolicy policy = CachePolicy.LRU;
+
+    // keep "no such item" answers as well
+    @Builder.Default
+    private final boolean cacheMissing = true;
+
+}
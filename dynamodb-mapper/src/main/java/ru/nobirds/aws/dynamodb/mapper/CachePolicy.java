@@ -0,0 +1,11 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+public enum CachePolicy {
+
+    // evicts the least recently used entry
+    LRU,
+
+    // LRU order, but a new entry replaces the eldest one only if its key was requested more often
+    TINY_LFU
+
+}
@@ -0,0 +1,20 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import lombok.Data;
+
+@Data
+public class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long evictions;
+    private final long rejections;
+    private final int size;
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+}
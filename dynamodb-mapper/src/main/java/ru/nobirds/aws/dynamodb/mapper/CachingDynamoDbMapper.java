@@ -0,0 +1,115 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+// Read-through cache for get() on the configured tables, writes made through this mapper refresh or drop entries.
+public class CachingDynamoDbMapper extends DynamoDbMapper {
+
+    private final Map<String, ItemCache> caches = new ConcurrentHashMap<>();
+
+    public CachingDynamoDbMapper(DynamoDbClient client, NamingStrategy namingStrategy) {
+        super(client, namingStrategy);
+    }
+
+    public CachingDynamoDbMapper(DynamoDbClient client, NamingStrategy namingStrategy, MapperMetrics metrics) {
+        super(client, namingStrategy, metrics);
+    }
+
+    public CachingDynamoDbMapper cache(String tableName, CacheConfig config) {
+        caches.put(tableName, new ItemCache(config));
+        return this;
+    }
+
+    public Optional<CacheStats> stats(String tableName) {
+        return Optional.ofNullable(caches.get(tableName)).map(ItemCache::stats);
+    }
+
+    public void invalidateAll(String tableName) {
+        ItemCache cache = caches.get(tableName);
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    // cached items are whole, whatever projection the caller asked for
+    @Override
+    protected Optional<Map<String, AttributeValue>> getItem(String tableName, String resolvedName,
+        Map<String, AttributeValue> key, Consumer<GetItemRequest.Builder> projection) {
+        ItemCache cache = caches.get(tableName);
+        if (cache == null) {
+            return super.getItem(tableName, resolvedName, key, projection);
+        }
+        return cache.get(key, k -> super.getItem(tableName, resolvedName, k, WHOLE_ITEM));
+    }
+
+    @Override
+    protected void putItem(String tableName, String resolvedName, Map<String, AttributeValue> item,
+        Consumer<PutItemRequest.Builder> saveBuilder) {
+
+        ItemCache cache = caches.get(tableName);
+        if (cache == null) {
+            super.putItem(tableName, resolvedName, item, saveBuilder);
+            return;
+        }
+
+        try {
+            super.putItem(tableName, resolvedName, item, saveBuilder);
+        } catch (RuntimeException e) {
+            cache.invalidateItem(item);
+            throw e;
+        }
+        cache.refresh(item);
+    }
+
+    @Override
+    protected void updateItem(String tableName, Map<String, AttributeValue> key,
+        Consumer<UpdateItemRequest.Builder> updateBuilder) {
+        try {
+            super.updateItem(tableName, key, updateBuilder);
+        } finally {
+            ItemCache cache = caches.get(tableName);
+            if (cache != null) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    @Override
+    protected void deleteItem(String tableName, String resolvedName, Map<String, AttributeValue> key) {
+        try {
+            super.deleteItem(tableName, resolvedName, key);
+        } finally {
+            ItemCache cache = caches.get(tableName);
+            if (cache != null) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    @Override
+    public BatchWriteResult batchSave(String tableName, BatchOptions options, Consumer<BatchBuilder> batchBuilder) {
+        ItemCache cache = caches.get(tableName);
+        if (cache == null) {
+            return super.batchSave(tableName, options, batchBuilder);
+        }
+
+        AtomicReference<List<ValueAndMapper<?>>> items = new AtomicReference<>();
+        try {
+            return super.batchSave(tableName, options, batchBuilder.andThen(batch -> items.set(batch.build())));
+        } finally {
+            if (items.get() != null) {
+                items.get().forEach(item -> cache.invalidateItem(item.toAttributes()));
+            }
+        }
+    }
+}
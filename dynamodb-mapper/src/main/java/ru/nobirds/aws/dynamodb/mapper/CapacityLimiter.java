@@ -0,0 +1,135 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+
+// Token bucket in capacity units. Callers reserve an estimate before a request and charge the difference
+// once ConsumedCapacity is known, the bucket may go into debt and later callers wait it off.
+// Throttling halves the rate, which then grows back by 5% of the configured rate per second.
+public class CapacityLimiter {
+
+    private static final double MIN_RATE_FRACTION = 0.1;
+    private static final double THROTTLE_FACTOR = 0.5;
+    private static final double RECOVERY_PER_SECOND = 0.05;
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double unitsPerSecond;
+    private final double burst;
+    private final LongSupplier nanoTime;
+
+    private double rate;
+    private double tokens;
+    private long refilledAt;
+    private volatile double lastUnits;
+
+    public CapacityLimiter(double unitsPerSecond) {
+        this(unitsPerSecond, System::nanoTime);
+    }
+
+    CapacityLimiter(double unitsPerSecond, LongSupplier nanoTime) {
+        if (!(unitsPerSecond > 0)) {
+            throw new IllegalArgumentException("unitsPerSecond must be positive: " + unitsPerSecond);
+        }
+        this.unitsPerSecond = unitsPerSecond;
+        this.burst = unitsPerSecond;
+        this.nanoTime = nanoTime;
+        this.rate = unitsPerSecond;
+        this.tokens = burst;
+        this.refilledAt = nanoTime.getAsLong();
+    }
+
+    // fraction of a table's provisioned capacity, e.g. 0.2 of 500 units
+    public static CapacityLimiter of(double provisionedUnits, double fraction) {
+        return new CapacityLimiter(provisionedUnits * fraction);
+    }
+
+    // takes the units and returns how long the caller has to wait before sending the request
+    public synchronized long reserve(double units) {
+        refill();
+        long wait = tokens < 0 ? (long) (-tokens / rate * NANOS_PER_SECOND) : 0;
+        tokens -= units;
+        return wait;
+    }
+
+    public void acquire(double units) {
+        long wait = reserve(units);
+        if (wait <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for capacity", e);
+        }
+    }
+
+    // difference between the consumed and the reserved units, negative values return tokens
+    public synchronized void charge(double units) {
+        refill();
+        tokens = Math.min(burst, tokens - units);
+    }
+
+    public synchronized void throttled() {
+        refill();
+        rate = Math.max(unitsPerSecond * MIN_RATE_FRACTION, rate * THROTTLE_FACTOR);
+        tokens = Math.min(tokens, 0);
+    }
+
+    public double getUnitsPerSecond() {
+        return unitsPerSecond;
+    }
+
+    public synchronized double getRate() {
+        refill();
+        return rate;
+    }
+
+    // pages are fetched in next(): the last page's consumption is reserved up front and corrected afterwards
+    <P> Iterator<P> limit(Iterator<P> pages, Function<P, ConsumedCapacity> capacity) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return pages.hasNext();
+            }
+
+            @Override
+            public P next() {
+                double reserved = lastUnits;
+                acquire(reserved);
+
+                P page;
+                try {
+                    page = pages.next();
+                } catch (ProvisionedThroughputExceededException e) {
+                    charge(-reserved);
+                    throttled();
+                    throw e;
+                }
+
+                ConsumedCapacity consumed = capacity.apply(page);
+                double units = consumed != null && consumed.capacityUnits() != null
+                    ? consumed.capacityUnits()
+                    : reserved;
+                charge(units - reserved);
+                lastUnits = units;
+                return page;
+            }
+        };
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        double seconds = (now - refilledAt) / NANOS_PER_SECOND;
+        if (seconds <= 0) {
+            return;
+        }
+        refilledAt = now;
+        tokens = Math.min(burst, tokens + seconds * rate);
+        rate = Math.min(unitsPerSecond, rate + unitsPerSecond * RECOVERY_PER_SECOND * seconds);
+    }
+}
@@ -0,0 +1,54 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Arrays;
+
+// Keeps then() chains flat, so reading walks an array instead of a stack of nested lambdas.
+public class ChainedBidirectionalMapper<T, R> implements BidirectionalMapper<T, R> {
+
+    private final BidirectionalMapper<Object, Object>[] mappers;
+
+    private ChainedBidirectionalMapper(BidirectionalMapper<Object, Object>[] mappers) {
+        this.mappers = mappers;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T, R, NR> BidirectionalMapper<T, NR> of(BidirectionalMapper<T, R> first,
+        BidirectionalMapper<R, NR> second) {
+
+        BidirectionalMapper<Object, Object>[] head = flatten(first);
+        BidirectionalMapper<Object, Object>[] tail = flatten(second);
+
+        BidirectionalMapper<Object, Object>[] mappers = Arrays.copyOf(head, head.length + tail.length);
+        System.arraycopy(tail, 0, mappers, head.length, tail.length);
+
+        return new ChainedBidirectionalMapper<>(mappers);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BidirectionalMapper<Object, Object>[] flatten(BidirectionalMapper<?, ?> mapper) {
+        if (mapper instanceof ChainedBidirectionalMapper) {
+            return ((ChainedBidirectionalMapper<?, ?>) mapper).mappers;
+        }
+        return new BidirectionalMapper[] {mapper};
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public R read(T value) {
+        Object result = value;
+        for (BidirectionalMapper<Object, Object> mapper : mappers) {
+            result = mapper.read(result);
+        }
+        return (R) result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T write(R value) {
+        Object result = value;
+        for (int i = mappers.length - 1; i >= 0; i--) {
+            result = mappers[i].write(result);
+        }
+        return (T) result;
+    }
+}
@@ -0,0 +1,145 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Attribute layout resolved once into parallel arrays, properties and constants are handled inline
+// and the result map is created with its final capacity.
+public class CompiledAttributesMapper<R> implements AttributesMapper<R> {
+
+    private static final byte PROPERTY = 0;
+    private static final byte CONSTANT = 1;
+    private static final byte CUSTOM = 2;
+    private static final byte FIXED = 3;
+
+    private final Supplier<R> constructor;
+    private final int size;
+    private final int capacity;
+    private final byte[] kinds;
+    private final String[] names;
+    private final Function<R, Object>[] getters;
+    private final BiConsumer<R, Object>[] setters;
+    private final Supplier<Object>[] constants;
+    private final AttributeValue[] fixed;
+    // UTF-8 length of names, plus the value for fixed constants
+    private final long[] sizes;
+    private final AttributeMapper<Object>[] mappers;
+    private final Attribute<R>[] custom;
+    private final Optional<Set<String>> attributeNames;
+
+    @SuppressWarnings("unchecked")
+    public CompiledAttributesMapper(Supplier<R> constructor, List<Attribute<R>> attributes) {
+        this.constructor = constructor;
+        this.size = attributes.size();
+        this.capacity = (int) (size / 0.75f) + 1;
+        this.kinds = new byte[size];
+        this.names = new String[size];
+        this.getters = new Function[size];
+        this.setters = new BiConsumer[size];
+        this.constants = new Supplier[size];
+        this.fixed = new AttributeValue[size];
+        this.sizes = new long[size];
+        this.mappers = new AttributeMapper[size];
+        this.custom = new Attribute[size];
+        this.attributeNames = Projection.attributeNames(attributes);
+
+        for (int i = 0; i < size; i++) {
+            Attribute<R> attribute = attributes.get(i);
+            if (attribute instanceof SimpleAttribute) {
+                SimpleAttribute<R, Object> simple = (SimpleAttribute<R, Object>) attribute;
+                kinds[i] = PROPERTY;
+                names[i] = simple.getProperty().getName();
+                getters[i] = simple.getProperty().getGetter();
+                setters[i] = simple.getProperty().getSetter();
+                mappers[i] = simple.getMapper();
+                sizes[i] = ItemSize.utf8(names[i]);
+            } else if (attribute instanceof ConstantAttribute) {
+                ConstantAttribute<R, Object> constant = (ConstantAttribute<R, Object>) attribute;
+                kinds[i] = constant.getAttributeValue() != null ? FIXED : CONSTANT;
+                names[i] = constant.getName();
+                fixed[i] = constant.getAttributeValue();
+                constants[i] = constant.getValue();
+                mappers[i] = constant.getMapper();
+                sizes[i] = ItemSize.utf8(names[i]) + (fixed[i] != null ? ItemSize.bytes(fixed[i]) : 0);
+            } else {
+                kinds[i] = CUSTOM;
+                custom[i] = attribute;
+            }
+        }
+    }
+
+    @Override
+    public R map(Map<String, AttributeValue> attributes) {
+        R instance = constructor.get();
+        for (int i = 0; i < size; i++) {
+            switch (kinds[i]) {
+                case PROPERTY:
+                    setters[i].accept(instance, mappers[i].map(attributes.get(names[i])));
+                    break;
+                case CUSTOM:
+                    custom[i].writeFromMapToInstance(attributes, instance);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public Map<String, AttributeValue> map(R value) {
+        Map<String, AttributeValue> result = new HashMap<>(capacity);
+        for (int i = 0; i < size; i++) {
+            switch (kinds[i]) {
+                case PROPERTY:
+                    result.put(names[i], mappers[i].map(getters[i].apply(value)));
+                    break;
+                case CONSTANT:
+                    result.put(names[i], mappers[i].map(constants[i].get()));
+                    break;
+                case FIXED:
+                    result.put(names[i], fixed[i]);
+                    break;
+                default:
+                    custom[i].writeFromInstanceToMap(value, result);
+                    break;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long size(R value) {
+        long result = 0;
+        for (int i = 0; i < size; i++) {
+            switch (kinds[i]) {
+                case PROPERTY:
+                    result += sizes[i] + mappers[i].size(getters[i].apply(value));
+                    break;
+                case CONSTANT:
+                    result += sizes[i] + mappers[i].size(constants[i].get());
+                    break;
+                case FIXED:
+                    result += sizes[i];
+                    break;
+                default:
+                    result += custom[i].size(value);
+                    break;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<Set<String>> attributeNames() {
+        return attributeNames;
+    }
+
+}
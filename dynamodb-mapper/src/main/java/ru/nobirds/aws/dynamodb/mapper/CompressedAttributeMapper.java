@@ -0,0 +1,134 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Stores the value as a single B attribute: ItemCodec bytes after a format byte, deflated once they
+// exceed the threshold. Deflated values keep the original length after the format byte.
+@Getter
+@RequiredArgsConstructor
+public class CompressedAttributeMapper<T> implements AttributeMapper<T> {
+
+    public static final int DEFAULT_THRESHOLD = 512;
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+
+    private final AttributeMapper<T> mapper;
+    private final int threshold;
+
+    public CompressedAttributeMapper(AttributeMapper<T> mapper) {
+        this(mapper, DEFAULT_THRESHOLD);
+    }
+
+    @Override
+    public T map(AttributeValue attributeValue) {
+        if (attributeValue == null || attributeValue.b() == null) {
+            return null;
+        }
+
+        ByteBuffer buffer = attributeValue.b().asByteBuffer();
+        // an empty B value carries no format byte, it is read as an absent value
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        byte format = buffer.get();
+        byte[] encoded;
+        if (format == DEFLATED) {
+            encoded = inflate(buffer);
+        } else if (format == PLAIN) {
+            encoded = new byte[buffer.remaining()];
+            buffer.get(encoded);
+        } else {
+            throw new IllegalArgumentException("Unknown compressed value format " + format);
+        }
+
+        try {
+            return mapper.map(ItemCodec.readValue(new DataInputStream(new ByteArrayInputStream(encoded))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public AttributeValue map(T value) {
+        if (value == null) {
+            return AttributeValues.NULL;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        bytes.write(PLAIN);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            ItemCodec.writeValue(out, mapper.map(value));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] encoded = bytes.toByteArray();
+        byte[] result = encoded.length - 1 > threshold ? deflate(encoded) : encoded;
+        return AttributeValue.builder().b(SdkBytes.fromByteArrayUnsafe(result)).build();
+    }
+
+    // falls back to the plain form when deflate does not make the value smaller
+    private static byte[] deflate(byte[] encoded) {
+        int length = encoded.length - 1;
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(encoded, 1, length);
+            deflater.finish();
+
+            byte[] result = new byte[encoded.length];
+            result[0] = DEFLATED;
+            ByteBuffer.wrap(result, 1, 4).putInt(length);
+            int size = 5;
+            while (!deflater.finished() && size < result.length) {
+                size += deflater.deflate(result, size, result.length - size);
+            }
+            if (!deflater.finished()) {
+                return encoded;
+            }
+
+            byte[] trimmed = new byte[size];
+            System.arraycopy(result, 0, trimmed, 0, size);
+            return trimmed;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(ByteBuffer buffer) {
+        if (buffer.remaining() < Integer.BYTES) {
+            throw new IllegalArgumentException("Compressed value is truncated");
+        }
+        byte[] result = new byte[buffer.getInt()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer);
+            int size = 0;
+            while (size < result.length) {
+                int inflated = inflater.inflate(result, size, result.length - size);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalArgumentException("Compressed value is truncated");
+                }
+                size += inflated;
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Compressed value is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
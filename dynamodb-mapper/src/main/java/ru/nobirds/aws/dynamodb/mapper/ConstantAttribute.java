@@ -1,16 +1,36 @@
 package ru.nobirds.aws.dynamodb.mapper;
 
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Supplier;
-import lombok.RequiredArgsConstructor;
+import lombok.Getter;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
-@RequiredArgsConstructor
+@Getter
 public class ConstantAttribute<R, T> implements Attribute<R> {
 
     private final String name;
     private final Supplier<T> value;
     private final AttributeMapper<T> mapper;
+    // precomputed for fixed values, null when the supplier has to be called on every write
+    private final AttributeValue attributeValue;
+
+    public ConstantAttribute(String name, Supplier<T> value, AttributeMapper<T> mapper) {
+        this(name, value, mapper, null);
+    }
+
+    private ConstantAttribute(String name, Supplier<T> value, AttributeMapper<T> mapper,
+        AttributeValue attributeValue) {
+        this.name = name;
+        this.value = value;
+        this.mapper = mapper;
+        this.attributeValue = attributeValue;
+    }
+
+    public static <R, T> ConstantAttribute<R, T> fixed(String name, T value, AttributeMapper<T> mapper) {
+        return new ConstantAttribute<>(name, () -> value, mapper, mapper.map(value));
+    }
 
     @Override
     public void writeFromMapToInstance(Map<String, AttributeValue> attributeValues, R instance) {
@@ -19,6 +39,17 @@ public class ConstantAttribute<R, T> implements Attribute<R> {
 
     @Override
     public void writeFromInstanceToMap(R instance, Map<String, AttributeValue> result) {
-        result.put(name, mapper.map(value.get()));
+        result.put(name, attributeValue != null ? attributeValue : mapper.map(value.get()));
+    }
+
+    @Override
+    public long size(R instance) {
+        return ItemSize.utf8(name)
+            + (attributeValue != null ? ItemSize.bytes(attributeValue) : mapper.size(value.get()));
+    }
+
+    @Override
+    public Optional<Set<String>> attributeNames() {
+        return Optional.of(Set.of());
     }
 }
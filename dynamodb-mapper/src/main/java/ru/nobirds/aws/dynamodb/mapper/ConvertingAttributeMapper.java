@@ -0,0 +1,28 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+@Getter
+@RequiredArgsConstructor
+public class ConvertingAttributeMapper<T, R> implements AttributeMapper<R> {
+
+    private final AttributeMapper<T> mapper;
+    private final BidirectionalMapper<T, R> converter;
+
+    @Override
+    public R map(AttributeValue attributeValue) {
+        return (attributeValue == null) ? null : converter.read(mapper.map(attributeValue));
+    }
+
+    @Override
+    public AttributeValue map(R value) {
+        return (value == null) ? AttributeValues.NULL : mapper.map(converter.write(value));
+    }
+
+    @Override
+    public long size(R value) {
+        return (value == null) ? ItemSize.bytes(AttributeValues.NULL) : mapper.size(converter.write(value));
+    }
+}
@@ -0,0 +1,43 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ToDoubleFunction;
+import lombok.Data;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+@Data
+public class DoubleAttribute<R> implements Attribute<R> {
+
+    private final String name;
+    private final ToDoubleFunction<R> getter;
+    private final ObjDoubleConsumer<R> setter;
+    private final DoubleAttributeMapper mapper;
+
+    @Override
+    public void writeFromMapToInstance(Map<String, AttributeValue> attributeValues, R instance) {
+        AttributeValue attributeValue = attributeValues.get(name);
+        // a missing or null number leaves the field untouched
+        if (attributeValue != null && attributeValue.n() != null) {
+            setter.accept(instance, mapper.readDouble(attributeValue));
+        }
+    }
+
+    @Override
+    public void writeFromInstanceToMap(R instance, Map<String, AttributeValue> result) {
+        result.put(name, mapper.writeDouble(getter.applyAsDouble(instance)));
+    }
+
+    @Override
+    public long size(R instance) {
+        return ItemSize.utf8(name) + ItemSize.number(getter.applyAsDouble(instance));
+    }
+
+    @Override
+    public Optional<Set<String>> attributeNames() {
+        return Optional.of(Set.of(name));
+    }
+
+}
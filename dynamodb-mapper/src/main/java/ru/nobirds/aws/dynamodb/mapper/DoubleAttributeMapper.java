@@ -0,0 +1,22 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+public interface DoubleAttributeMapper extends AttributeMapper<Double> {
+
+    // attributeValue is not null and holds a number
+    double readDouble(AttributeValue attributeValue);
+
+    AttributeValue writeDouble(double value);
+
+    @Override
+    default Double map(AttributeValue attributeValue) {
+        return (attributeValue == null || attributeValue.n() == null) ? null : readDouble(attributeValue);
+    }
+
+    @Override
+    default AttributeValue map(Double value) {
+        return (value == null) ? AttributeValues.NULL : writeDouble(value);
+    }
+
+}
@@ -0,0 +1,15 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface DynamoDbAttribute {
+
+    // attribute name, the field name when empty
+    String value() default "";
+
+}
@@ -0,0 +1,19 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// String attribute written with every item and ignored on read, like AttributesBuilder.constantValue
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+@Repeatable(DynamoDbConstants.class)
+public @interface DynamoDbConstant {
+
+    String name();
+
+    String value();
+
+}
@@ -0,0 +1,14 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface DynamoDbConstants {
+
+    DynamoDbConstant[] value();
+
+}
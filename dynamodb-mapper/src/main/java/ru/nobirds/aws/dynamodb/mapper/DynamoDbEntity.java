@@ -0,0 +1,13 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a class for which dynamodb-mapper-processor generates <Class>AttributesMapper,
+// nested classes get their enclosing class names joined with '_' as a prefix.
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface DynamoDbEntity {
+}
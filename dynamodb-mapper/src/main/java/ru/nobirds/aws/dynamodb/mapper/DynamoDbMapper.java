@@ -1,31 +1,70 @@
 package ru.nobirds.aws.dynamodb.mapper;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
 import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
 import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
-import software.amazon.awssdk.services.dynamodb.model.WriteRequest.Builder;
 import software.amazon.awssdk.services.dynamodb.paginators.QueryIterable;
+import software.amazon.awssdk.services.dynamodb.paginators.ScanIterable;
 
 @RequiredArgsConstructor
 public class DynamoDbMapper {
 
+    // projection of getItem that reads every attribute
+    protected static final Consumer<GetItemRequest.Builder> WHOLE_ITEM = builder -> {};
+
     private final DynamoDbClient client;
     private final NamingStrategy namingStrategy;
+    private final MapperMetrics metrics;
+    private final Map<String, CapacityLimiter> readLimiters = new ConcurrentHashMap<>();
+    private final Map<String, CapacityLimiter> writeLimiters = new ConcurrentHashMap<>();
+
+    public DynamoDbMapper(DynamoDbClient client, NamingStrategy namingStrategy) {
+        this(client, namingStrategy, MapperMetrics.NOOP);
+    }
+
+    // scans and queries wait for the read limiter, batchSave for the write one, either may be null
+    public DynamoDbMapper limit(String tableName, CapacityLimiter read, CapacityLimiter write) {
+        if (read != null) {
+            readLimiters.put(tableName, read);
+        } else {
+            readLimiters.remove(tableName);
+        }
+        if (write != null) {
+            writeLimiters.put(tableName, write);
+        } else {
+            writeLimiters.remove(tableName);
+        }
+        return this;
+    }
 
     public <T> Stream<T> scan(String tableName, AttributesMapper<T> mapper) {
         return scan(tableName, mapper, builder -> {});
@@ -33,12 +72,62 @@ public class DynamoDbMapper {
 
     public <T> Stream<T> scan(String tableName, AttributesMapper<T> mapper,
         Consumer<ScanRequest.Builder> requestBuilder) {
+        return scanItems(tableName, namingStrategy.name(tableName), mapper, requestBuilder);
+    }
+
+    private <T> Stream<T> scanItems(String tableName, String resolvedName, AttributesMapper<T> mapper,
+        Consumer<ScanRequest.Builder> requestBuilder) {
+
+        Consumer<ScanRequest.Builder> capacity = builder -> builder
+            .returnConsumedCapacity(returnConsumedCapacity(tableName));
+        ScanIterable scanResponses = client.scanPaginator(Projection.scan(capacity.andThen(requestBuilder), mapper)
+            .andThen(builder -> builder.tableName(resolvedName)));
+
+        return pages(tableName, resolvedName, MapperOperation.SCAN, scanResponses, ScanResponse::items,
+            ScanResponse::consumedCapacity)
+            .flatMap(scanResponse -> scanResponse.items().stream())
+            .map(item -> Metered.map(metrics, resolvedName, MapperOperation.SCAN, mapper, item));
+    }
+
+    // pages are fetched and decoded ahead of the consumer, see PrefetchOptions
+    public <T> Stream<T> scan(String tableName, AttributesMapper<T> mapper,
+        Consumer<ScanRequest.Builder> requestBuilder, PrefetchOptions prefetch) {
 
-        ScanResponse response = client.scan(requestBuilder
-            .andThen(builder -> builder.tableName(namingStrategy.name(tableName))));
+        String resolvedName = namingStrategy.name(tableName);
+        Consumer<ScanRequest.Builder> capacity = builder -> builder
+            .returnConsumedCapacity(returnConsumedCapacity(tableName));
+        ScanIterable scanResponses = client.scanPaginator(Projection.scan(capacity.andThen(requestBuilder), mapper)
+            .andThen(builder -> builder.tableName(resolvedName)));
 
-        // todo: paging?
-        return response.items().stream().map(mapper::map);
+        return Prefetch.start(pageIterator(tableName, resolvedName, MapperOperation.SCAN, scanResponses,
+            ScanResponse::items, ScanResponse::consumedCapacity), ScanResponse::items,
+            item -> Metered.map(metrics, resolvedName, MapperOperation.SCAN, mapper, item), prefetch).stream();
+    }
+
+    public <T> Stream<T> parallelScan(String tableName, AttributesMapper<T> mapper, int totalSegments,
+        Executor executor) {
+        return parallelScan(tableName, mapper, totalSegments, executor, builder -> {});
+    }
+
+    public <T> Stream<T> parallelScan(String tableName, AttributesMapper<T> mapper, int totalSegments,
+        Executor executor, Consumer<ScanRequest.Builder> requestBuilder) {
+
+        String resolvedName = namingStrategy.name(tableName);
+        Consumer<ScanRequest.Builder> capacity = builder -> builder
+            .returnConsumedCapacity(returnConsumedCapacity(tableName));
+        return ParallelScan.start(client, mapper, totalSegments,
+            totalSegments * ParallelScan.DEFAULT_PAGES_PER_SEGMENT, executor,
+            Projection.scan(capacity.andThen(requestBuilder), mapper)
+                .andThen(builder -> builder.tableName(resolvedName)),
+            metrics, resolvedName, readLimiters.get(tableName)).stream();
+    }
+
+    public <T> void parallelScan(String tableName, AttributesMapper<T> mapper, int totalSegments,
+        Executor executor, Consumer<ScanRequest.Builder> requestBuilder, Consumer<T> sink) {
+
+        try (Stream<T> items = parallelScan(tableName, mapper, totalSegments, executor, requestBuilder)) {
+            items.forEach(sink);
+        }
     }
 
     public <T> Stream<T> query(String tableName, AttributesMapper<T> mapper) {
@@ -56,11 +145,104 @@ public class DynamoDbMapper {
 
     public <T> Stream<T> query(String tableName, AttributesMapper<T> mapper,
         Consumer<QueryRequest.Builder> requestBuilder) {
+        return queryItems(tableName, namingStrategy.name(tableName), mapper, requestBuilder);
+    }
+
+    private <T> Stream<T> queryItems(String tableName, String resolvedName, AttributesMapper<T> mapper,
+        Consumer<QueryRequest.Builder> requestBuilder) {
 
-        QueryIterable queryResponses = client.queryPaginator(requestBuilder
-            .andThen(builder -> builder.tableName(namingStrategy.name(tableName))));
+        Consumer<QueryRequest.Builder> capacity = builder -> builder
+            .returnConsumedCapacity(returnConsumedCapacity(tableName));
+        QueryIterable queryResponses = client.queryPaginator(Projection.query(capacity.andThen(requestBuilder), mapper)
+            .andThen(builder -> builder.tableName(resolvedName)));
 
-        return queryResponses.stream().flatMap(queryResponse -> queryResponse.items().stream()).map(mapper::map);
+        return pages(tableName, resolvedName, MapperOperation.QUERY, queryResponses, QueryResponse::items,
+            QueryResponse::consumedCapacity)
+            .flatMap(queryResponse -> queryResponse.items().stream())
+            .map(item -> Metered.map(metrics, resolvedName, MapperOperation.QUERY, mapper, item));
+    }
+
+    // pages are fetched and decoded ahead of the consumer, see PrefetchOptions
+    public <T> Stream<T> query(String tableName, AttributesMapper<T> mapper,
+        Consumer<QueryRequest.Builder> requestBuilder, PrefetchOptions prefetch) {
+
+        String resolvedName = namingStrategy.name(tableName);
+        Consumer<QueryRequest.Builder> capacity = builder -> builder
+            .returnConsumedCapacity(returnConsumedCapacity(tableName));
+        QueryIterable queryResponses = client.queryPaginator(Projection.query(capacity.andThen(requestBuilder), mapper)
+            .andThen(builder -> builder.tableName(resolvedName)));
+
+        return Prefetch.start(pageIterator(tableName, resolvedName, MapperOperation.QUERY, queryResponses,
+            QueryResponse::items, QueryResponse::consumedCapacity), QueryResponse::items,
+            item -> Metered.map(metrics, resolvedName, MapperOperation.QUERY, mapper, item), prefetch).stream();
+    }
+
+    public <T> Stream<T> queryMany(String tableName, String indexName, AttributesMapper<T> mapper,
+        String partitionKey, Collection<AttributeValue> partitionValues, String sortKey) {
+        return queryMany(tableName, indexName, mapper, partitionKey, partitionValues, sortKey, builder -> {},
+            QueryManyOptions.DEFAULT);
+    }
+
+    // one query per partition value, run concurrently and merged by sortKey in the order of scanIndexForward.
+    // The request builder runs once, its request is shared by the partitions and may narrow the sort key,
+    // indexName may be null.
+    public <T> Stream<T> queryMany(String tableName, String indexName, AttributesMapper<T> mapper,
+        String partitionKey, Collection<AttributeValue> partitionValues, String sortKey,
+        Consumer<QueryRequest.Builder> requestBuilder, QueryManyOptions options) {
+
+        String resolvedName = namingStrategy.name(tableName);
+        Consumer<QueryRequest.Builder> shared = builder -> {
+            builder.returnConsumedCapacity(returnConsumedCapacity(tableName));
+            requestBuilder.accept(builder);
+            if (indexName != null) {
+                builder.indexName(indexName);
+            }
+            // a partition never returns more than the whole stream takes
+            if (options.getLimit() < Integer.MAX_VALUE) {
+                Integer limit = builder.build().limit();
+                builder.limit(limit == null ? options.getLimit() : Math.min(limit, options.getLimit()));
+            }
+            builder.tableName(resolvedName);
+        };
+        // the merge reads the sort key, so a projection without it is not added
+        boolean projected = mapper.attributeNames().map(names -> names.contains(sortKey)).orElse(true);
+        QueryRequest.Builder template = QueryRequest.builder();
+        (projected ? Projection.query(shared, mapper) : shared).accept(template);
+        QueryRequest request = template.build();
+
+        boolean forward = !Boolean.FALSE.equals(request.scanIndexForward());
+        PartitionCondition condition = PartitionCondition.of(request, partitionKey);
+        List<Iterator<QueryResponse>> pages = new ArrayList<>(partitionValues.size());
+        for (AttributeValue partitionValue : partitionValues) {
+            QueryRequest.Builder partition = request.toBuilder();
+            condition.apply(partition, partitionValue);
+            QueryIterable queryResponses = client.queryPaginator(partition.build());
+            pages.add(pageIterator(tableName, resolvedName, MapperOperation.QUERY, queryResponses, QueryResponse::items,
+                QueryResponse::consumedCapacity));
+        }
+
+        return QueryMerge.start(pages, sortKey, forward,
+            item -> Metered.map(metrics, resolvedName, MapperOperation.QUERY, mapper, item), options).stream();
+    }
+
+    private <P> Stream<P> pages(String tableName, String resolvedName, MapperOperation operation, Iterable<P> pages,
+        Function<P, List<Map<String, AttributeValue>>> items, Function<P, ConsumedCapacity> capacity) {
+        return Metered.stream(pageIterator(tableName, resolvedName, operation, pages, items, capacity));
+    }
+
+    private <P> Iterator<P> pageIterator(String tableName, String resolvedName, MapperOperation operation,
+        Iterable<P> pages, Function<P, List<Map<String, AttributeValue>>> items,
+        Function<P, ConsumedCapacity> capacity) {
+
+        Iterator<P> iterator = Metered.iterator(metrics, resolvedName, operation, pages, items, capacity);
+        CapacityLimiter limiter = readLimiters.get(tableName);
+        return limiter == null ? iterator : limiter.limit(iterator, capacity);
+    }
+
+    private ReturnConsumedCapacity returnConsumedCapacity(String tableName) {
+        return readLimiters.containsKey(tableName) || writeLimiters.containsKey(tableName)
+            ? ReturnConsumedCapacity.TOTAL
+            : Metered.returnConsumedCapacity(metrics);
     }
 
     public <T> Optional<T> get(String tableName, AttributesMapper<T> mapper, String key, AttributeValue value) {
@@ -75,11 +257,55 @@ public class DynamoDbMapper {
     }
 
     public <T> Optional<T> get(String tableName, AttributesMapper<T> mapper, Map<String, AttributeValue> key) {
-        GetItemResponse response = client.getItem(builder -> builder
-            .tableName(namingStrategy.name(tableName))
-            .key(key));
+        String resolvedName = namingStrategy.name(tableName);
+        return getItem(tableName, resolvedName, key, Projection.get(mapper))
+            .map(item -> Metered.map(metrics, resolvedName, MapperOperation.GET, mapper, item));
+    }
 
-        return response.hasItem() ? Optional.of(mapper.map(response.item())) : Optional.empty();
+    // every read by key, by table name or through a table handle, comes here. The projection only narrows
+    // the attributes read, WHOLE_ITEM reads all of them, subclasses may read whole items anyway
+    protected Optional<Map<String, AttributeValue>> getItem(String tableName, String resolvedName,
+        Map<String, AttributeValue> key, Consumer<GetItemRequest.Builder> projection) {
+        long start = System.nanoTime();
+        GetItemResponse response = client.getItem(projection.andThen(builder -> builder
+            .tableName(resolvedName)
+            .key(key)
+            .returnConsumedCapacity(returnConsumedCapacity(tableName))));
+
+        metrics.recordLatency(resolvedName, MapperOperation.GET, System.nanoTime() - start);
+        metrics.recordItems(resolvedName, MapperOperation.GET, response.hasItem() ? 1 : 0);
+        Metered.capacity(metrics, resolvedName, MapperOperation.GET, response.consumedCapacity());
+
+        return response.hasItem() ? Optional.of(response.item()) : Optional.empty();
+    }
+
+    public <T> List<T> batchGet(String tableName, AttributesMapper<T> mapper,
+        Collection<Map<String, AttributeValue>> keys) {
+        return batchGetComplete(BatchOptions.DEFAULT, batch -> batch.keys(tableName, keys)).list(tableName, mapper);
+    }
+
+    public <T> Map<Map<String, AttributeValue>, T> batchGetMap(String tableName, AttributesMapper<T> mapper,
+        Collection<Map<String, AttributeValue>> keys) {
+        return batchGetComplete(BatchOptions.DEFAULT, batch -> batch.keys(tableName, keys)).map(tableName, mapper);
+    }
+
+    public BatchGetResult batchGet(Consumer<BatchGetBuilder> batchBuilder) {
+        return batchGet(BatchOptions.DEFAULT, batchBuilder);
+    }
+
+    public BatchGetResult batchGet(BatchOptions options, Consumer<BatchGetBuilder> batchBuilder) {
+        BatchGetBuilder batch = new BatchGetBuilder();
+        batchBuilder.accept(batch);
+        return new BatchReader(client, namingStrategy, options, metrics).read(batch.build());
+    }
+
+    private BatchGetResult batchGetComplete(BatchOptions options, Consumer<BatchGetBuilder> batchBuilder) {
+        BatchGetResult result = batchGet(options, batchBuilder);
+        if (!result.isComplete()) {
+            throw new IllegalStateException("Keys left unprocessed after " + result.getRequestCount()
+                + " requests: " + result.getUnprocessedKeys());
+        }
+        return result;
     }
 
     public <T> T save(String tableName, AttributesMapper<T> mapper, T value) {
@@ -89,15 +315,91 @@ public class DynamoDbMapper {
     public <T> T save(String tableName, AttributesMapper<T> mapper, T value,
         Consumer<PutItemRequest.Builder> saveBuilder) {
 
-        client.putItem(saveBuilder
-            .andThen(builder -> builder.tableName(namingStrategy.name(tableName)).item(mapper.map(value))));
+        String resolvedName = namingStrategy.name(tableName);
+        putItem(tableName, resolvedName, Metered.map(metrics, resolvedName, MapperOperation.SAVE, mapper, value),
+            saveBuilder);
 
         // todo: return mapper.map(response.attributes())
         return value;
     }
 
+    // every single put, by table name or through a table handle, comes here
+    protected void putItem(String tableName, String resolvedName, Map<String, AttributeValue> item,
+        Consumer<PutItemRequest.Builder> saveBuilder) {
+        putItem(resolvedName, putRequest(tableName, resolvedName, item, saveBuilder));
+    }
+
+    // runs the caller's builder once, write-behind checks the built request before sending it
+    PutItemRequest putRequest(String tableName, String resolvedName, Map<String, AttributeValue> item,
+        Consumer<PutItemRequest.Builder> saveBuilder) {
+        PutItemRequest.Builder builder = PutItemRequest.builder()
+            .returnConsumedCapacity(returnConsumedCapacity(tableName));
+        saveBuilder.accept(builder);
+        return builder.tableName(resolvedName).item(item).build();
+    }
+
+    protected void putItem(String resolvedName, PutItemRequest request) {
+        long start = System.nanoTime();
+        PutItemResponse response = client.putItem(request);
+
+        metrics.recordLatency(resolvedName, MapperOperation.SAVE, System.nanoTime() - start);
+        Metered.capacity(metrics, resolvedName, MapperOperation.SAVE, response.consumedCapacity());
+    }
+
+    // the item is read whole, so the snapshot holds every attribute the mapper writes
+    public <T> Optional<Tracked<T>> getTracked(String tableName, AttributesMapper<T> mapper,
+        Map<String, AttributeValue> key) {
+        String resolvedName = namingStrategy.name(tableName);
+        return getItem(tableName, resolvedName, key, WHOLE_ITEM).map(item -> new Tracked<>(key, Metered.map(metrics,
+            resolvedName, MapperOperation.GET, mapper, item), item));
+    }
+
+    public <T> T update(String tableName, AttributesMapper<T> mapper, Tracked<T> tracked) {
+        return update(tableName, mapper, tracked, builder -> {});
+    }
+
+    // sends nothing when no attribute changed. The update builder may add a condition with its names and values,
+    // the update expression is built from the changed attributes, so setting one is rejected, as is a value whose
+    // key attributes no longer match the tracked key.
+    public <T> T update(String tableName, AttributesMapper<T> mapper, Tracked<T> tracked,
+        Consumer<UpdateItemRequest.Builder> updateBuilder) {
+
+        Map<String, AttributeValue> current = Metered.map(metrics, namingStrategy.name(tableName),
+            MapperOperation.UPDATE, mapper, tracked.getValue());
+        ItemDiff diff = ItemDiff.of(tracked.getKey(), tracked.snapshot(), current);
+        if (!diff.isEmpty()) {
+            updateItem(tableName, tracked.getKey(), diff.apply(updateBuilder));
+        }
+        tracked.snapshot(current);
+        return tracked.getValue();
+    }
+
+    protected void updateItem(String tableName, Map<String, AttributeValue> key,
+        Consumer<UpdateItemRequest.Builder> updateBuilder) {
+
+        String resolvedName = namingStrategy.name(tableName);
+        Consumer<UpdateItemRequest.Builder> capacity = builder -> builder
+            .returnConsumedCapacity(returnConsumedCapacity(tableName));
+        long start = System.nanoTime();
+        UpdateItemResponse response = client.updateItem(capacity.andThen(updateBuilder)
+            .andThen(builder -> builder.tableName(resolvedName).key(key)));
+
+        metrics.recordLatency(resolvedName, MapperOperation.UPDATE, System.nanoTime() - start);
+        Metered.capacity(metrics, resolvedName, MapperOperation.UPDATE, response.consumedCapacity());
+    }
+
     public void delete(String tableName, Map<String, AttributeValue> key) {
-        client.deleteItem(builder -> builder.tableName(tableName).key(key));
+        deleteItem(tableName, namingStrategy.name(tableName), key);
+    }
+
+    // every delete by key, by table name or through a table handle, comes here
+    protected void deleteItem(String tableName, String resolvedName, Map<String, AttributeValue> key) {
+        long start = System.nanoTime();
+        DeleteItemResponse response = client.deleteItem(builder -> builder.tableName(resolvedName).key(key)
+            .returnConsumedCapacity(returnConsumedCapacity(tableName)));
+
+        metrics.recordLatency(resolvedName, MapperOperation.DELETE, System.nanoTime() - start);
+        Metered.capacity(metrics, resolvedName, MapperOperation.DELETE, response.consumedCapacity());
     }
 
     public void delete(String tableName,
@@ -111,30 +413,92 @@ public class DynamoDbMapper {
         delete(tableName, Map.of(key, value));
     }
 
-    public void batchSave(String tableName, Consumer<BatchBuilder> batchBuilder) {
+    // the table name is resolved once, every call through the handle reuses it, gets with a prebuilt projection
+    public <T, K> Table<T, K> table(String tableName, AttributesMapper<T> mapper,
+        String hashKey, AttributeMapper<K> hashMapper) {
+        return new Table<>(this, tableName, namingStrategy.name(tableName), mapper, hashKey, hashMapper);
+    }
+
+    public <T, K, S> SortedTable<T, K, S> table(String tableName, AttributesMapper<T> mapper,
+        String hashKey, AttributeMapper<K> hashMapper,
+        String sortKey, AttributeMapper<S> sortMapper
+    ) {
+        return new SortedTable<>(this, tableName, namingStrategy.name(tableName), mapper,
+            hashKey, hashMapper, sortKey, sortMapper);
+    }
+
+    <T> Optional<T> get(TableHandle<T> table, Map<String, AttributeValue> key) {
+        return getItem(table.getTableName(), table.getResolvedName(), key, table.getProjection())
+            .map(item -> Metered.map(metrics, table.getResolvedName(), MapperOperation.GET, table.getMapper(), item));
+    }
+
+    <T> T save(TableHandle<T> table, T value, Consumer<PutItemRequest.Builder> saveBuilder) {
+        putItem(table.getTableName(), table.getResolvedName(), Metered.map(metrics, table.getResolvedName(),
+            MapperOperation.SAVE, table.getMapper(), value), saveBuilder);
+        return value;
+    }
+
+    void delete(TableHandle<?> table, Map<String, AttributeValue> key) {
+        deleteItem(table.getTableName(), table.getResolvedName(), key);
+    }
+
+    <T> Stream<T> scan(TableHandle<T> table, Consumer<ScanRequest.Builder> requestBuilder) {
+        return scanItems(table.getTableName(), table.getResolvedName(), table.getMapper(), requestBuilder);
+    }
+
+    <T> Stream<T> query(TableHandle<T> table, Consumer<QueryRequest.Builder> requestBuilder) {
+        return queryItems(table.getTableName(), table.getResolvedName(), table.getMapper(), requestBuilder);
+    }
+
+    // a single table, so every name resolves to the handle's
+    <T> List<T> batchGet(TableHandle<T> table, Collection<Map<String, AttributeValue>> keys) {
+        BatchGetResult result = new BatchReader(client, name -> table.getResolvedName(), BatchOptions.DEFAULT,
+            metrics).read(Map.of(table.getTableName(), new LinkedHashSet<>(keys)));
+        if (!result.isComplete()) {
+            throw new IllegalStateException("Keys left unprocessed after " + result.getRequestCount()
+                + " requests: " + result.getUnprocessedKeys());
+        }
+        return result.list(table.getTableName(), table.getMapper());
+    }
+
+    public BatchWriteResult batchSave(String tableName, Consumer<BatchBuilder> batchBuilder) {
+        return batchSave(tableName, BatchOptions.DEFAULT, batchBuilder);
+    }
+
+    public BatchWriteResult batchSave(String tableName, BatchOptions options, Consumer<BatchBuilder> batchBuilder) {
         BatchBuilder batch = new BatchBuilder();
         batchBuilder.accept(batch);
         List<ValueAndMapper<?>> items = batch.build();
 
-        Builder writeItemBuilder = WriteRequest.builder().putRequest(builder -> {
-            items.forEach(valueAndMapper -> {
-                AttributesMapper<Object> mapper = (AttributesMapper<Object>) valueAndMapper.getMapper();
-                builder.item(mapper.map(valueAndMapper.getValue()));
-            });
-        });
-
-        List<WriteRequest> requests = List.of(writeItemBuilder.build());
+        String resolvedName = namingStrategy.name(tableName);
+        return batchWrite(tableName, options, items,
+            valueAndMapper -> WriteRequest.builder()
+                .putRequest(builder -> builder.item(valueAndMapper.toAttributes(metrics, resolvedName)))
+                .build());
+    }
 
-        BatchWriteItemRequest request = BatchWriteItemRequest.builder()
-            .requestItems(Map.of(tableName, requests)).build();
+    protected <E> BatchWriteResult batchWrite(String tableName, BatchOptions options, List<E> items,
+        Function<E, WriteRequest> encoder) {
 
-        client.batchWriteItem(request);
+        CapacityLimiter limiter = writeLimiters.get(tableName);
+        BatchOptions limited = limiter != null && options.getLimiter() == null
+            ? options.toBuilder().limiter(limiter).build()
+            : options;
+        return new BatchWriter(client, limited, metrics).write(namingStrategy.name(tableName), items, encoder);
     }
 
     @Data
-    private static class ValueAndMapper<T> {
+    static class ValueAndMapper<T> {
         private final T value;
         private final AttributesMapper<T> mapper;
+
+        Map<String, AttributeValue> toAttributes() {
+            return mapper.map(value);
+        }
+
+        Map<String, AttributeValue> toAttributes(MapperMetrics metrics, String tableName) {
+            return Metered.map(metrics, tableName, MapperOperation.BATCH_WRITE, mapper, value);
+        }
     }
 
     public static class BatchBuilder {
@@ -145,8 +509,26 @@ public class DynamoDbMapper {
             return this;
         }
 
-        private List<ValueAndMapper<?>> build() {
+        List<ValueAndMapper<?>> build() {
             return values;
         }
     }
+
+    public static class BatchGetBuilder {
+        private final Map<String, Set<Map<String, AttributeValue>>> keys = new LinkedHashMap<>();
+
+        public BatchGetBuilder key(String tableName, Map<String, AttributeValue> key) {
+            this.keys.computeIfAbsent(tableName, name -> new LinkedHashSet<>()).add(key);
+            return this;
+        }
+
+        public BatchGetBuilder keys(String tableName, Collection<Map<String, AttributeValue>> keys) {
+            this.keys.computeIfAbsent(tableName, name -> new LinkedHashSet<>()).addAll(keys);
+            return this;
+        }
+
+        private Map<String, Set<Map<String, AttributeValue>>> build() {
+            return keys;
+        }
+    }
 }
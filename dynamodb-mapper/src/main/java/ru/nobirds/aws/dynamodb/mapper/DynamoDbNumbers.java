@@ -0,0 +1,128 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.math.BigDecimal;
+
+// Parsing and formatting of the N type without boxing. Plain integers and short decimals are handled in place,
+// everything else (exponents, long mantissas) falls back to the JDK, so results match Long/Double.parseLong/toString.
+public final class DynamoDbNumbers {
+
+    private static final int CACHED_LONGS = 1024;
+    private static final String[] LONG_STRINGS = new String[CACHED_LONGS];
+
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final double MAX_PLAIN_DOUBLE = 1e7;
+
+    static {
+        for (int i = 0; i < CACHED_LONGS; i++) {
+            LONG_STRINGS[i] = Integer.toString(i);
+        }
+    }
+
+    private DynamoDbNumbers() {
+    }
+
+    public static long parseLong(String value) {
+        int length = value.length();
+        if (length == 0 || length > MAX_FAST_DIGITS) {
+            return parseLongSlow(value);
+        }
+
+        int index = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) {
+                throw new NumberFormatException("Not a number: " + value);
+            }
+            negative = first == '-';
+            index = 1;
+        }
+
+        long result = 0;
+        for (; index < length; index++) {
+            int digit = value.charAt(index) - '0';
+            if (digit < 0 || digit > 9) {
+                return parseLongSlow(value);
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    public static int parseInt(String value) {
+        return Math.toIntExact(parseLong(value));
+    }
+
+    public static double parseDouble(String value) {
+        int length = value.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            index = 1;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+        boolean any = false;
+        for (; index < length; index++) {
+            char c = value.charAt(index);
+            if (c >= '0' && c <= '9') {
+                if (mantissa != 0 || c != '0') {
+                    if (++digits > MAX_FAST_DIGITS) {
+                        return Double.parseDouble(value);
+                    }
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (dot) {
+                    scale++;
+                }
+                any = true;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                return Double.parseDouble(value);
+            }
+        }
+
+        if (!any || mantissa > MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(value);
+        }
+
+        // both operands are exact, so the division is correctly rounded
+        double result = scale == 0 ? (double) mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -result : result;
+    }
+
+    public static String formatLong(long value) {
+        return value >= 0 && value < CACHED_LONGS ? LONG_STRINGS[(int) value] : Long.toString(value);
+    }
+
+    public static String formatInt(int value) {
+        return formatLong(value);
+    }
+
+    public static String formatDouble(double value) {
+        if (value == (long) value && Math.abs(value) < MAX_PLAIN_DOUBLE
+            && (value != 0 || Double.doubleToRawLongBits(value) == 0)) {
+            // same text as Double.toString for integral values below 10^7
+            return formatLong((long) value) + ".0";
+        }
+        return Double.toString(value);
+    }
+
+    private static long parseLongSlow(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return new BigDecimal(value).longValueExact();
+        }
+    }
+}
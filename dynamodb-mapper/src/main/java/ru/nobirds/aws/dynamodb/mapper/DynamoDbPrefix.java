@@ -0,0 +1,18 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Same as BidirectionalMapper.withPrefix, or BidirectionalMapper.hashed when hashed is set,
+// on a String or a numeric field stored as string.
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface DynamoDbPrefix {
+
+    String value();
+
+    boolean hashed() default false;
+
+}
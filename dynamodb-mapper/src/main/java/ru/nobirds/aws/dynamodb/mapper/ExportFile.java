@@ -0,0 +1,85 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import lombok.Data;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Export layout: magic, version and flags, then ItemCodec frames prefixed with their length.
+// Gzip files hold one gzip member per checkpoint, so a resumed export can cut the file at the last checkpoint
+// and append new members. The checkpoint lives next to the export, it is removed once the scan is complete
+// and when an export starts over.
+final class ExportFile {
+
+    static final int MAGIC = 0x44444258;
+    static final byte VERSION = 1;
+    static final byte GZIP = 1;
+
+    private static final int CHECKPOINT_MAGIC = 0x44444243;
+
+    private ExportFile() {
+    }
+
+    static Path checkpointPath(Path file) {
+        return file.resolveSibling(file.getFileName() + ".checkpoint");
+    }
+
+    static Optional<Checkpoint> readCheckpoint(Path file) throws IOException {
+        Path path = checkpointPath(file);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                throw new IOException("Not an export checkpoint: " + path);
+            }
+            boolean gzip = in.readBoolean();
+            long offset = in.readLong();
+            long items = in.readLong();
+            long pages = in.readLong();
+            Map<String, AttributeValue> lastKey = ItemCodec.readItem(in);
+            return Optional.of(new Checkpoint(gzip, offset, items, pages, lastKey));
+        }
+    }
+
+    // written next to the checkpoint and moved over it, so a crash leaves either the old or the new one
+    static void writeCheckpoint(Path file, Checkpoint checkpoint) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeBoolean(checkpoint.isGzip());
+            out.writeLong(checkpoint.getOffset());
+            out.writeLong(checkpoint.getItems());
+            out.writeLong(checkpoint.getPages());
+            ItemCodec.writeItem(out, checkpoint.getLastKey());
+        }
+
+        Path path = checkpointPath(file);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, bytes.toByteArray());
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static void deleteCheckpoint(Path file) throws IOException {
+        Files.deleteIfExists(checkpointPath(file));
+    }
+
+    @Data
+    static class Checkpoint {
+        private final boolean gzip;
+        // end of the data written for the checkpointed pages
+        private final long offset;
+        private final long items;
+        private final long pages;
+        private final Map<String, AttributeValue> lastKey;
+    }
+}
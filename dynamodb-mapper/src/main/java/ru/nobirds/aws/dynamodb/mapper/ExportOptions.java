@@ -0,0 +1,29 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.function.Consumer;
+import lombok.Builder;
+import lombok.Getter;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+@Getter
+@Builder(toBuilder = true)
+public class ExportOptions {
+
+    public static final ExportOptions DEFAULT = builder().build();
+
+    @Builder.Default
+    private final boolean gzip = true;
+
+    // continue from the checkpoint of an interrupted export instead of starting over
+    @Builder.Default
+    private final boolean resume = true;
+
+    @Builder.Default
+    private final Consumer<ScanRequest.Builder> requestBuilder = builder -> {};
+
+    // when set only its attributes are exported
+    private final AttributesMapper<?> mapper;
+
+    private final CapacityLimiter limiter;
+
+}
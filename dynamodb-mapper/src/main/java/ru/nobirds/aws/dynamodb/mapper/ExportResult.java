@@ -0,0 +1,14 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import lombok.Data;
+
+@Data
+public class ExportResult {
+
+    // totals include what was exported before a resume
+    private final long itemCount;
+    private final long pageCount;
+    private final long bytes;
+    private final boolean resumed;
+
+}
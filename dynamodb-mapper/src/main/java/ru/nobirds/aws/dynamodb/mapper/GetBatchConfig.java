@@ -0,0 +1,28 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder(toBuilder = true)
+public class GetBatchConfig {
+
+    public static final GetBatchConfig DEFAULT = builder().build();
+
+    // how long the first get of a batch waits for others to join it
+    @Builder.Default
+    private final Duration window = Duration.ofMillis(2);
+
+    // distinct keys that send the batch without waiting for the window
+    @Builder.Default
+    private final int maxKeys = BatchReader.MAX_BATCH_SIZE;
+
+    @Builder.Default
+    private final BatchOptions batchOptions = BatchOptions.DEFAULT;
+
+    // sends the batches of closed windows, a cached pool of daemon threads owned by the mapper when null
+    private final Executor executor;
+
+}
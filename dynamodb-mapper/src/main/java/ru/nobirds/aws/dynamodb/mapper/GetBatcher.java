@@ -0,0 +1,141 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Collects single item reads until the window closes or maxKeys distinct keys are waiting, then reads them
+// with one batch. Callers of the same key share a future. Keys the batch leaves unprocessed are read one by one.
+// The scheduler only closes windows, the batches are sent on the executor so they do not queue behind each other.
+final class GetBatcher {
+
+    private final GetBatchConfig config;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final Function<Map<String, Set<Map<String, AttributeValue>>>, BatchGetResult> batchReader;
+    private final BiFunction<String, Map<String, AttributeValue>, Optional<Map<String, AttributeValue>>> reader;
+
+    private Map<String, TableKeys> pending = new LinkedHashMap<>();
+    private int pendingKeys;
+    private long generation;
+
+    GetBatcher(GetBatchConfig config, ScheduledExecutorService scheduler, Executor executor,
+        Function<Map<String, Set<Map<String, AttributeValue>>>, BatchGetResult> batchReader,
+        BiFunction<String, Map<String, AttributeValue>, Optional<Map<String, AttributeValue>>> reader) {
+        this.config = config;
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.batchReader = batchReader;
+        this.reader = reader;
+    }
+
+    CompletableFuture<Optional<Map<String, AttributeValue>>> get(String tableName, Map<String, AttributeValue> key) {
+        CompletableFuture<Optional<Map<String, AttributeValue>>> future;
+        Map<String, TableKeys> full = null;
+
+        synchronized (this) {
+            TableKeys tableKeys = pending.computeIfAbsent(tableName, name -> new TableKeys());
+            future = tableKeys.get(key);
+            if (future != null) {
+                return future;
+            }
+
+            future = new CompletableFuture<>();
+            tableKeys.put(key, future);
+            pendingKeys++;
+
+            if (pendingKeys >= config.getMaxKeys()) {
+                full = take();
+            } else if (pendingKeys == 1) {
+                long current = generation;
+                try {
+                    scheduler.schedule(() -> flush(current), config.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+                } catch (RuntimeException e) {
+                    // nothing would ever send the batch, later callers of the key must not join its future
+                    fail(take(), e);
+                    throw e;
+                }
+            }
+        }
+
+        // the caller that fills the batch sends it instead of waiting for the scheduler
+        if (full != null) {
+            read(full);
+        }
+        return future;
+    }
+
+    private void flush(long expectedGeneration) {
+        Map<String, TableKeys> batch;
+        synchronized (this) {
+            // the batch this timer was started for has already been sent by a full batch
+            if (generation != expectedGeneration || pendingKeys == 0) {
+                return;
+            }
+            batch = take();
+        }
+
+        try {
+            executor.execute(() -> read(batch));
+        } catch (RejectedExecutionException e) {
+            fail(batch, e);
+        }
+    }
+
+    private Map<String, TableKeys> take() {
+        Map<String, TableKeys> batch = pending;
+        pending = new LinkedHashMap<>();
+        pendingKeys = 0;
+        generation++;
+        return batch;
+    }
+
+    private void read(Map<String, TableKeys> batch) {
+        try {
+            Map<String, Set<Map<String, AttributeValue>>> keys = new LinkedHashMap<>();
+            batch.forEach((tableName, futures) -> keys.put(tableName, futures.keySet()));
+            BatchGetResult result = batchReader.apply(keys);
+
+            batch.forEach((tableName, futures) -> {
+                List<Map<String, AttributeValue>> unprocessed =
+                    result.getUnprocessedKeys().getOrDefault(tableName, List.of());
+                futures.forEach((key, future) -> {
+                    if (!unprocessed.contains(key)) {
+                        future.complete(result.item(tableName, key));
+                    }
+                });
+                for (Map<String, AttributeValue> key : unprocessed) {
+                    CompletableFuture<Optional<Map<String, AttributeValue>>> future = futures.get(key);
+                    if (future != null) {
+                        try {
+                            future.complete(reader.apply(tableName, key));
+                        } catch (RuntimeException | Error e) {
+                            future.completeExceptionally(e);
+                        }
+                    }
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            // callers are blocked in join(), they have to see errors as well
+            fail(batch, e);
+        }
+    }
+
+    private static void fail(Map<String, TableKeys> batch, Throwable e) {
+        batch.values().forEach(futures -> futures.values().forEach(future -> future.completeExceptionally(e)));
+    }
+
+    private static class TableKeys
+        extends LinkedHashMap<Map<String, AttributeValue>, CompletableFuture<Optional<Map<String, AttributeValue>>>> {
+    }
+}
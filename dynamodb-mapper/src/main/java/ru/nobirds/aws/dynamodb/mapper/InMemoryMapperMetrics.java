@@ -0,0 +1,101 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+// Keeps histograms per table and operation in memory. Recording only allocates the first time a table is seen.
+public class InMemoryMapperMetrics implements MapperMetrics {
+
+    private static final MapperOperation[] OPERATIONS = MapperOperation.values();
+
+    private final boolean consumedCapacity;
+    private final Map<String, OperationMetrics[]> tables = new ConcurrentHashMap<>();
+
+    public InMemoryMapperMetrics() {
+        this(true);
+    }
+
+    public InMemoryMapperMetrics(boolean consumedCapacity) {
+        this.consumedCapacity = consumedCapacity;
+    }
+
+    @Override
+    public boolean consumedCapacity() {
+        return consumedCapacity;
+    }
+
+    @Override
+    public void recordLatency(String tableName, MapperOperation operation, long nanos) {
+        metrics(tableName, operation).latency.record(nanos);
+    }
+
+    @Override
+    public void recordCapacity(String tableName, MapperOperation operation, double capacityUnits) {
+        metrics(tableName, operation).capacityUnits.add(capacityUnits);
+    }
+
+    @Override
+    public void recordItems(String tableName, MapperOperation operation, int count) {
+        metrics(tableName, operation).items.record(count);
+    }
+
+    @Override
+    public void recordMapping(String tableName, MapperOperation operation, long nanos) {
+        metrics(tableName, operation).mapping.record(nanos);
+    }
+
+    @Override
+    public void recordFailures(String tableName, MapperOperation operation, int count) {
+        metrics(tableName, operation).failures.add(count);
+    }
+
+    public Set<String> tables() {
+        return Set.copyOf(tables.keySet());
+    }
+
+    public OperationMetrics metrics(String tableName, MapperOperation operation) {
+        OperationMetrics[] operations = tables.get(tableName);
+        if (operations == null) {
+            operations = tables.computeIfAbsent(tableName, name -> newOperations());
+        }
+        return operations[operation.ordinal()];
+    }
+
+    public void reset() {
+        tables.clear();
+    }
+
+    private static OperationMetrics[] newOperations() {
+        OperationMetrics[] operations = new OperationMetrics[OPERATIONS.length];
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = new OperationMetrics();
+        }
+        return operations;
+    }
+
+    @Getter
+    public static class OperationMetrics {
+
+        private final Histogram items = new Histogram();
+        // nanoseconds
+        private final Histogram latency = new Histogram();
+        private final Histogram mapping = new Histogram();
+        @Getter(AccessLevel.NONE)
+        private final DoubleAdder capacityUnits = new DoubleAdder();
+        @Getter(AccessLevel.NONE)
+        private final LongAdder failures = new LongAdder();
+
+        public double getConsumedCapacity() {
+            return capacityUnits.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+    }
+}
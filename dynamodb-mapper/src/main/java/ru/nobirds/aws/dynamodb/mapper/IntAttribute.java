@@ -0,0 +1,43 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+import lombok.Data;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+@Data
+public class IntAttribute<R> implements Attribute<R> {
+
+    private final String name;
+    private final ToIntFunction<R> getter;
+    private final ObjIntConsumer<R> setter;
+    private final IntAttributeMapper mapper;
+
+    @Override
+    public void writeFromMapToInstance(Map<String, AttributeValue> attributeValues, R instance) {
+        AttributeValue attributeValue = attributeValues.get(name);
+        // a missing or null number leaves the field untouched
+        if (attributeValue != null && attributeValue.n() != null) {
+            setter.accept(instance, mapper.readInt(attributeValue));
+        }
+    }
+
+    @Override
+    public void writeFromInstanceToMap(R instance, Map<String, AttributeValue> result) {
+        result.put(name, mapper.writeInt(getter.applyAsInt(instance)));
+    }
+
+    @Override
+    public long size(R instance) {
+        return ItemSize.utf8(name) + ItemSize.number(getter.applyAsInt(instance));
+    }
+
+    @Override
+    public Optional<Set<String>> attributeNames() {
+        return Optional.of(Set.of(name));
+    }
+
+}
@@ -0,0 +1,22 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+public interface IntAttributeMapper extends AttributeMapper<Integer> {
+
+    // attributeValue is not null and holds a number
+    int readInt(AttributeValue attributeValue);
+
+    AttributeValue writeInt(int value);
+
+    @Override
+    default Integer map(AttributeValue attributeValue) {
+        return (attributeValue == null || attributeValue.n() == null) ? null : readInt(attributeValue);
+    }
+
+    @Override
+    default AttributeValue map(Integer value) {
+        return (value == null) ? AttributeValues.NULL : writeInt(value);
+    }
+
+}
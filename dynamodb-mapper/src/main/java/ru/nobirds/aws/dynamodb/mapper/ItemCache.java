@@ -0,0 +1,179 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Caches raw items by primary key, so that cached entities are never shared between callers.
+public class ItemCache {
+
+    private final CacheConfig config;
+    private final long ttlNanos;
+    private final LinkedHashMap<Map<String, AttributeValue>, Entry> entries;
+    private final FrequencySketch sketch;
+    private final Map<Map<String, AttributeValue>, CompletableFuture<Optional<Map<String, AttributeValue>>>> loading =
+        new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // loaded items not admitted because the eldest entry is used more often
+    private final LongAdder rejections = new LongAdder();
+
+    // learned from the first lookup, there is nothing to invalidate before it
+    private volatile Set<String> keyNames;
+
+    public ItemCache(CacheConfig config) {
+        this.config = config;
+        this.ttlNanos = config.getTtl().toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.sketch = config.getPolicy() == CachePolicy.TINY_LFU ? new FrequencySketch(config.getMaxEntries()) : null;
+    }
+
+    public Optional<Map<String, AttributeValue>> get(Map<String, AttributeValue> key,
+        Function<Map<String, AttributeValue>, Optional<Map<String, AttributeValue>>> loader) {
+
+        if (keyNames == null) {
+            keyNames = Set.copyOf(key.keySet());
+        }
+
+        Entry entry = lookup(key);
+        if (entry != null) {
+            hits.increment();
+            return Optional.ofNullable(entry.item);
+        }
+        misses.increment();
+
+        CompletableFuture<Optional<Map<String, AttributeValue>>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<Map<String, AttributeValue>>> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw Parallel.unwrap(e);
+            }
+        }
+
+        try {
+            loads.increment();
+            Optional<Map<String, AttributeValue>> item = loader.apply(key);
+            synchronized (this) {
+                // an invalidation during the load drops the future, the loaded value may be stale then
+                if (loading.remove(key, future) && (item.isPresent() || config.isCacheMissing())) {
+                    store(Map.copyOf(key), item.orElse(null));
+                }
+            }
+            future.complete(item);
+            return item;
+        } catch (RuntimeException | Error e) {
+            loading.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void refresh(Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> key = keyOf(item);
+        if (key != null) {
+            synchronized (this) {
+                loading.remove(key);
+                store(key, item);
+            }
+        }
+    }
+
+    public void invalidateItem(Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> key = keyOf(item);
+        if (key != null) {
+            invalidate(key);
+        }
+    }
+
+    public synchronized void invalidate(Map<String, AttributeValue> key) {
+        loading.remove(key);
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        loading.clear();
+        entries.clear();
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), loads.sum(), evictions.sum(), rejections.sum(), size);
+    }
+
+    private Map<String, AttributeValue> keyOf(Map<String, AttributeValue> item) {
+        Set<String> names = keyNames;
+        if (names == null) {
+            return null;
+        }
+
+        Map<String, AttributeValue> key = new LinkedHashMap<>(names.size() * 2);
+        for (String name : names) {
+            AttributeValue value = item.get(name);
+            if (value == null) {
+                return null;
+            }
+            key.put(name, value);
+        }
+        return key;
+    }
+
+    private synchronized Entry lookup(Map<String, AttributeValue> key) {
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private void store(Map<String, AttributeValue> key, Map<String, AttributeValue> item) {
+        if (config.getMaxEntries() <= 0) {
+            return;
+        }
+
+        Entry entry = new Entry(item, System.nanoTime() + ttlNanos);
+
+        if (entries.containsKey(key) || entries.size() < config.getMaxEntries()) {
+            entries.put(key, entry);
+            return;
+        }
+
+        Iterator<Map.Entry<Map<String, AttributeValue>, Entry>> eldest = entries.entrySet().iterator();
+        Map<String, AttributeValue> victim = eldest.next().getKey();
+        if (sketch != null && sketch.frequency(key) <= sketch.frequency(victim)) {
+            rejections.increment();
+            return;
+        }
+
+        eldest.remove();
+        evictions.increment();
+        entries.put(key, entry);
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final Map<String, AttributeValue> item;
+        private final long expiresAt;
+    }
+}
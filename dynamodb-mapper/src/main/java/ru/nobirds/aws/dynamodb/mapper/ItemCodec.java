@@ -0,0 +1,166 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Compact binary form of items: a type tag per value, lengths as ints and strings as UTF-8 bytes.
+final class ItemCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte NUMBER = 2;
+    private static final byte BINARY = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte MAP = 5;
+    private static final byte LIST = 6;
+    private static final byte STRING_SET = 7;
+    private static final byte NUMBER_SET = 8;
+    private static final byte BINARY_SET = 9;
+
+    private ItemCodec() {
+    }
+
+    static void writeItem(DataOutput out, Map<String, AttributeValue> item) throws IOException {
+        out.writeInt(item.size());
+        for (Map.Entry<String, AttributeValue> entry : item.entrySet()) {
+            writeString(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    static Map<String, AttributeValue> readItem(DataInput in) throws IOException {
+        int size = in.readInt();
+        Map<String, AttributeValue> item = new LinkedHashMap<>(Math.max(16, size * 2));
+        for (int i = 0; i < size; i++) {
+            item.put(readString(in), readValue(in));
+        }
+        return item;
+    }
+
+    static void writeValue(DataOutput out, AttributeValue value) throws IOException {
+        if (value.s() != null) {
+            out.writeByte(STRING);
+            writeString(out, value.s());
+        } else if (value.n() != null) {
+            out.writeByte(NUMBER);
+            writeString(out, value.n());
+        } else if (value.b() != null) {
+            out.writeByte(BINARY);
+            writeBytes(out, value.b());
+        } else if (value.bool() != null) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(value.bool());
+        } else if (value.hasM()) {
+            out.writeByte(MAP);
+            writeItem(out, value.m());
+        } else if (value.hasL()) {
+            out.writeByte(LIST);
+            out.writeInt(value.l().size());
+            for (AttributeValue element : value.l()) {
+                writeValue(out, element);
+            }
+        } else if (value.hasSs()) {
+            out.writeByte(STRING_SET);
+            writeStrings(out, value.ss());
+        } else if (value.hasNs()) {
+            out.writeByte(NUMBER_SET);
+            writeStrings(out, value.ns());
+        } else if (value.hasBs()) {
+            out.writeByte(BINARY_SET);
+            out.writeInt(value.bs().size());
+            for (SdkBytes bytes : value.bs()) {
+                writeBytes(out, bytes);
+            }
+        } else {
+            out.writeByte(NULL);
+        }
+    }
+
+    static AttributeValue readValue(DataInput in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return AttributeValues.NULL;
+            case STRING:
+                return AttributeValue.builder().s(readString(in)).build();
+            case NUMBER:
+                return AttributeValue.builder().n(readString(in)).build();
+            case BINARY:
+                return AttributeValue.builder().b(readBytes(in)).build();
+            case BOOLEAN:
+                return AttributeValues.bool(in.readBoolean());
+            case MAP:
+                return AttributeValue.builder().m(readItem(in)).build();
+            case LIST: {
+                int size = in.readInt();
+                List<AttributeValue> values = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    values.add(readValue(in));
+                }
+                return AttributeValue.builder().l(values).build();
+            }
+            case STRING_SET:
+                return AttributeValue.builder().ss(readStrings(in)).build();
+            case NUMBER_SET:
+                return AttributeValue.builder().ns(readStrings(in)).build();
+            case BINARY_SET: {
+                int size = in.readInt();
+                List<SdkBytes> values = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    values.add(readBytes(in));
+                }
+                return AttributeValue.builder().bs(values).build();
+            }
+            default:
+                throw new IOException("Unknown attribute type " + type);
+        }
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutput out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInput in) throws IOException {
+        int size = in.readInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeBytes(DataOutput out, SdkBytes value) throws IOException {
+        byte[] bytes = value.asByteArrayUnsafe();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static SdkBytes readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return SdkBytes.fromByteArrayUnsafe(bytes);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+// UpdateExpression for the attributes that changed between two encodings of an item. Null and missing
+// attributes are the same thing here, an attribute that became null is removed. Key attributes are never part
+// of the update, a changed key is rejected, and attributes the mapper does not write are left alone.
+final class ItemDiff {
+
+    private static final String NAME = "#u";
+    private static final String VALUE = ":u";
+
+    private final Map<String, AttributeValue> set = new HashMap<>();
+    private final Set<String> remove = new HashSet<>();
+
+    private ItemDiff() {
+    }
+
+    static ItemDiff of(Map<String, AttributeValue> key, Map<String, AttributeValue> snapshot,
+        Map<String, AttributeValue> current) {
+
+        ItemDiff diff = new ItemDiff();
+        current.forEach((name, value) -> {
+            if (key.containsKey(name)) {
+                // the update would go to the old key
+                if (!value.equals(key.get(name))) {
+                    throw new IllegalArgumentException("Key attribute " + name + " of a tracked value changed from "
+                        + key.get(name) + " to " + value);
+                }
+                return;
+            }
+            AttributeValue previous = snapshot.get(name);
+            boolean wasNull = previous == null || isNull(previous);
+            if (isNull(value)) {
+                if (!wasNull) {
+                    diff.remove.add(name);
+                }
+            } else if (wasNull || !value.equals(previous)) {
+                diff.set.put(name, value);
+            }
+        });
+        return diff;
+    }
+
+    boolean isEmpty() {
+        return set.isEmpty() && remove.isEmpty();
+    }
+
+    int size() {
+        return set.size() + remove.size();
+    }
+
+    // names and values of the request builder are kept, a condition may refer to them. The update expression is
+    // the diff's own, one set by the request builder is rejected.
+    Consumer<UpdateItemRequest.Builder> apply(Consumer<UpdateItemRequest.Builder> requestBuilder) {
+        return builder -> {
+            requestBuilder.accept(builder);
+            UpdateItemRequest request = builder.build();
+            if (request.updateExpression() != null) {
+                throw new IllegalArgumentException("Update expression is built from the changed attributes, "
+                    + "the request builder must not set one: " + request.updateExpression());
+            }
+            apply(builder, request);
+        };
+    }
+
+    private void apply(UpdateItemRequest.Builder builder, UpdateItemRequest request) {
+        Map<String, String> names = new HashMap<>(request.expressionAttributeNames());
+        Map<String, AttributeValue> values = new HashMap<>(request.expressionAttributeValues());
+        int[] index = {0};
+
+        StringJoiner setClause = new StringJoiner(", ", "SET ", "").setEmptyValue("");
+        set.forEach((name, value) -> {
+            int current = nextIndex(index, names, values);
+            names.put(NAME + current, name);
+            values.put(VALUE + current, value);
+            setClause.add(NAME + current + " = " + VALUE + current);
+        });
+
+        StringJoiner removeClause = new StringJoiner(", ", "REMOVE ", "").setEmptyValue("");
+        remove.forEach(name -> {
+            int current = nextIndex(index, names, values);
+            names.put(NAME + current, name);
+            removeClause.add(NAME + current);
+        });
+
+        String expression = (setClause + " " + removeClause).trim();
+        builder
+            .updateExpression(expression)
+            .expressionAttributeNames(names)
+            .expressionAttributeValues(values.isEmpty() ? null : values);
+    }
+
+    private static int nextIndex(int[] index, Map<String, String> names, Map<String, AttributeValue> values) {
+        int current = index[0]++;
+        while (names.containsKey(NAME + current) || values.containsKey(VALUE + current)) {
+            current = index[0]++;
+        }
+        return current;
+    }
+
+    private static boolean isNull(AttributeValue value) {
+        return Boolean.TRUE.equals(value.nul());
+    }
+}
@@ -0,0 +1,187 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+// Item size the way DynamoDB bills it: UTF-8 names and strings, numbers by their digits,
+// a few bytes of overhead for documents. Capacity units are estimates for standard tables, without the extra
+// units of transactions or the index writes an item causes.
+public final class ItemSize {
+
+    public static final int MAX_ITEM_BYTES = 400 * 1024;
+    public static final int WRITE_UNIT_BYTES = 1024;
+    public static final int READ_UNIT_BYTES = 4 * 1024;
+
+    // overhead of an M or L value and of each of its entries
+    static final int DOCUMENT_BYTES = 3;
+    static final int ELEMENT_BYTES = 1;
+
+    private ItemSize() {
+    }
+
+    // computed without building the attribute map when the mapper supports it, see AttributesMapper.size
+    public static <T> long bytes(T value, AttributesMapper<T> mapper) {
+        return mapper.size(value);
+    }
+
+    public static void requireWithinLimit(Map<String, AttributeValue> item) {
+        long size = bytes(item);
+        if (size > MAX_ITEM_BYTES) {
+            throw new IllegalArgumentException("Item of " + size + " bytes exceeds the limit of " + MAX_ITEM_BYTES
+                + " bytes");
+        }
+    }
+
+    // put and delete of an item, a delete is billed for the size of the item it removes
+    public static double writeUnits(Map<String, AttributeValue> item) {
+        return units(bytes(item), WRITE_UNIT_BYTES);
+    }
+
+    public static <T> double writeUnits(T value, AttributesMapper<T> mapper) {
+        return units(mapper.size(value), WRITE_UNIT_BYTES);
+    }
+
+    // get of an item, eventually consistent reads cost half
+    public static double readUnits(Map<String, AttributeValue> item, boolean consistent) {
+        return readUnits(bytes(item), consistent);
+    }
+
+    // query and scan pages are billed for the total size of the items they read, not per item
+    public static double readUnits(Collection<Map<String, AttributeValue>> items, boolean consistent) {
+        long size = 0;
+        for (Map<String, AttributeValue> item : items) {
+            size += bytes(item);
+        }
+        return readUnits(size, consistent);
+    }
+
+    public static double readUnits(long bytes, boolean consistent) {
+        double units = units(bytes, READ_UNIT_BYTES);
+        return consistent ? units : units / 2;
+    }
+
+    private static double units(long bytes, int unitBytes) {
+        return Math.max(1, (bytes + unitBytes - 1) / unitBytes);
+    }
+
+    public static long bytes(Map<String, AttributeValue> item) {
+        long size = 0;
+        for (Map.Entry<String, AttributeValue> entry : item.entrySet()) {
+            size += utf8(entry.getKey()) + bytes(entry.getValue());
+        }
+        return size;
+    }
+
+    public static long bytes(AttributeValue value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value.s() != null) {
+            return utf8(value.s());
+        }
+        if (value.n() != null) {
+            return number(value.n());
+        }
+        if (value.b() != null) {
+            return value.b().asByteArrayUnsafe().length;
+        }
+        if (value.bool() != null || value.nul() != null) {
+            return 1;
+        }
+        if (value.hasM()) {
+            long size = DOCUMENT_BYTES;
+            for (Map.Entry<String, AttributeValue> entry : value.m().entrySet()) {
+                size += ELEMENT_BYTES + utf8(entry.getKey()) + bytes(entry.getValue());
+            }
+            return size;
+        }
+        if (value.hasL()) {
+            long size = DOCUMENT_BYTES;
+            for (AttributeValue element : value.l()) {
+                size += ELEMENT_BYTES + bytes(element);
+            }
+            return size;
+        }
+        if (value.hasSs()) {
+            return strings(value.ss());
+        }
+        if (value.hasNs()) {
+            long size = 0;
+            for (String number : value.ns()) {
+                size += number(number);
+            }
+            return size;
+        }
+        if (value.hasBs()) {
+            long size = 0;
+            for (SdkBytes bytes : value.bs()) {
+                size += bytes.asByteArrayUnsafe().length;
+            }
+            return size;
+        }
+        return 0;
+    }
+
+    static double writeUnits(WriteRequest request) {
+        if (request.putRequest() == null) {
+            return 1;
+        }
+        return writeUnits(request.putRequest().item());
+    }
+
+    static double writeUnits(List<WriteRequest> requests) {
+        double units = 0;
+        for (WriteRequest request : requests) {
+            units += writeUnits(request);
+        }
+        return units;
+    }
+
+    private static long strings(List<String> values) {
+        long size = 0;
+        for (String value : values) {
+            size += utf8(value);
+        }
+        return size;
+    }
+
+    private static long number(String value) {
+        return (value.length() + 1) / 2 + 1;
+    }
+
+    // same as number(DynamoDbNumbers.formatDouble(value)), only the text is built
+    static long number(double value) {
+        return number(DynamoDbNumbers.formatDouble(value));
+    }
+
+    // same as number(Long.toString(value)) without creating the string
+    static long number(long value) {
+        int length = value < 0 ? 2 : 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            length++;
+        }
+        return (length + 1) / 2 + 1;
+    }
+
+    static long utf8(String value) {
+        long size = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                size += 1;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                size += 4;
+                i++;
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+}
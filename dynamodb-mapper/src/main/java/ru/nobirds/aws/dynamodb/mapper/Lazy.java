@@ -0,0 +1,71 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Nested object decoded on first access. Until then the raw attributes are kept and written back as they are.
+public final class Lazy<T> implements Supplier<T> {
+
+    private AttributesMapper<T> mapper;
+    private Map<String, AttributeValue> attributes;
+    private T value;
+
+    private Lazy(AttributesMapper<T> mapper, Map<String, AttributeValue> attributes, T value) {
+        this.mapper = mapper;
+        this.attributes = attributes;
+        this.value = value;
+    }
+
+    public static <T> Lazy<T> of(T value) {
+        return new Lazy<>(null, null, value);
+    }
+
+    static <T> Lazy<T> decoding(AttributesMapper<T> mapper, Map<String, AttributeValue> attributes) {
+        return new Lazy<>(mapper, attributes, null);
+    }
+
+    @Override
+    public synchronized T get() {
+        if (attributes != null) {
+            value = mapper.map(attributes);
+            attributes = null;
+            mapper = null;
+        }
+        return value;
+    }
+
+    public synchronized boolean isDecoded() {
+        return attributes == null;
+    }
+
+    synchronized Map<String, AttributeValue> toAttributes(AttributesMapper<T> writer) {
+        // the decoded value may have been changed by the caller, so only untouched attributes are reused
+        if (attributes != null) {
+            return attributes;
+        }
+        return value == null ? null : writer.map(value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Lazy)) {
+            return false;
+        }
+        return Objects.equals(get(), ((Lazy<?>) o).get());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(get());
+    }
+
+    @Override
+    public String toString() {
+        return isDecoded() ? "Lazy(" + get() + ")" : "Lazy(undecoded)";
+    }
+}
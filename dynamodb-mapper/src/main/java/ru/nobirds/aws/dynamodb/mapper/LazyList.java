@@ -0,0 +1,57 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Read-only list decoding each element on first access and keeping the result.
+public final class LazyList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final List<AttributeValue> values;
+    private final AttributeMapper<T> mapper;
+    private final Object[] decoded;
+    private final boolean[] done;
+    private int decodedCount;
+
+    LazyList(List<AttributeValue> values, AttributeMapper<T> mapper) {
+        this.values = values;
+        this.mapper = mapper;
+        this.decoded = new Object[values.size()];
+        this.done = new boolean[values.size()];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized T get(int index) {
+        if (!done[index]) {
+            decoded[index] = mapper.map(values.get(index));
+            done[index] = true;
+            decodedCount++;
+        }
+        return (T) decoded[index];
+    }
+
+    @Override
+    public int size() {
+        return decoded.length;
+    }
+
+    public synchronized int decodedCount() {
+        return decodedCount;
+    }
+
+    // elements never handed out are written from the raw values, decoded ones may have been changed
+    @SuppressWarnings("unchecked")
+    synchronized List<AttributeValue> toAttributeValues(AttributeMapper<T> writer) {
+        if (decodedCount == 0) {
+            return values;
+        }
+        List<AttributeValue> result = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            result.add(done[i] ? writer.map((T) decoded[i]) : values.get(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+public interface LongAttributeMapper extends AttributeMapper<Long> {
+
+    // attributeValue is not null and holds a number
+    long readLong(AttributeValue attributeValue);
+
+    AttributeValue writeLong(long value);
+
+    @Override
+    default Long map(AttributeValue attributeValue) {
+        return (attributeValue == null || attributeValue.n() == null) ? null : readLong(attributeValue);
+    }
+
+    @Override
+    default AttributeValue map(Long value) {
+        return (value == null) ? AttributeValues.NULL : writeLong(value);
+    }
+
+}
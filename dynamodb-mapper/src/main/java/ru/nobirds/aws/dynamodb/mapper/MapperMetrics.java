@@ -0,0 +1,33 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+// Called on the request path with primitive arguments only, implementations should not allocate or block.
+// Table names are the resolved ones, as sent to DynamoDB.
+public interface MapperMetrics {
+
+    MapperMetrics NOOP = new MapperMetrics() {
+    };
+
+    // when true requests are sent with ReturnConsumedCapacity.TOTAL
+    default boolean consumedCapacity() {
+        return false;
+    }
+
+    // round trip of a single request, one per page for query and scan
+    default void recordLatency(String tableName, MapperOperation operation, long nanos) {
+    }
+
+    default void recordCapacity(String tableName, MapperOperation operation, double capacityUnits) {
+    }
+
+    // items returned by a page or a get, items sent by a batch request
+    default void recordItems(String tableName, MapperOperation operation, int count) {
+    }
+
+    // time spent in AttributesMapper.map for a single item
+    default void recordMapping(String tableName, MapperOperation operation, long nanos) {
+    }
+
+    // writes that were accepted but failed later, such as buffered writes of a failed background flush
+    default void recordFailures(String tableName, MapperOperation operation, int count) {
+    }
+}
@@ -0,0 +1,5 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+public enum MapperOperation {
+    GET, SAVE, DELETE, QUERY, SCAN, BATCH_GET, BATCH_WRITE, UPDATE
+}
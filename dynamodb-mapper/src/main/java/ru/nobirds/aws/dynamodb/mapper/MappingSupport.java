@@ -0,0 +1,156 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Static conversions used by generated mappers, they behave like the matching AttributeMappers constants.
+public final class MappingSupport {
+
+    public static final AttributeValue NULL = AttributeValues.NULL;
+
+    private MappingSupport() {
+    }
+
+    public static String readString(AttributeValue value) {
+        return value == null ? null : value.s();
+    }
+
+    public static AttributeValue writeString(String value) {
+        return value == null ? NULL : AttributeValue.builder().s(value).build();
+    }
+
+    public static boolean hasNumber(AttributeValue value) {
+        return value != null && value.n() != null;
+    }
+
+    public static Long readLong(AttributeValue value) {
+        return hasNumber(value) ? AttributeMappers.LONG.readLong(value) : null;
+    }
+
+    // value must hold a number, see hasNumber
+    public static long readLongValue(AttributeValue value) {
+        return AttributeMappers.LONG.readLong(value);
+    }
+
+    public static AttributeValue writeLong(Long value) {
+        return value == null ? NULL : AttributeMappers.LONG.writeLong(value);
+    }
+
+    public static AttributeValue writeLong(long value) {
+        return AttributeMappers.LONG.writeLong(value);
+    }
+
+    public static Integer readInteger(AttributeValue value) {
+        return hasNumber(value) ? AttributeMappers.INT.readInt(value) : null;
+    }
+
+    public static int readIntegerValue(AttributeValue value) {
+        return AttributeMappers.INT.readInt(value);
+    }
+
+    public static AttributeValue writeInteger(Integer value) {
+        return value == null ? NULL : AttributeMappers.INT.writeInt(value);
+    }
+
+    public static AttributeValue writeInteger(int value) {
+        return AttributeMappers.INT.writeInt(value);
+    }
+
+    public static Double readDouble(AttributeValue value) {
+        return hasNumber(value) ? AttributeMappers.DOUBLE.readDouble(value) : null;
+    }
+
+    public static double readDoubleValue(AttributeValue value) {
+        return AttributeMappers.DOUBLE.readDouble(value);
+    }
+
+    public static AttributeValue writeDouble(Double value) {
+        return value == null ? NULL : AttributeMappers.DOUBLE.writeDouble(value);
+    }
+
+    public static AttributeValue writeDouble(double value) {
+        return AttributeMappers.DOUBLE.writeDouble(value);
+    }
+
+    public static Boolean readBoolean(AttributeValue value) {
+        return value == null ? null : value.bool();
+    }
+
+    public static AttributeValue writeBoolean(Boolean value) {
+        return value == null ? NULL : AttributeValues.bool(value);
+    }
+
+    public static LocalDate readDate(AttributeValue value) {
+        String string = readString(value);
+        return string == null ? null : LocalDate.parse(string);
+    }
+
+    public static AttributeValue writeDate(LocalDate value) {
+        return value == null ? NULL : writeString(value.toString());
+    }
+
+    public static Instant readInstant(AttributeValue value) {
+        String string = readString(value);
+        return string == null ? null : Instant.parse(string);
+    }
+
+    public static AttributeValue writeInstant(Instant value) {
+        return value == null ? NULL : writeString(value.toString());
+    }
+
+    public static <T extends Enum<T>> T readEnum(AttributeValue value, Class<T> enumType) {
+        String string = readString(value);
+        return string == null ? null : Enum.valueOf(enumType, string);
+    }
+
+    public static AttributeValue writeEnum(Enum<?> value) {
+        return value == null ? NULL : AttributeValues.enumeration(value);
+    }
+
+    public static String readPrefixed(AttributeValue value, String prefix) {
+        String string = readString(value);
+        if (string == null) {
+            return null;
+        }
+
+        int index = string.indexOf(prefix);
+        return index > -1 ? string.substring(index + prefix.length()) : string;
+    }
+
+    public static AttributeValue writePrefixed(String value, String prefix) {
+        return value == null ? NULL : writeString(prefix + value);
+    }
+
+    public static Long readPrefixedLong(AttributeValue value, String prefix) {
+        String string = readPrefixed(value, prefix);
+        return string == null ? null : Long.parseLong(string);
+    }
+
+    public static AttributeValue writePrefixedLong(Long value, String prefix) {
+        return value == null ? NULL : writeString(prefix + value);
+    }
+
+    public static <T> T readObject(AttributeValue value, AttributesMapper<T> mapper) {
+        return value != null && value.hasM() ? mapper.map(value.m()) : null;
+    }
+
+    public static <T> AttributeValue writeObject(T value, AttributesMapper<T> mapper) {
+        return value == null ? NULL : AttributeValue.builder().m(mapper.map(value)).build();
+    }
+
+    public static List<AttributeValue> readList(AttributeValue value) {
+        return value != null && value.hasL() ? value.l() : null;
+    }
+
+    public static AttributeValue writeList(List<AttributeValue> values) {
+        return values == null ? NULL : AttributeValue.builder().l(values).build();
+    }
+
+    public static Map<String, AttributeValue> readMap(AttributeValue value) {
+        return value != null && value.hasM() ? value.m() : null;
+    }
+
+}
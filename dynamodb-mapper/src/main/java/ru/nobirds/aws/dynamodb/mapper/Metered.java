@@ -0,0 +1,92 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+
+// Glue between requests and MapperMetrics.
+final class Metered {
+
+    private Metered() {
+    }
+
+    // null leaves the request default, set before the caller's builder so an explicit choice wins
+    static ReturnConsumedCapacity returnConsumedCapacity(MapperMetrics metrics) {
+        return metrics.consumedCapacity() ? ReturnConsumedCapacity.TOTAL : null;
+    }
+
+    static void capacity(MapperMetrics metrics, String tableName, MapperOperation operation,
+        ConsumedCapacity capacity) {
+        if (capacity != null && capacity.capacityUnits() != null) {
+            metrics.recordCapacity(tableName, operation, capacity.capacityUnits());
+        }
+    }
+
+    static void capacity(MapperMetrics metrics, MapperOperation operation, List<ConsumedCapacity> capacities) {
+        for (int i = 0; i < capacities.size(); i++) {
+            ConsumedCapacity capacity = capacities.get(i);
+            capacity(metrics, capacity.tableName(), operation, capacity);
+        }
+    }
+
+    static <T> T map(MapperMetrics metrics, String tableName, MapperOperation operation,
+        AttributesMapper<T> mapper, Map<String, AttributeValue> item) {
+        long start = System.nanoTime();
+        T value = mapper.map(item);
+        metrics.recordMapping(tableName, operation, System.nanoTime() - start);
+        return value;
+    }
+
+    static <T> Map<String, AttributeValue> map(MapperMetrics metrics, String tableName, MapperOperation operation,
+        AttributesMapper<T> mapper, T value) {
+        long start = System.nanoTime();
+        Map<String, AttributeValue> item = mapper.map(value);
+        metrics.recordMapping(tableName, operation, System.nanoTime() - start);
+        return item;
+    }
+
+    static <P> Stream<P> stream(Iterator<P> pages) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages,
+            Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // pages are fetched inside hasNext/next, so that time is what a page round trip costs
+    static <P> Iterator<P> iterator(MapperMetrics metrics, String tableName, MapperOperation operation,
+        Iterable<P> pages, Function<P, List<Map<String, AttributeValue>>> items,
+        Function<P, ConsumedCapacity> capacity) {
+
+        Iterator<P> iterator = pages.iterator();
+        return new Iterator<>() {
+            private long elapsed;
+
+            @Override
+            public boolean hasNext() {
+                long start = System.nanoTime();
+                try {
+                    return iterator.hasNext();
+                } finally {
+                    elapsed += System.nanoTime() - start;
+                }
+            }
+
+            @Override
+            public P next() {
+                long start = System.nanoTime();
+                P page = iterator.next();
+                metrics.recordLatency(tableName, operation, elapsed + System.nanoTime() - start);
+                metrics.recordItems(tableName, operation, items.apply(page).size());
+                capacity(metrics, tableName, operation, capacity.apply(page));
+                elapsed = 0;
+                return page;
+            }
+        };
+    }
+}
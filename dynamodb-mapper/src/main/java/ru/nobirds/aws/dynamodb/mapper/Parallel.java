@@ -0,0 +1,75 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+final class Parallel {
+
+    private Parallel() {
+    }
+
+    static <E> List<List<E>> partition(List<E> values, int size) {
+        List<List<E>> result = new ArrayList<>((values.size() + size - 1) / size);
+        for (int from = 0; from < values.size(); from += size) {
+            result.add(values.subList(from, Math.min(from + size, values.size())));
+        }
+        return result;
+    }
+
+    // runs action for every task using at most parallelism workers, the calling thread is one of them
+    static <E> void forEach(List<E> tasks, int parallelism, Executor executor, Consumer<E> action) {
+        int workers = Math.max(1, Math.min(parallelism, tasks.size()));
+        if (workers == 1) {
+            tasks.forEach(action);
+            return;
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            try {
+                int index;
+                while ((index = next.getAndIncrement()) < tasks.size()) {
+                    action.accept(tasks.get(index));
+                }
+            } catch (RuntimeException | Error e) {
+                next.set(tasks.size());
+                throw e;
+            }
+        };
+
+        ExecutorService ownExecutor = executor == null ? Executors.newFixedThreadPool(workers - 1) : null;
+        Executor target = executor == null ? ownExecutor : executor;
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>(workers - 1);
+            for (int i = 1; i < workers; i++) {
+                futures.add(CompletableFuture.runAsync(worker, target));
+            }
+            worker.run();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        } finally {
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+            }
+        }
+    }
+
+    static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return e;
+    }
+}
@@ -0,0 +1,213 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.lang.ref.Cleaner;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+// Segment workers decode their pages and hand them over through a bounded queue, so a slow consumer stops the scan
+// instead of buffering the table. The executor must be able to run the segments on other threads than the consumer.
+// Workers only hold the shared segments, an iterator dropped without close() stops them once it is collected.
+public class ParallelScan<T> implements Iterator<T>, AutoCloseable {
+
+    public static final int DEFAULT_PAGES_PER_SEGMENT = 2;
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Segments<T> segments;
+    private final Cleaner.Cleanable cleanable;
+
+    private int running;
+    private Iterator<T> current = Collections.emptyIterator();
+
+    private ParallelScan(Segments<T> segments) {
+        this.segments = segments;
+        this.cleanable = CLEANER.register(this, segments::close);
+        this.running = segments.totalSegments;
+    }
+
+    public static <T> ParallelScan<T> start(DynamoDbClient client, AttributesMapper<T> mapper, int totalSegments,
+        int bufferedPages, Executor executor, Consumer<ScanRequest.Builder> requestBuilder) {
+        return start(client, mapper, totalSegments, bufferedPages, executor, requestBuilder, MapperMetrics.NOOP, null,
+            null);
+    }
+
+    // tableName is only used to label metrics, segments share the limiter when it is not null
+    public static <T> ParallelScan<T> start(DynamoDbClient client, AttributesMapper<T> mapper, int totalSegments,
+        int bufferedPages, Executor executor, Consumer<ScanRequest.Builder> requestBuilder, MapperMetrics metrics,
+        String tableName, CapacityLimiter limiter) {
+        if (totalSegments < 1) {
+            throw new IllegalArgumentException("totalSegments must be positive: " + totalSegments);
+        }
+
+        Segments<T> segments = new Segments<>(client, mapper, totalSegments, Math.max(1, bufferedPages),
+            requestBuilder, metrics, tableName, limiter);
+        ParallelScan<T> scan = new ParallelScan<>(segments);
+        try {
+            for (int segment = 0; segment < totalSegments; segment++) {
+                int current = segment;
+                executor.execute(() -> segments.scan(current));
+            }
+        } catch (RejectedExecutionException e) {
+            // segments already started stop at their next page
+            scan.close();
+            throw e;
+        }
+        return scan;
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.NONNULL), false)
+            .onClose(this::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (running == 0) {
+                return false;
+            }
+
+            Page<T> page = take();
+            if (page.error != null) {
+                close();
+                if (page.error instanceof Error) {
+                    throw (Error) page.error;
+                }
+                throw (RuntimeException) page.error;
+            }
+
+            if (page.items == null) {
+                running--;
+            } else {
+                current = page.items.iterator();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    private Page<T> take() {
+        try {
+            return segments.queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("Interrupted while waiting for scan segments", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = 0;
+        cleanable.clean();
+    }
+
+    private static final class Segments<T> {
+
+        private final DynamoDbClient client;
+        private final AttributesMapper<T> mapper;
+        private final int totalSegments;
+        private final Consumer<ScanRequest.Builder> requestBuilder;
+        private final MapperMetrics metrics;
+        private final String tableName;
+        private final CapacityLimiter limiter;
+        private final BlockingQueue<Page<T>> queue;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Segments(DynamoDbClient client, AttributesMapper<T> mapper, int totalSegments, int bufferedPages,
+            Consumer<ScanRequest.Builder> requestBuilder, MapperMetrics metrics, String tableName,
+            CapacityLimiter limiter) {
+            this.client = client;
+            this.mapper = mapper;
+            this.totalSegments = totalSegments;
+            this.requestBuilder = requestBuilder;
+            this.metrics = metrics;
+            this.tableName = tableName;
+            this.limiter = limiter;
+            this.queue = new ArrayBlockingQueue<>(bufferedPages);
+        }
+
+        private void scan(int segment) {
+            try {
+                Iterable<ScanResponse> pages = client.scanPaginator(requestBuilder
+                    .andThen(builder -> builder.segment(segment).totalSegments(totalSegments)));
+
+                Iterator<ScanResponse> iterator = Metered.iterator(metrics, tableName, MapperOperation.SCAN, pages,
+                    ScanResponse::items, ScanResponse::consumedCapacity);
+                if (limiter != null) {
+                    iterator = limiter.limit(iterator, ScanResponse::consumedCapacity);
+                }
+                while (iterator.hasNext()) {
+                    ScanResponse page = iterator.next();
+                    if (closed.get()) {
+                        return;
+                    }
+
+                    List<T> items = new ArrayList<>(page.items().size());
+                    for (Map<String, AttributeValue> item : page.items()) {
+                        items.add(Metered.map(metrics, tableName, MapperOperation.SCAN, mapper, item));
+                    }
+                    if (!items.isEmpty()) {
+                        put(new Page<>(items, null));
+                    }
+                }
+
+                put(new Page<>(null, null));
+            } catch (RuntimeException | Error e) {
+                put(new Page<>(null, e));
+            }
+        }
+
+        private void put(Page<T> page) {
+            try {
+                while (!closed.get()) {
+                    if (queue.offer(page, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void close() {
+            closed.set(true);
+            queue.clear();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Page<T> {
+        private final List<T> items;
+        private final Throwable error;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+// Adds the partition key equality to a query, the request's own key condition may still narrow the sort key.
+final class PartitionCondition {
+
+    private static final String NAME = "#hk";
+    private static final String VALUE = ":hk";
+    private static final String CONDITION = NAME + " = " + VALUE;
+
+    private final String condition;
+    private final Map<String, String> names;
+    private final Map<String, AttributeValue> values;
+
+    private PartitionCondition(String condition, Map<String, String> names, Map<String, AttributeValue> values) {
+        this.condition = condition;
+        this.names = names;
+        this.values = values;
+    }
+
+    // the request builder runs once, on the builder of the sent request, the condition follows what it set
+    static Consumer<QueryRequest.Builder> of(Consumer<QueryRequest.Builder> requestBuilder, String partitionKey,
+        AttributeValue value) {
+        return builder -> {
+            requestBuilder.accept(builder);
+            of(builder.build(), partitionKey).apply(builder, value);
+        };
+    }
+
+    static PartitionCondition of(QueryRequest request, String partitionKey) {
+        Map<String, String> names = new HashMap<>(request.expressionAttributeNames());
+        names.put(NAME, partitionKey);
+        String condition = request.keyConditionExpression() == null
+            ? CONDITION
+            : CONDITION + " AND " + request.keyConditionExpression();
+        return new PartitionCondition(condition, names, request.expressionAttributeValues());
+    }
+
+    void apply(QueryRequest.Builder builder, AttributeValue value) {
+        Map<String, AttributeValue> partitionValues = new HashMap<>(values);
+        partitionValues.put(VALUE, value);
+        builder.keyConditionExpression(condition)
+            .expressionAttributeNames(names)
+            .expressionAttributeValues(partitionValues);
+    }
+}
@@ -0,0 +1,201 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.lang.ref.Cleaner;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Fetches pages ahead of the consumer and decodes them while the consumer is busy with earlier ones. Pages are
+// queued as futures in the order they were fetched, so the order is kept even when chunks decode in parallel.
+// The bounded queue stops the fetching when the consumer falls behind. The fetcher only holds the shared state,
+// a stream dropped without close() stops it once the iterator is collected.
+final class Prefetch<P, T> implements Iterator<T>, AutoCloseable {
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    // streams without an executor share it, idle threads end after a minute
+    private static final ExecutorService FETCHERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "dynamodb-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Fetcher<P, T> fetcher;
+    private final Cleaner.Cleanable cleanable;
+
+    private Iterator<T> current = Collections.emptyIterator();
+    private boolean done;
+
+    private Prefetch(Fetcher<P, T> fetcher) {
+        this.fetcher = fetcher;
+        this.cleanable = CLEANER.register(this, fetcher::close);
+    }
+
+    static <P, T> Prefetch<P, T> start(Iterator<P> pages, Function<P, List<Map<String, AttributeValue>>> items,
+        Function<Map<String, AttributeValue>, T> decoder, PrefetchOptions options) {
+
+        Fetcher<P, T> fetcher = new Fetcher<>(pages, items, decoder, options);
+        Prefetch<P, T> prefetch = new Prefetch<>(fetcher);
+        Executor executor = options.getExecutor() != null ? options.getExecutor() : FETCHERS;
+        try {
+            executor.execute(fetcher::fetch);
+        } catch (RejectedExecutionException e) {
+            prefetch.close();
+            throw e;
+        }
+        return prefetch;
+    }
+
+    Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+            Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(this::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (done) {
+                return false;
+            }
+
+            List<T> page;
+            try {
+                page = take().join();
+            } catch (CompletionException e) {
+                close();
+                throw Parallel.unwrap(e);
+            }
+
+            if (page == null) {
+                done = true;
+            } else {
+                current = page.iterator();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    private CompletableFuture<List<T>> take() {
+        try {
+            return fetcher.queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("Interrupted while waiting for pages", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        done = true;
+        current = Collections.emptyIterator();
+        cleanable.clean();
+    }
+
+    private static final class Fetcher<P, T> {
+
+        private final Iterator<P> pages;
+        private final Function<P, List<Map<String, AttributeValue>>> items;
+        private final Function<Map<String, AttributeValue>, T> decoder;
+        private final PrefetchOptions options;
+        private final BlockingQueue<CompletableFuture<List<T>>> queue;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Fetcher(Iterator<P> pages, Function<P, List<Map<String, AttributeValue>>> items,
+            Function<Map<String, AttributeValue>, T> decoder, PrefetchOptions options) {
+            this.pages = pages;
+            this.items = items;
+            this.decoder = decoder;
+            this.options = options;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, options.getPages()));
+        }
+
+        private void fetch() {
+            try {
+                while (!closed.get() && pages.hasNext()) {
+                    List<Map<String, AttributeValue>> pageItems = items.apply(pages.next());
+                    if (!pageItems.isEmpty()) {
+                        put(decode(pageItems));
+                    }
+                }
+                // end of the pages
+                put(CompletableFuture.completedFuture(null));
+            } catch (RuntimeException | Error e) {
+                put(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        private CompletableFuture<List<T>> decode(List<Map<String, AttributeValue>> pageItems) {
+            Executor mappingExecutor = options.getMappingExecutor();
+            int chunkSize = Math.max(1, options.getMappingChunkSize());
+            if (mappingExecutor == null || pageItems.size() <= chunkSize) {
+                return CompletableFuture.completedFuture(decodeAll(pageItems));
+            }
+
+            List<CompletableFuture<List<T>>> chunks = new ArrayList<>();
+            for (List<Map<String, AttributeValue>> chunk : Parallel.partition(pageItems, chunkSize)) {
+                chunks.add(CompletableFuture.supplyAsync(() -> decodeAll(chunk), mappingExecutor));
+            }
+            return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+                List<T> result = new ArrayList<>(pageItems.size());
+                chunks.forEach(chunk -> result.addAll(chunk.join()));
+                return result;
+            });
+        }
+
+        private List<T> decodeAll(List<Map<String, AttributeValue>> pageItems) {
+            List<T> result = new ArrayList<>(pageItems.size());
+            for (Map<String, AttributeValue> item : pageItems) {
+                result.add(decoder.apply(item));
+            }
+            return result;
+        }
+
+        private void put(CompletableFuture<List<T>> page) {
+            try {
+                while (!closed.get()) {
+                    if (queue.offer(page, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void close() {
+            closed.set(true);
+            queue.clear();
+        }
+    }
+}
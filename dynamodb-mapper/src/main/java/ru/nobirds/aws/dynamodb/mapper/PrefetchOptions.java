@@ -0,0 +1,26 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.concurrent.Executor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder(toBuilder = true)
+public class PrefetchOptions {
+
+    public static final PrefetchOptions DEFAULT = builder().build();
+
+    // pages fetched ahead of the consumer, they are the memory bound of the pipeline
+    @Builder.Default
+    private final int pages = 2;
+
+    // runs the page fetching, one task per stream, a shared pool of daemon threads when null
+    private final Executor executor;
+
+    // decodes parts of every page in parallel, pages are decoded on the fetching thread when null
+    private final Executor mappingExecutor;
+
+    @Builder.Default
+    private final int mappingChunkSize = 64;
+
+}
@@ -0,0 +1,98 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+// Builds ProjectionExpression for the attributes a mapper reads. Requests that already choose what to return
+// (projection or select) are left alone, as are index queries: a global index may not project every attribute.
+final class Projection {
+
+    private static final String PLACEHOLDER = "#p";
+
+    private final String expression;
+    private final Map<String, String> names;
+
+    private Projection(String expression, Map<String, String> names) {
+        this.expression = expression;
+        this.names = names;
+    }
+
+    static <R> Optional<Set<String>> attributeNames(Collection<? extends Attribute<R>> attributes) {
+        Set<String> result = new LinkedHashSet<>();
+        for (Attribute<R> attribute : attributes) {
+            Optional<Set<String>> names = attribute.attributeNames();
+            if (names.isEmpty()) {
+                return Optional.empty();
+            }
+            result.addAll(names.get());
+        }
+        return Optional.of(Collections.unmodifiableSet(result));
+    }
+
+    static Consumer<GetItemRequest.Builder> get(AttributesMapper<?> mapper) {
+        Optional<Projection> projection = of(mapper, Map.of());
+        return builder -> projection.ifPresent(value -> builder
+            .projectionExpression(value.expression)
+            .expressionAttributeNames(value.names));
+    }
+
+    // the request builder runs once, on the builder of the sent request, the projection follows what it set
+    static Consumer<ScanRequest.Builder> scan(Consumer<ScanRequest.Builder> requestBuilder,
+        AttributesMapper<?> mapper) {
+
+        return builder -> {
+            requestBuilder.accept(builder);
+            ScanRequest request = builder.build();
+            if (request.projectionExpression() == null && request.select() == null && request.indexName() == null) {
+                of(mapper, request.expressionAttributeNames()).ifPresent(projection -> builder
+                    .projectionExpression(projection.expression)
+                    .expressionAttributeNames(projection.names));
+            }
+        };
+    }
+
+    static Consumer<QueryRequest.Builder> query(Consumer<QueryRequest.Builder> requestBuilder,
+        AttributesMapper<?> mapper) {
+
+        return builder -> {
+            requestBuilder.accept(builder);
+            QueryRequest request = builder.build();
+            if (request.projectionExpression() == null && request.select() == null && request.indexName() == null) {
+                of(mapper, request.expressionAttributeNames()).ifPresent(projection -> builder
+                    .projectionExpression(projection.expression)
+                    .expressionAttributeNames(projection.names));
+            }
+        };
+    }
+
+    // existing names are kept, the request builder replaces the whole map
+    private static Optional<Projection> of(AttributesMapper<?> mapper, Map<String, String> existingNames) {
+        Optional<Set<String>> attributeNames = mapper.attributeNames();
+        if (attributeNames.isEmpty() || attributeNames.get().isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<String, String> names = new HashMap<>(existingNames);
+        StringJoiner expression = new StringJoiner(",");
+        int index = 0;
+        for (String attributeName : attributeNames.get()) {
+            String placeholder = PLACEHOLDER + index++;
+            while (names.containsKey(placeholder)) {
+                placeholder = PLACEHOLDER + index++;
+            }
+            names.put(placeholder, attributeName);
+            expression.add(placeholder);
+        }
+        return Optional.of(new Projection(expression.toString(), names));
+    }
+}
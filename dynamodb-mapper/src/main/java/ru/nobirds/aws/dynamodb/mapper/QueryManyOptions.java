@@ -0,0 +1,25 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.concurrent.Executor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder(toBuilder = true)
+public class QueryManyOptions {
+
+    public static final QueryManyOptions DEFAULT = builder().build();
+
+    // page requests in flight across all partitions
+    @Builder.Default
+    private final int parallelism = 8;
+
+    // runs the page requests, a cached pool of daemon threads shared by the streams when null
+    private final Executor executor;
+
+    // items of the merged stream, no more pages are requested once it is reached. It also caps the Limit
+    // of every partition query
+    @Builder.Default
+    private final int limit = Integer.MAX_VALUE;
+
+}
@@ -0,0 +1,265 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+// K-way merge of the queries of many partitions by sort key. Every partition holds its current page and requests the
+// next one as soon as the current one is taken. Page requests are short tasks that never wait for the consumer, so
+// a bounded executor serves any number of partitions. Items are decoded on the fetching threads.
+final class QueryMerge<T> implements Iterator<T>, AutoCloseable {
+
+    // streams without an executor share it, idle threads end after a minute, so unclosed streams keep none
+    private static final ExecutorService FETCHERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "dynamodb-query-many");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<Source> sources;
+    private final String sortKey;
+    private final Function<Map<String, AttributeValue>, T> decoder;
+    private final QueryManyOptions options;
+    private final PriorityQueue<Source> heads;
+    private final Deque<Runnable> waiting = new ArrayDeque<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Executor executor;
+    private int inFlight;
+    private int emitted;
+    private boolean started;
+    private Source advancing;
+
+    private QueryMerge(List<Iterator<QueryResponse>> pages, String sortKey, boolean forward,
+        Function<Map<String, AttributeValue>, T> decoder, QueryManyOptions options) {
+        this.sortKey = sortKey;
+        this.decoder = decoder;
+        this.options = options;
+        this.sources = new ArrayList<>(pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            sources.add(new Source(i, pages.get(i)));
+        }
+
+        Comparator<Source> order = (left, right) -> compare(left.head.sortValue, right.head.sortValue);
+        this.heads = new PriorityQueue<>(Math.max(1, pages.size()), (forward ? order : order.reversed())
+            .thenComparingInt(source -> source.index));
+    }
+
+    static <T> QueryMerge<T> start(List<Iterator<QueryResponse>> pages, String sortKey, boolean forward,
+        Function<Map<String, AttributeValue>, T> decoder, QueryManyOptions options) {
+        if (options.getParallelism() < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + options.getParallelism());
+        }
+        return new QueryMerge<>(pages, sortKey, forward, decoder, options);
+    }
+
+    Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+            Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(this::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed.get()) {
+            return false;
+        }
+        if (emitted >= options.getLimit()) {
+            close();
+            return false;
+        }
+
+        if (!started) {
+            started = true;
+            executor = options.getExecutor() != null ? options.getExecutor() : FETCHERS;
+            // every partition is requested before waiting for any of them
+            sources.forEach(this::fetch);
+            sources.forEach(this::advance);
+        } else if (advancing != null) {
+            Source source = advancing;
+            advancing = null;
+            advance(source);
+        }
+
+        if (heads.isEmpty()) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        // the source moves on lazily, the consumer gets this item without waiting for its next page
+        advancing = heads.poll();
+        emitted++;
+        return advancing.head.value;
+    }
+
+    // waits for the page fetched ahead when the current one is used up, drops the source at its end
+    private void advance(Source source) {
+        while (!source.current.hasNext()) {
+            List<Entry<T>> page = await(source.next);
+            if (page == null) {
+                return;
+            }
+            source.current = page.iterator();
+            fetch(source);
+        }
+        source.head = source.current.next();
+        heads.add(source);
+    }
+
+    private void fetch(Source source) {
+        CompletableFuture<List<Entry<T>>> page = new CompletableFuture<>();
+        source.next = page;
+        submit(() -> {
+            try {
+                page.complete(!closed.get() && source.pages.hasNext() ? decode(source.pages.next().items()) : null);
+            } catch (RuntimeException | Error e) {
+                page.completeExceptionally(e);
+            } finally {
+                release();
+            }
+        });
+    }
+
+    private void submit(Runnable task) {
+        synchronized (waiting) {
+            if (inFlight >= options.getParallelism()) {
+                waiting.add(task);
+                return;
+            }
+            inFlight++;
+        }
+        executor.execute(task);
+    }
+
+    private void release() {
+        Runnable task;
+        synchronized (waiting) {
+            task = closed.get() ? null : waiting.poll();
+            if (task == null) {
+                inFlight--;
+                return;
+            }
+        }
+        executor.execute(task);
+    }
+
+    private List<Entry<T>> decode(List<Map<String, AttributeValue>> items) {
+        List<Entry<T>> result = new ArrayList<>(items.size());
+        for (Map<String, AttributeValue> item : items) {
+            result.add(new Entry<>(sortValue(item.get(sortKey)), decoder.apply(item)));
+        }
+        return result;
+    }
+
+    // binary values become ISO-8859-1 strings, their chars compare as unsigned bytes like DynamoDB does
+    private Object sortValue(AttributeValue value) {
+        if (value != null && value.s() != null) {
+            return value.s();
+        }
+        if (value != null && value.n() != null) {
+            return new BigDecimal(value.n());
+        }
+        if (value != null && value.b() != null) {
+            return new String(value.b().asByteArrayUnsafe(), StandardCharsets.ISO_8859_1);
+        }
+        throw new IllegalStateException("Item has no string, number or binary " + sortKey + " to merge by");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object left, Object right) {
+        if (left instanceof String) {
+            return compareCodePoints((String) left, (String) right);
+        }
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+
+    // code point order is the UTF-8 byte order partitions come in, String.compareTo puts characters above U+FFFF
+    // before U+E000..U+FFFF. For the binary strings it is the same as the char order.
+    static int compareCodePoints(String left, String right) {
+        int index = 0;
+        while (index < left.length() && index < right.length()) {
+            int leftPoint = left.codePointAt(index);
+            int rightPoint = right.codePointAt(index);
+            if (leftPoint != rightPoint) {
+                return Integer.compare(leftPoint, rightPoint);
+            }
+            index += Character.charCount(leftPoint);
+        }
+        return Integer.compare(left.length(), right.length());
+    }
+
+    private List<Entry<T>> await(CompletableFuture<List<Entry<T>>> page) {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            close();
+            throw Parallel.unwrap(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed.getAndSet(true)) {
+            return;
+        }
+        synchronized (waiting) {
+            waiting.clear();
+        }
+        heads.clear();
+        advancing = null;
+    }
+
+    private final class Source {
+
+        private final int index;
+        private final Iterator<QueryResponse> pages;
+        private CompletableFuture<List<Entry<T>>> next;
+        private Iterator<Entry<T>> current = Collections.emptyIterator();
+        private Entry<T> head;
+
+        private Source(int index, Iterator<QueryResponse> pages) {
+            this.index = index;
+            this.pages = pages;
+        }
+    }
+
+    private static final class Entry<T> {
+
+        private final Object sortValue;
+        private final T value;
+
+        private Entry(Object sortValue, T value) {
+            this.sortValue = sortValue;
+            this.value = value;
+        }
+    }
+}
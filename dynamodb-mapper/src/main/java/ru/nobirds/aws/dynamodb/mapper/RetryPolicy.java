@@ -0,0 +1,49 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.Data;
+
+@Data
+public class RetryPolicy {
+
+    public static final RetryPolicy DEFAULT = new RetryPolicy(10, Duration.ofMillis(50), Duration.ofSeconds(20));
+
+    public static final RetryPolicy NONE = new RetryPolicy(1, Duration.ZERO, Duration.ZERO);
+
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+
+    public static RetryPolicy of(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+        return new RetryPolicy(maxAttempts, baseDelay, maxDelay);
+    }
+
+    public boolean canRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    // exponential backoff with full jitter
+    public long delayMillis(int attempt) {
+        long base = baseDelay.toMillis();
+        if (base <= 0) {
+            return 0;
+        }
+        long ceiling = Math.min(maxDelay.toMillis(), base << Math.min(Math.max(attempt - 1, 0), 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public boolean backoff(int attempt) {
+        long delay = delayMillis(attempt);
+        if (delay == 0) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
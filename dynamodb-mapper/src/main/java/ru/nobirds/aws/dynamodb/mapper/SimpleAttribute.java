@@ -1,6 +1,8 @@
 package ru.nobirds.aws.dynamodb.mapper;
 
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import lombok.Data;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
@@ -22,4 +24,15 @@ public class SimpleAttribute<R, T> implements Attribute<R> {
         result.put(getProperty().getName(), getMapper().map(value));
     }
 
+    @Override
+    public long size(R instance) {
+        T value = getProperty().getGetter().apply(instance);
+        return ItemSize.utf8(getProperty().getName()) + getMapper().size(value);
+    }
+
+    @Override
+    public Optional<Set<String>> attributeNames() {
+        return Optional.of(Set.of(getProperty().getName()));
+    }
+
 }
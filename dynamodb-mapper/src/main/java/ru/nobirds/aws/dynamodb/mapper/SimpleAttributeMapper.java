@@ -1,6 +1,7 @@
 package ru.nobirds.aws.dynamodb.mapper;
 
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import lombok.AllArgsConstructor;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
@@ -9,6 +10,12 @@ public class SimpleAttributeMapper<T> implements AttributeMapper<T> {
 
     private final Function<AttributeValue, T> reader;
     private final Function<T, AttributeValue> writer;
+    // size of the attribute written for a value that is not null, null when it has to be built
+    private final ToLongFunction<T> sizer;
+
+    public SimpleAttributeMapper(Function<AttributeValue, T> reader, Function<T, AttributeValue> writer) {
+        this(reader, writer, null);
+    }
 
     @Override
     public T map(AttributeValue attributeValue) {
@@ -17,6 +24,14 @@ public class SimpleAttributeMapper<T> implements AttributeMapper<T> {
 
     @Override
     public AttributeValue map(T value) {
-        return (value == null) ? AttributeValue.builder().nul(true).build() : writer.apply(value);
+        return (value == null) ? AttributeValues.NULL : writer.apply(value);
+    }
+
+    @Override
+    public long size(T value) {
+        if (value == null || sizer == null) {
+            return ItemSize.bytes(map(value));
+        }
+        return sizer.applyAsLong(value);
     }
 }
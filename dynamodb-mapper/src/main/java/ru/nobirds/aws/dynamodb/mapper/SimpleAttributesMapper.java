@@ -3,15 +3,22 @@ package ru.nobirds.aws.dynamodb.mapper;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Supplier;
-import lombok.RequiredArgsConstructor;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
-@RequiredArgsConstructor
 public class SimpleAttributesMapper<R> implements AttributesMapper<R> {
 
     private final Supplier<R> constructor;
     private final List<Attribute<R>> attributes;
+    private final Optional<Set<String>> attributeNames;
+
+    public SimpleAttributesMapper(Supplier<R> constructor, List<Attribute<R>> attributes) {
+        this.constructor = constructor;
+        this.attributes = attributes;
+        this.attributeNames = Projection.attributeNames(attributes);
+    }
 
     @Override
     public R map(Map<String, AttributeValue> attributes) {
@@ -31,4 +38,18 @@ public class SimpleAttributesMapper<R> implements AttributesMapper<R> {
         return result;
     }
 
+    @Override
+    public long size(R value) {
+        long size = 0;
+        for (Attribute<R> attribute : attributes) {
+            size += attribute.size(value);
+        }
+        return size;
+    }
+
+    @Override
+    public Optional<Set<String>> attributeNames() {
+        return attributeNames;
+    }
+
 }
@@ -0,0 +1,52 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+// Handle of a table keyed by partition and sort keys, keys are encoded by their attribute mappers.
+public class SortedTable<T, K, S> extends TableHandle<T> {
+
+    private final String hashKey;
+    private final AttributeMapper<K> hashMapper;
+    private final String sortKey;
+    private final AttributeMapper<S> sortMapper;
+
+    SortedTable(DynamoDbMapper dynamoDbMapper, String tableName, String resolvedName, AttributesMapper<T> mapper,
+        String hashKey, AttributeMapper<K> hashMapper, String sortKey, AttributeMapper<S> sortMapper) {
+        super(dynamoDbMapper, tableName, resolvedName, mapper);
+        this.hashKey = hashKey;
+        this.hashMapper = hashMapper;
+        this.sortKey = sortKey;
+        this.sortMapper = sortMapper;
+    }
+
+    public Map<String, AttributeValue> key(K key, S sort) {
+        return Map.of(hashKey, hashMapper.map(key), sortKey, sortMapper.map(sort));
+    }
+
+    public AttributeValue sortValue(S sort) {
+        return sortMapper.map(sort);
+    }
+
+    public Optional<T> get(K key, S sort) {
+        return dynamoDbMapper.get(this, key(key, sort));
+    }
+
+    public void delete(K key, S sort) {
+        dynamoDbMapper.delete(this, key(key, sort));
+    }
+
+    public Stream<T> query(K key) {
+        return query(key, builder -> {});
+    }
+
+    // the partition condition is added to the request's key condition, which may narrow the sort key
+    public Stream<T> query(K key, Consumer<QueryRequest.Builder> requestBuilder) {
+        return dynamoDbMapper.query(this, PartitionCondition.of(requestBuilder, hashKey, hashMapper.map(key)));
+    }
+
+}
@@ -0,0 +1,43 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Handle of a table keyed by a partition key only, keys are encoded by the key's attribute mapper.
+public class Table<T, K> extends TableHandle<T> {
+
+    private final String hashKey;
+    private final AttributeMapper<K> hashMapper;
+
+    Table(DynamoDbMapper dynamoDbMapper, String tableName, String resolvedName, AttributesMapper<T> mapper,
+        String hashKey, AttributeMapper<K> hashMapper) {
+        super(dynamoDbMapper, tableName, resolvedName, mapper);
+        this.hashKey = hashKey;
+        this.hashMapper = hashMapper;
+    }
+
+    public Map<String, AttributeValue> key(K key) {
+        return Map.of(hashKey, hashMapper.map(key));
+    }
+
+    public Optional<T> get(K key) {
+        return dynamoDbMapper.get(this, key(key));
+    }
+
+    public List<T> batchGet(Collection<K> keys) {
+        List<Map<String, AttributeValue>> encoded = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            encoded.add(key(key));
+        }
+        return dynamoDbMapper.batchGet(this, encoded);
+    }
+
+    public void delete(K key) {
+        dynamoDbMapper.delete(this, key(key));
+    }
+
+}
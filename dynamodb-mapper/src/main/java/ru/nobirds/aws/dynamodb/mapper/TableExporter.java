@@ -0,0 +1,133 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import ru.nobirds.aws.dynamodb.mapper.ExportFile.Checkpoint;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+// Writes scan pages to a file one page at a time, after each page the data is forced to disk and a checkpoint
+// with the LastEvaluatedKey is saved, so an interrupted export continues from the last complete page.
+@RequiredArgsConstructor
+public class TableExporter {
+
+    private final DynamoDbClient client;
+    private final NamingStrategy namingStrategy;
+
+    public ExportResult export(String tableName, Path file) {
+        return export(tableName, file, ExportOptions.DEFAULT);
+    }
+
+    public ExportResult export(String tableName, Path file, ExportOptions options) {
+        try {
+            return exportPages(namingStrategy.name(tableName), file, options);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ExportResult exportPages(String tableName, Path file, ExportOptions options) throws IOException {
+        Optional<Checkpoint> checkpoint = options.isResume() ? ExportFile.readCheckpoint(file) : Optional.empty();
+        if (checkpoint.isPresent() && checkpoint.get().isGzip() != options.isGzip()) {
+            throw new IllegalStateException("Checkpoint of " + file + " was written with gzip "
+                + checkpoint.get().isGzip());
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long items = 0;
+            long pages = 0;
+            Map<String, AttributeValue> startKey = null;
+
+            if (checkpoint.isPresent()) {
+                // anything after the checkpoint belongs to a page that will be scanned again
+                channel.truncate(checkpoint.get().getOffset());
+                channel.position(checkpoint.get().getOffset());
+                items = checkpoint.get().getItems();
+                pages = checkpoint.get().getPages();
+                startKey = checkpoint.get().getLastKey();
+            } else {
+                // a checkpoint left from an earlier run no longer matches the file
+                ExportFile.deleteCheckpoint(file);
+                channel.truncate(0);
+                channel.write(header(options.isGzip()));
+            }
+
+            Iterator<ScanResponse> responses = client.scanPaginator(request(tableName, startKey, options)).iterator();
+            CapacityLimiter limiter = options.getLimiter();
+            if (limiter != null) {
+                responses = limiter.limit(responses, ScanResponse::consumedCapacity);
+            }
+
+            OutputStream target = Channels.newOutputStream(channel);
+            ByteArrayOutputStream page = new ByteArrayOutputStream(64 * 1024);
+            ByteArrayOutputStream frame = new ByteArrayOutputStream(1024);
+            DataOutputStream frameOut = new DataOutputStream(frame);
+
+            while (responses.hasNext()) {
+                ScanResponse response = responses.next();
+
+                page.reset();
+                try (DataOutputStream out = new DataOutputStream(options.isGzip()
+                    ? new GZIPOutputStream(page, 8192)
+                    : page)) {
+                    for (Map<String, AttributeValue> item : response.items()) {
+                        frame.reset();
+                        ItemCodec.writeItem(frameOut, item);
+                        out.writeInt(frame.size());
+                        frame.writeTo(out);
+                    }
+                }
+                page.writeTo(target);
+                channel.force(false);
+
+                items += response.items().size();
+                pages++;
+
+                if (response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()) {
+                    ExportFile.writeCheckpoint(file,
+                        new Checkpoint(options.isGzip(), channel.position(), items, pages,
+                            response.lastEvaluatedKey()));
+                }
+            }
+
+            ExportFile.deleteCheckpoint(file);
+            return new ExportResult(items, pages, channel.size(), checkpoint.isPresent());
+        }
+    }
+
+    private static Consumer<ScanRequest.Builder> request(String tableName, Map<String, AttributeValue> startKey,
+        ExportOptions options) {
+
+        Consumer<ScanRequest.Builder> capacity = builder -> builder.returnConsumedCapacity(
+            options.getLimiter() != null ? ReturnConsumedCapacity.TOTAL : ReturnConsumedCapacity.NONE);
+        Consumer<ScanRequest.Builder> requestBuilder = capacity.andThen(options.getRequestBuilder());
+        if (options.getMapper() != null) {
+            requestBuilder = Projection.scan(requestBuilder, options.getMapper());
+        }
+        return requestBuilder.andThen(builder -> builder.tableName(tableName).exclusiveStartKey(startKey));
+    }
+
+    private static ByteBuffer header(boolean gzip) {
+        ByteBuffer header = ByteBuffer.allocate(6);
+        header.putInt(ExportFile.MAGIC).put(ExportFile.VERSION).put(gzip ? ExportFile.GZIP : 0).flip();
+        return header;
+    }
+
+}
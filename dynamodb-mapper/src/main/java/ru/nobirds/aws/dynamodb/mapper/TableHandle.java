@@ -0,0 +1,49 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.AccessLevel;
+import lombok.Getter;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+// Table name, its resolved name, mapper and projection bound once, see DynamoDbMapper.table
+@Getter
+public abstract class TableHandle<T> {
+
+    @Getter(AccessLevel.NONE)
+    protected final DynamoDbMapper dynamoDbMapper;
+
+    private final String tableName;
+    private final String resolvedName;
+    private final AttributesMapper<T> mapper;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final Consumer<GetItemRequest.Builder> projection;
+
+    TableHandle(DynamoDbMapper dynamoDbMapper, String tableName, String resolvedName, AttributesMapper<T> mapper) {
+        this.dynamoDbMapper = dynamoDbMapper;
+        this.tableName = tableName;
+        this.resolvedName = resolvedName;
+        this.mapper = mapper;
+        this.projection = Projection.get(mapper);
+    }
+
+    public T save(T value) {
+        return dynamoDbMapper.save(this, value, builder -> {});
+    }
+
+    public T save(T value, Consumer<PutItemRequest.Builder> saveBuilder) {
+        return dynamoDbMapper.save(this, value, saveBuilder);
+    }
+
+    public Stream<T> scan() {
+        return dynamoDbMapper.scan(this, builder -> {});
+    }
+
+    public Stream<T> scan(Consumer<ScanRequest.Builder> requestBuilder) {
+        return dynamoDbMapper.scan(this, requestBuilder);
+    }
+
+}
@@ -0,0 +1,177 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+// Reads files written by TableExporter as a stream and writes them back in chunks, only one chunk of items
+// is held in memory at a time.
+@RequiredArgsConstructor
+public class TableImporter {
+
+    // batches per worker in a chunk, so workers are not left waiting at the end of each chunk
+    private static final int BATCHES_PER_WORKER = 4;
+
+    private final DynamoDbClient client;
+    private final NamingStrategy namingStrategy;
+
+    public BatchWriteResult write(String tableName, Path file) {
+        return write(tableName, file, BatchOptions.DEFAULT);
+    }
+
+    public BatchWriteResult write(String tableName, Path file, BatchOptions options) {
+        if (options.getExecutor() != null || options.getParallelism() <= 1) {
+            return write(namingStrategy.name(tableName), file, options, new BatchWriter(client, options));
+        }
+
+        // one pool for the whole import, BatchWriter would start a new one for every chunk
+        ExecutorService executor = Executors.newFixedThreadPool(options.getParallelism() - 1);
+        try {
+            return write(namingStrategy.name(tableName), file, options,
+                new BatchWriter(client, options.toBuilder().executor(executor).build()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private BatchWriteResult write(String resolvedName, Path file, BatchOptions options, BatchWriter writer) {
+        int chunkSize = BatchWriter.MAX_BATCH_SIZE * options.getParallelism() * BATCHES_PER_WORKER;
+
+        int itemCount = 0;
+        int writtenCount = 0;
+        int requestCount = 0;
+        int retryCount = 0;
+        List<WriteRequest> failedItems = new ArrayList<>();
+
+        try (Stream<Map<String, AttributeValue>> items = read(file)) {
+            Iterator<Map<String, AttributeValue>> iterator = items.iterator();
+            List<Map<String, AttributeValue>> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    BatchWriteResult result = writer.write(resolvedName, chunk,
+                        item -> WriteRequest.builder().putRequest(builder -> builder.item(item)).build());
+                    itemCount += result.getItemCount();
+                    writtenCount += result.getWrittenCount();
+                    requestCount += result.getRequestCount();
+                    retryCount += result.getRetryCount();
+                    failedItems.addAll(result.getFailedItems());
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+
+        return new BatchWriteResult(itemCount, writtenCount, requestCount, retryCount, failedItems);
+    }
+
+    public static <T> Stream<T> read(Path file, AttributesMapper<T> mapper) {
+        return read(file).map(mapper::map);
+    }
+
+    // the stream holds the file open until it is closed
+    public static Stream<Map<String, AttributeValue>> read(Path file) {
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                DataInputStream in = open(file, Channels.newInputStream(channel));
+                return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new ItemIterator(in),
+                    Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(() -> {
+                        try {
+                            in.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static DataInputStream open(Path file, InputStream channel) throws IOException {
+        DataInputStream header = new DataInputStream(channel);
+        if (header.readInt() != ExportFile.MAGIC) {
+            throw new IOException("Not an export file: " + file);
+        }
+        byte version = header.readByte();
+        if (version != ExportFile.VERSION) {
+            throw new IOException("Unsupported export version " + version + ": " + file);
+        }
+        boolean gzip = (header.readByte() & ExportFile.GZIP) != 0;
+
+        // gzip reads the members written for each page one after another
+        InputStream body = new BufferedInputStream(channel, 64 * 1024);
+        return new DataInputStream(gzip ? new BufferedInputStream(new GZIPInputStream(body, 8192)) : body);
+    }
+
+    @RequiredArgsConstructor
+    private static class ItemIterator implements Iterator<Map<String, AttributeValue>> {
+
+        private final DataInputStream in;
+        private Map<String, AttributeValue> next;
+        private boolean done;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                next = readNext();
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map<String, AttributeValue> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map<String, AttributeValue> result = next;
+            next = null;
+            return result;
+        }
+
+        private Map<String, AttributeValue> readNext() {
+            try {
+                int first = in.read();
+                if (first < 0) {
+                    return null;
+                }
+                // frame length lets a reader skip items, the codec itself does not need it
+                int length = first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8
+                    | in.readUnsignedByte();
+                if (length < 0) {
+                    throw new IOException("Corrupted frame length " + length);
+                }
+                return ItemCodec.readItem(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
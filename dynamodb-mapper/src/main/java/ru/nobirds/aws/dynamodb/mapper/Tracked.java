@@ -0,0 +1,37 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Map;
+import lombok.Getter;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// An entity together with the attributes it was loaded with, DynamoDbMapper.update sends only the attributes
+// that differ from them and then takes the written attributes as the new snapshot. Not thread safe.
+public final class Tracked<T> {
+
+    @Getter
+    private final Map<String, AttributeValue> key;
+
+    @Getter
+    private final T value;
+
+    private Map<String, AttributeValue> snapshot;
+
+    Tracked(Map<String, AttributeValue> key, T value, Map<String, AttributeValue> snapshot) {
+        this.key = key;
+        this.value = value;
+        this.snapshot = snapshot;
+    }
+
+    // for values that are known to match the stored item, e.g. right after save
+    public static <T> Tracked<T> of(Map<String, AttributeValue> key, T value, AttributesMapper<T> mapper) {
+        return new Tracked<>(key, value, mapper.map(value));
+    }
+
+    Map<String, AttributeValue> snapshot() {
+        return snapshot;
+    }
+
+    void snapshot(Map<String, AttributeValue> snapshot) {
+        this.snapshot = snapshot;
+    }
+}
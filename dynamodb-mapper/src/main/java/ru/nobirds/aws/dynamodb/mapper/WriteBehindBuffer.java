@@ -0,0 +1,203 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+// Pending writes of one table by primary key, only the last write of a key is sent. Flushes run one at a time,
+// so a newer write of a key never reaches the table before an older one.
+final class WriteBehindBuffer {
+
+    private final WriteBehindConfig config;
+    private final ScheduledExecutorService scheduler;
+    private final Function<List<WriteRequest>, BatchWriteResult> writer;
+    private final IntConsumer failures;
+    private final Object flushLock = new Object();
+
+    private Map<Map<String, AttributeValue>, Pending> pending = new LinkedHashMap<>();
+    private Map<Map<String, AttributeValue>, Pending> inFlight = Map.of();
+    private boolean scheduled;
+    // a flush for a full buffer is queued on the scheduler, adds meanwhile must not queue more
+    private boolean flushQueued;
+    private boolean closed;
+
+    WriteBehindBuffer(WriteBehindConfig config, ScheduledExecutorService scheduler,
+        Function<List<WriteRequest>, BatchWriteResult> writer, IntConsumer failures) {
+        if (config.getKeyAttributes() == null || config.getKeyAttributes().isEmpty()) {
+            throw new IllegalArgumentException("Write-behind needs the key attributes of the table");
+        }
+        this.config = config;
+        this.scheduler = scheduler;
+        this.writer = writer;
+        this.failures = failures;
+    }
+
+    CompletableFuture<Void> put(Map<String, AttributeValue> item) {
+        return add(keyOf(item), WriteRequest.builder().putRequest(builder -> builder.item(item)).build());
+    }
+
+    CompletableFuture<Void> delete(Map<String, AttributeValue> key) {
+        Map<String, AttributeValue> normalized = keyOf(key);
+        return add(normalized, WriteRequest.builder().deleteRequest(builder -> builder.key(normalized)).build());
+    }
+
+    // empty when the key has no buffered write, otherwise the item it will have once written
+    synchronized Optional<Optional<Map<String, AttributeValue>>> lookup(Map<String, AttributeValue> key) {
+        Map<String, AttributeValue> normalized = keyOf(key);
+        Pending entry = pending.get(normalized);
+        if (entry == null) {
+            entry = inFlight.get(normalized);
+        }
+        if (entry == null) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.request.putRequest() != null
+            ? Optional.of(entry.request.putRequest().item())
+            : Optional.empty());
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    void flush() {
+        synchronized (flushLock) {
+            Map<Map<String, AttributeValue>, Pending> batch;
+            synchronized (this) {
+                scheduled = false;
+                flushQueued = false;
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                inFlight = batch;
+            }
+
+            try {
+                write(batch);
+            } finally {
+                synchronized (this) {
+                    inFlight = Map.of();
+                }
+            }
+        }
+    }
+
+    void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+    }
+
+    private CompletableFuture<Void> add(Map<String, AttributeValue> key, WriteRequest request) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        int size;
+        boolean queue = false;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Write-behind buffer is closed");
+            }
+
+            Pending entry = pending.get(key);
+            if (entry == null) {
+                pending.put(key, new Pending(request, future));
+            } else {
+                entry.request = request;
+                entry.futures.add(future);
+            }
+
+            size = pending.size();
+            if (!scheduled && size < config.getFlushItems()) {
+                scheduled = true;
+                scheduler.schedule(this::flush, config.getFlushInterval().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            if (!flushQueued && size >= config.getFlushItems() && size < config.getMaxPending()) {
+                flushQueued = true;
+                queue = true;
+            }
+        }
+
+        if (size >= config.getMaxPending()) {
+            flush();
+        } else if (queue) {
+            scheduler.execute(this::flush);
+        }
+        return future;
+    }
+
+    private void write(Map<Map<String, AttributeValue>, Pending> batch) {
+        List<WriteRequest> requests = new ArrayList<>(batch.size());
+        for (Pending entry : batch.values()) {
+            requests.add(entry.request);
+        }
+
+        BatchWriteResult result;
+        try {
+            result = writer.apply(requests);
+        } catch (RuntimeException e) {
+            // reported through the futures, flushes run on the scheduler where nobody would see it
+            batch.values().forEach(entry -> entry.fail(e));
+            failures.accept(batch.size());
+            return;
+        }
+
+        Set<Map<String, AttributeValue>> failed = new HashSet<>();
+        for (WriteRequest request : result.getFailedItems()) {
+            failed.add(keyOf(request.putRequest() != null
+                ? request.putRequest().item()
+                : request.deleteRequest().key()));
+        }
+
+        batch.forEach((key, entry) -> {
+            if (failed.contains(key)) {
+                entry.fail(new IllegalStateException("Write of " + key + " was not processed after "
+                    + result.getRequestCount() + " requests"));
+            } else {
+                entry.futures.forEach(future -> future.complete(null));
+            }
+        });
+        if (!failed.isEmpty()) {
+            failures.accept(failed.size());
+        }
+    }
+
+    private Map<String, AttributeValue> keyOf(Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> key = new LinkedHashMap<>(config.getKeyAttributes().size() * 2);
+        for (String name : config.getKeyAttributes()) {
+            AttributeValue value = item.get(name);
+            if (value == null) {
+                throw new IllegalArgumentException("Key attribute " + name + " is missing");
+            }
+            key.put(name, value);
+        }
+        return key;
+    }
+
+    private static class Pending {
+
+        private WriteRequest request;
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>(1);
+
+        Pending(WriteRequest request, CompletableFuture<Void> future) {
+            this.request = request;
+            futures.add(future);
+        }
+
+        void fail(Throwable e) {
+            futures.forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
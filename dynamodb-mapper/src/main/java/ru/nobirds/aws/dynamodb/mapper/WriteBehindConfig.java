@@ -0,0 +1,29 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.time.Duration;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder(toBuilder = true)
+public class WriteBehindConfig {
+
+    // primary key of the table, writes to the same key are merged
+    private final Set<String> keyAttributes;
+
+    // buffered keys that start a flush without waiting for flushInterval
+    @Builder.Default
+    private final int flushItems = 4 * BatchWriter.MAX_BATCH_SIZE;
+
+    @Builder.Default
+    private final Duration flushInterval = Duration.ofMillis(50);
+
+    // callers flush themselves past this size, so a slow table cannot grow the buffer without bound
+    @Builder.Default
+    private final int maxPending = 10_000;
+
+    @Builder.Default
+    private final BatchOptions batchOptions = BatchOptions.DEFAULT;
+
+}
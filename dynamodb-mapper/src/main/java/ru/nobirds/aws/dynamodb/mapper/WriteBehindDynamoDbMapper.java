@@ -0,0 +1,172 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+// save and delete on the configured tables are buffered and written as batches in the background. Reads of
+// a key with a buffered write see that write. Updates, batch saves and saves with conditions or an override
+// configuration are not buffered, the table is flushed before they are sent.
+// save and delete return before the write is sent: a failed flush only fails the futures of saveAsync and
+// deleteAsync and is counted by MapperMetrics.recordFailures, callers that need to know use the async methods.
+public class WriteBehindDynamoDbMapper extends DynamoDbMapper implements AutoCloseable {
+
+    private final NamingStrategy namingStrategy;
+    private final MapperMetrics metrics;
+    private final Map<String, WriteBehindBuffer> buffers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownScheduler;
+
+    public WriteBehindDynamoDbMapper(DynamoDbClient client, NamingStrategy namingStrategy) {
+        this(client, namingStrategy, MapperMetrics.NOOP);
+    }
+
+    public WriteBehindDynamoDbMapper(DynamoDbClient client, NamingStrategy namingStrategy, MapperMetrics metrics) {
+        this(client, namingStrategy, metrics, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dynamodb-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        }), true);
+    }
+
+    // the scheduler runs the flushes, it is not shut down by close()
+    public WriteBehindDynamoDbMapper(DynamoDbClient client, NamingStrategy namingStrategy, MapperMetrics metrics,
+        ScheduledExecutorService scheduler) {
+        this(client, namingStrategy, metrics, scheduler, false);
+    }
+
+    private WriteBehindDynamoDbMapper(DynamoDbClient client, NamingStrategy namingStrategy, MapperMetrics metrics,
+        ScheduledExecutorService scheduler, boolean ownScheduler) {
+        super(client, namingStrategy, metrics);
+        this.namingStrategy = namingStrategy;
+        this.metrics = metrics;
+        this.scheduler = scheduler;
+        this.ownScheduler = ownScheduler;
+    }
+
+    public WriteBehindDynamoDbMapper writeBehind(String tableName, WriteBehindConfig config) {
+        String resolvedName = namingStrategy.name(tableName);
+        WriteBehindBuffer previous = buffers.put(tableName, new WriteBehindBuffer(config, scheduler,
+            requests -> batchWrite(tableName, config.getBatchOptions(), requests, request -> request),
+            count -> metrics.recordFailures(resolvedName, MapperOperation.BATCH_WRITE, count)));
+        if (previous != null) {
+            previous.close();
+        }
+        return this;
+    }
+
+    // completes once the value is written, right away for tables without write-behind
+    public <T> CompletableFuture<T> saveAsync(String tableName, AttributesMapper<T> mapper, T value) {
+        WriteBehindBuffer buffer = buffers.get(tableName);
+        if (buffer == null) {
+            return CompletableFuture.completedFuture(save(tableName, mapper, value));
+        }
+        return buffer.put(mapper.map(value)).thenApply(ignored -> value);
+    }
+
+    public CompletableFuture<Void> deleteAsync(String tableName, Map<String, AttributeValue> key) {
+        WriteBehindBuffer buffer = buffers.get(tableName);
+        if (buffer == null) {
+            delete(tableName, key);
+            return CompletableFuture.completedFuture(null);
+        }
+        return buffer.delete(key);
+    }
+
+    public int pending(String tableName) {
+        WriteBehindBuffer buffer = buffers.get(tableName);
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    public void flush(String tableName) {
+        WriteBehindBuffer buffer = buffers.get(tableName);
+        if (buffer != null) {
+            buffer.flush();
+        }
+    }
+
+    public void flush() {
+        buffers.values().forEach(WriteBehindBuffer::flush);
+    }
+
+    @Override
+    public void close() {
+        buffers.values().forEach(WriteBehindBuffer::close);
+        if (ownScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Override
+    protected Optional<Map<String, AttributeValue>> getItem(String tableName, String resolvedName,
+        Map<String, AttributeValue> key, Consumer<GetItemRequest.Builder> projection) {
+        WriteBehindBuffer buffer = buffers.get(tableName);
+        if (buffer == null) {
+            return super.getItem(tableName, resolvedName, key, projection);
+        }
+        return buffer.lookup(key).orElseGet(() -> super.getItem(tableName, resolvedName, key, projection));
+    }
+
+    @Override
+    protected void putItem(String tableName, String resolvedName, Map<String, AttributeValue> item,
+        Consumer<PutItemRequest.Builder> saveBuilder) {
+
+        WriteBehindBuffer buffer = buffers.get(tableName);
+        if (buffer == null) {
+            super.putItem(tableName, resolvedName, item, saveBuilder);
+            return;
+        }
+
+        PutItemRequest request = putRequest(tableName, resolvedName, item, saveBuilder);
+        if (bufferable(request)) {
+            buffer.put(item);
+        } else {
+            buffer.flush();
+            super.putItem(resolvedName, request);
+        }
+    }
+
+    // conditions and the override configuration (credentials, headers, timeouts) would be lost in a batch,
+    // return options are not, a buffered save returns nothing
+    private static boolean bufferable(PutItemRequest options) {
+        return options.conditionExpression() == null
+            && !options.hasExpected()
+            && !options.hasExpressionAttributeNames()
+            && !options.hasExpressionAttributeValues()
+            && options.overrideConfiguration().isEmpty();
+    }
+
+    // batch writes must not overtake buffered writes of the same items either
+    @Override
+    public BatchWriteResult batchSave(String tableName, BatchOptions options, Consumer<BatchBuilder> batchBuilder) {
+        flush(tableName);
+        return super.batchSave(tableName, options, batchBuilder);
+    }
+
+    // updates are not buffered, they must not overtake buffered writes of the same item
+    @Override
+    protected void updateItem(String tableName, Map<String, AttributeValue> key,
+        Consumer<UpdateItemRequest.Builder> updateBuilder) {
+        flush(tableName);
+        super.updateItem(tableName, key, updateBuilder);
+    }
+
+    @Override
+    protected void deleteItem(String tableName, String resolvedName, Map<String, AttributeValue> key) {
+        WriteBehindBuffer buffer = buffers.get(tableName);
+        if (buffer == null) {
+            super.deleteItem(tableName, resolvedName, key);
+        } else {
+            buffer.delete(key);
+        }
+    }
+}
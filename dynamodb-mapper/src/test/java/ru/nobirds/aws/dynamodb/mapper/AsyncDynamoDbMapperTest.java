@@ -0,0 +1,205 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.nobirds.aws.dynamodb.mapper.MapperTest.Pet;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+public class AsyncDynamoDbMapperTest {
+
+    private static final String TABLE = "pets";
+    private static final String PREFIXED_TABLE = "test-pets";
+
+    private static final RetryPolicy NO_DELAY = RetryPolicy.of(3, Duration.ZERO, Duration.ZERO);
+
+    private DynamoDbAsyncClient client;
+    private AsyncDynamoDbMapper mapper;
+
+    @BeforeEach
+    public void setUp() {
+        client = mock(DynamoDbAsyncClient.class);
+        mapper = new AsyncDynamoDbMapper(client, name -> "test-" + name);
+    }
+
+    private static List<Pet> pets(int count) {
+        return LongStream.rangeClosed(1, count)
+            .mapToObj(id -> new Pet(id, "pet" + id, null, null, null))
+            .collect(Collectors.toList());
+    }
+
+    private static Map<String, AttributeValue> petKey(long id) {
+        return Map.of("pk", AttributeValue.builder().s("PET").build(),
+            "sk", AttributeValue.builder().s("PET#" + id).build());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetSaveAndDeleteCompleteWithMappedValues() {
+        List<Object> requests = Collections.synchronizedList(new ArrayList<>());
+        Pet pet = pets(1).get(0);
+
+        when(client.getItem(any(Consumer.class))).thenAnswer(invocation -> {
+            GetItemRequest.Builder builder = GetItemRequest.builder();
+            ((Consumer<GetItemRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            requests.add(builder.build());
+            return CompletableFuture.completedFuture(GetItemResponse.builder()
+                .item(Pet.PET_MAPPER.map(pet))
+                .build());
+        });
+        when(client.putItem(any(Consumer.class))).thenAnswer(invocation -> {
+            PutItemRequest.Builder builder = PutItemRequest.builder();
+            ((Consumer<PutItemRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            requests.add(builder.build());
+            return CompletableFuture.completedFuture(PutItemResponse.builder().build());
+        });
+        when(client.deleteItem(any(Consumer.class))).thenAnswer(invocation -> {
+            DeleteItemRequest.Builder builder = DeleteItemRequest.builder();
+            ((Consumer<DeleteItemRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            requests.add(builder.build());
+            return CompletableFuture.completedFuture(DeleteItemResponse.builder().build());
+        });
+
+        Optional<Pet> found = mapper.get(TABLE, Pet.PET_MAPPER, petKey(1)).join();
+        assertThat(found).map(Pet::getName).contains("pet1");
+        assertThat(mapper.save(TABLE, Pet.PET_MAPPER, pet).join()).isSameAs(pet);
+        assertThat(mapper.delete(TABLE, petKey(1)).join()).isNull();
+
+        assertThat(((GetItemRequest) requests.get(0)).tableName()).isEqualTo(PREFIXED_TABLE);
+        assertThat(((GetItemRequest) requests.get(0)).key()).isEqualTo(petKey(1));
+        assertThat(((PutItemRequest) requests.get(1)).item()).isEqualTo(Pet.PET_MAPPER.map(pet));
+        assertThat(((DeleteItemRequest) requests.get(2)).tableName()).isEqualTo(PREFIXED_TABLE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailedCallsCompleteFuturesExceptionally() {
+        when(client.getItem(any(Consumer.class))).thenReturn(CompletableFuture.failedFuture(
+            ResourceNotFoundException.builder().message("Requested resource not found").build()));
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class))).thenReturn(CompletableFuture.failedFuture(
+            DynamoDbException.builder().message("Item size has exceeded the maximum allowed size").build()));
+
+        assertThatThrownBy(() -> mapper.get(TABLE, Pet.PET_MAPPER, petKey(1)).join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(ResourceNotFoundException.class);
+
+        // a rejected batch fails its items, the result still accounts for every item
+        BatchWriteResult result = mapper.batchSave(TABLE,
+            BatchOptions.builder().retryPolicy(NO_DELAY).build(),
+            batch -> pets(30).forEach(pet -> batch.item(pet, Pet.PET_MAPPER))).join();
+        assertThat(result.getWrittenCount()).isZero();
+        assertThat(result.getFailedItems()).hasSize(30);
+        assertThat(result.getRetryCount()).isZero();
+    }
+
+    @Test
+    public void testBatchSaveRetriesUnprocessedAndThrottledBatches() {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger calls = new AtomicInteger();
+
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest request = invocation.getArgument(0);
+            assertThat(request.requestItems()).containsOnlyKeys(PREFIXED_TABLE);
+            List<WriteRequest> requests = request.requestItems().get(PREFIXED_TABLE);
+            batchSizes.add(requests.size());
+
+            switch (calls.incrementAndGet()) {
+                case 1:
+                    return CompletableFuture.completedFuture(BatchWriteItemResponse.builder()
+                        .unprocessedItems(Map.of(PREFIXED_TABLE, requests.subList(0, 2)))
+                        .build());
+                case 3:
+                    return CompletableFuture.failedFuture(ProvisionedThroughputExceededException.builder()
+                        .message("Throughput exceeds the current capacity")
+                        .build());
+                default:
+                    return CompletableFuture.completedFuture(BatchWriteItemResponse.builder().build());
+            }
+        });
+
+        BatchWriteResult result = mapper.batchSave(TABLE,
+            BatchOptions.builder().parallelism(1).retryPolicy(NO_DELAY).build(),
+            batch -> pets(60).forEach(pet -> batch.item(pet, Pet.PET_MAPPER))).join();
+
+        assertThat(batchSizes).containsExactly(25, 2, 25, 25, 10);
+        assertThat(result.getItemCount()).isEqualTo(60);
+        assertThat(result.getWrittenCount()).isEqualTo(60);
+        assertThat(result.getRequestCount()).isEqualTo(5);
+        assertThat(result.getRetryCount()).isEqualTo(2);
+        assertThat(result.isSuccessful()).isTrue();
+    }
+
+    @Test
+    public void testBatchSaveOfManyChunksCompletedInPlaceDoesNotRecurse() throws Exception {
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(BatchWriteItemResponse.builder().build()));
+        List<Pet> pets = pets(2000 * BatchWriter.MAX_BATCH_SIZE);
+        AtomicReference<Object> outcome = new AtomicReference<>();
+
+        // a small stack, chaining a completed future per chunk runs out of it long before the last chunk
+        Thread thread = new Thread(null, () -> {
+            try {
+                outcome.set(mapper.batchSave(TABLE, BatchOptions.builder().parallelism(1).build(),
+                    batch -> pets.forEach(pet -> batch.item(pet, Pet.PET_MAPPER))).join());
+            } catch (RuntimeException | Error e) {
+                outcome.set(e);
+            }
+        }, "small-stack", 256 * 1024);
+        thread.start();
+        thread.join();
+
+        assertThat(outcome.get()).isInstanceOf(BatchWriteResult.class);
+        assertThat(((BatchWriteResult) outcome.get()).getWrittenCount()).isEqualTo(pets.size());
+    }
+
+    @Test
+    public void testBatchSaveReportsItemsFailedAfterRetries() {
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest request = invocation.getArgument(0);
+            List<WriteRequest> requests = request.requestItems().get(PREFIXED_TABLE);
+            return CompletableFuture.completedFuture(BatchWriteItemResponse.builder()
+                .unprocessedItems(Map.of(PREFIXED_TABLE, requests.subList(0, 1)))
+                .build());
+        });
+
+        BatchWriteResult result = mapper.batchSave(TABLE,
+            BatchOptions.builder().parallelism(4).retryPolicy(NO_DELAY).build(),
+            batch -> pets(50).forEach(pet -> batch.item(pet, Pet.PET_MAPPER))).join();
+
+        assertThat(result.getWrittenCount()).isEqualTo(48);
+        assertThat(result.getRetryCount()).isEqualTo(4);
+        assertThat(result.getFailedItems()).hasSize(2);
+        assertThat(result.isSuccessful()).isFalse();
+    }
+}
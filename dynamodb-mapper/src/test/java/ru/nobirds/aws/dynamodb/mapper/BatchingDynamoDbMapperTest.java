@@ -0,0 +1,180 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.nobirds.aws.dynamodb.mapper.MapperTest.Pet;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+
+public class BatchingDynamoDbMapperTest {
+
+    private static final String TABLE = "pets";
+    private static final String PREFIXED_TABLE = "test-pets";
+
+    private DynamoDbClient client;
+    private BatchingDynamoDbMapper mapper;
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void setUp() {
+        client = mock(DynamoDbClient.class);
+        when(client.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(invocation -> {
+            BatchGetItemRequest request = invocation.getArgument(0);
+            List<Map<String, AttributeValue>> keys = request.requestItems().get(PREFIXED_TABLE).keys();
+            batchSizes.add(keys.size());
+
+            // odd ids exist
+            List<Map<String, AttributeValue>> found = keys.stream()
+                .map(key -> Long.parseLong(key.get("sk").s().substring(4)))
+                .filter(id -> id % 2 == 1)
+                .map(id -> Pet.PET_MAPPER.map(new Pet(id, "pet" + id, null, null, null)))
+                .collect(Collectors.toList());
+            return BatchGetItemResponse.builder().responses(Map.of(PREFIXED_TABLE, found)).build();
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        mapper.close();
+    }
+
+    private void batching(int maxKeys, Duration window) {
+        mapper = new BatchingDynamoDbMapper(client, name -> "test-" + name, MapperMetrics.NOOP,
+            GetBatchConfig.builder().maxKeys(maxKeys).window(window).build());
+    }
+
+    private static Map<String, AttributeValue> petKey(long id) {
+        return Map.of("pk", AttributeValue.builder().s("PET").build(),
+            "sk", AttributeValue.builder().s("PET#" + id).build());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConcurrentGetsShareOneBatch() {
+        batching(100, Duration.ofMillis(20));
+
+        List<CompletableFuture<Optional<Pet>>> futures = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            futures.add(mapper.getAsync(TABLE, Pet.PET_MAPPER, petKey(id)));
+        }
+        CompletableFuture<Optional<Pet>> duplicate = mapper.getAsync(TABLE, Pet.PET_MAPPER, petKey(3));
+
+        assertThat(futures.get(0).join().map(Pet::getName)).contains("pet1");
+        assertThat(futures.get(1).join()).isEmpty();
+        assertThat(duplicate.join().map(Pet::getName)).contains("pet3");
+        assertThat(futures.stream().filter(future -> future.join().isPresent())).hasSize(5);
+        assertThat(batchSizes).containsExactly(10);
+        verify(client, never()).getItem(any(Consumer.class));
+    }
+
+    @Test
+    public void testFullBatchIsSentWithoutWaiting() {
+        batching(5, Duration.ofHours(1));
+
+        List<CompletableFuture<Optional<Pet>>> futures = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            futures.add(mapper.getAsync(TABLE, Pet.PET_MAPPER, petKey(id)));
+        }
+
+        assertThat(futures).allMatch(CompletableFuture::isDone);
+        assertThat(batchSizes).containsExactly(5, 5);
+    }
+
+    @Test
+    public void testBlockingGetsFromManyThreads() throws Exception {
+        batching(100, Duration.ofMillis(100));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<Pet>>> results = new ArrayList<>();
+            for (long id = 1; id <= 8; id++) {
+                long current = id;
+                results.add(executor.submit(() -> mapper.get(TABLE, Pet.PET_MAPPER, petKey(current))));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get().isPresent()).isEqualTo(i % 2 == 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(8);
+        assertThat(batchSizes.size()).isLessThan(8);
+    }
+
+    @Test
+    public void testSlowBatchDoesNotHoldBackTheNextWindow() throws Exception {
+        batching(100, Duration.ofMillis(5));
+        CountDownLatch release = new CountDownLatch(1);
+        when(client.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(invocation -> {
+            BatchGetItemRequest request = invocation.getArgument(0);
+            Map<String, AttributeValue> key = request.requestItems().get(PREFIXED_TABLE).keys().get(0);
+            if (key.equals(petKey(1))) {
+                release.await();
+            }
+            return BatchGetItemResponse.builder()
+                .responses(Map.of(PREFIXED_TABLE, List.of(Pet.PET_MAPPER.map(new Pet(3L, "pet3", null, null, null)))))
+                .build();
+        });
+
+        CompletableFuture<Optional<Pet>> slow = mapper.getAsync(TABLE, Pet.PET_MAPPER, petKey(1));
+        Thread.sleep(50);
+        CompletableFuture<Optional<Pet>> next = mapper.getAsync(TABLE, Pet.PET_MAPPER, petKey(3));
+
+        try {
+            assertThat(next.get(5, TimeUnit.SECONDS).map(Pet::getName)).contains("pet3");
+            assertThat(slow).isNotDone();
+        } finally {
+            release.countDown();
+        }
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isEmpty();
+    }
+
+    @Test
+    public void testErrorsReachBlockedGets() {
+        batching(100, Duration.ofMillis(5));
+        when(client.batchGetItem(any(BatchGetItemRequest.class))).thenThrow(new NoClassDefFoundError("Codec"));
+
+        assertThatThrownBy(() -> mapper.get(TABLE, Pet.PET_MAPPER, petKey(1)))
+            .isInstanceOf(NoClassDefFoundError.class);
+    }
+
+    @Test
+    public void testGetAfterCloseIsRejectedEveryTime() {
+        batching(100, Duration.ofMillis(5));
+        mapper.close();
+
+        // the first rejected window must not leave a future behind for the next caller of the key to join
+        assertThatThrownBy(() -> mapper.getAsync(TABLE, Pet.PET_MAPPER, petKey(1)))
+            .isInstanceOf(RejectedExecutionException.class);
+        assertThatThrownBy(() -> mapper.getAsync(TABLE, Pet.PET_MAPPER, petKey(1)))
+            .isInstanceOf(RejectedExecutionException.class);
+    }
+
+}
@@ -0,0 +1,121 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.nobirds.aws.dynamodb.mapper.MapperTest.Pet;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+public class CachingDynamoDbMapperTest {
+
+    private static final String TABLE = "pets";
+
+    private static final Map<String, AttributeValue> KEY = Map.of(
+        "pk", AttributeValue.builder().s("PET").build(),
+        "sk", AttributeValue.builder().s("PET#1").build());
+
+    private DynamoDbClient client;
+    private CachingDynamoDbMapper mapper;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        client = mock(DynamoDbClient.class);
+        mapper = new CachingDynamoDbMapper(client, name -> name)
+            .cache(TABLE, CacheConfig.builder().maxEntries(10).build());
+
+        when(client.getItem(any(Consumer.class))).thenReturn(GetItemResponse.builder()
+            .item(Pet.PET_MAPPER.map(new Pet(1L, "cached", null, null, null)))
+            .build());
+        when(client.putItem(any(PutItemRequest.class))).thenReturn(PutItemResponse.builder().build());
+        when(client.deleteItem(any(Consumer.class))).thenReturn(DeleteItemResponse.builder().build());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRepeatedGetHitsCache() {
+        Optional<Pet> first = mapper.get(TABLE, Pet.PET_MAPPER, KEY);
+        Optional<Pet> second = mapper.get(TABLE, Pet.PET_MAPPER, KEY);
+
+        assertThat(first).isEqualTo(second);
+        assertThat(second.map(Pet::getName)).contains("cached");
+        verify(client, times(1)).getItem(any(Consumer.class));
+
+        CacheStats stats = mapper.stats(TABLE).orElseThrow();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+        assertThat(stats.getLoads()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSaveRefreshesCachedItem() {
+        mapper.get(TABLE, Pet.PET_MAPPER, KEY);
+        mapper.save(TABLE, Pet.PET_MAPPER, new Pet(1L, "saved", null, null, null));
+
+        assertThat(mapper.get(TABLE, Pet.PET_MAPPER, KEY).map(Pet::getName)).contains("saved");
+        verify(client, times(1)).getItem(any(Consumer.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDeleteInvalidatesCachedItem() {
+        mapper.get(TABLE, Pet.PET_MAPPER, KEY);
+        mapper.delete(TABLE, KEY);
+        mapper.get(TABLE, Pet.PET_MAPPER, KEY);
+
+        verify(client, times(2)).getItem(any(Consumer.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateInvalidatesCachedItem() {
+        when(client.updateItem(any(Consumer.class))).thenReturn(UpdateItemResponse.builder().build());
+
+        mapper.get(TABLE, Pet.PET_MAPPER, KEY);
+        Tracked<Pet> tracked = mapper.getTracked(TABLE, Pet.PET_MAPPER, KEY).orElseThrow();
+        tracked.getValue().setName("updated");
+        mapper.update(TABLE, Pet.PET_MAPPER, tracked);
+        mapper.get(TABLE, Pet.PET_MAPPER, KEY);
+
+        verify(client, times(1)).updateItem(any(Consumer.class));
+        verify(client, times(3)).getItem(any(Consumer.class));
+    }
+
+    @Test
+    public void testTinyLfuCountsOnlyReplacedEntriesAsEvictions() {
+        ItemCache cache = new ItemCache(CacheConfig.builder().maxEntries(1).policy(CachePolicy.TINY_LFU).build());
+        Map<String, AttributeValue> other = Map.of(
+            "pk", AttributeValue.builder().s("PET").build(),
+            "sk", AttributeValue.builder().s("PET#2").build());
+
+        for (int i = 0; i < 5; i++) {
+            cache.get(KEY, Optional::of);
+        }
+        cache.get(other, Optional::of);
+
+        // the candidate either replaced the eldest entry or was turned away, never both
+        CacheStats stats = cache.stats();
+        assertThat(stats.getEvictions() + stats.getRejections()).isEqualTo(1);
+        assertThat(stats.getSize()).isEqualTo(1);
+
+        boolean replaced = stats.getEvictions() == 1;
+        cache.get(KEY, Optional::of);
+        assertThat(cache.stats().getLoads()).isEqualTo(replaced ? 3 : 2);
+    }
+}
@@ -0,0 +1,94 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+public class CapacityLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+    private final CapacityLimiter limiter = new CapacityLimiter(10, now::get);
+
+    @Test
+    public void testDebtIsPaidByLaterCallers() {
+        assertThat(limiter.reserve(25)).isZero();
+        // 15 units in debt at 10 units per second
+        assertThat(limiter.reserve(1)).isEqualTo(SECOND * 15 / 10);
+
+        now.addAndGet(SECOND * 2);
+        assertThat(limiter.reserve(1)).isZero();
+    }
+
+    @Test
+    public void testChargeCorrectsTheEstimate() {
+        assertThat(limiter.reserve(10)).isZero();
+        limiter.charge(-10);
+        assertThat(limiter.reserve(10)).isZero();
+        limiter.charge(5);
+        assertThat(limiter.reserve(1)).isEqualTo(SECOND / 2);
+    }
+
+    @Test
+    public void testThrottlingHalvesTheRateUntilItRecovers() {
+        limiter.throttled();
+        assertThat(limiter.getRate()).isEqualTo(5);
+        limiter.throttled();
+        limiter.throttled();
+        limiter.throttled();
+        assertThat(limiter.getRate()).isEqualTo(1);
+
+        now.addAndGet(SECOND * 10);
+        assertThat(limiter.getRate()).isEqualTo(6);
+        now.addAndGet(SECOND * 10);
+        assertThat(limiter.getRate()).isEqualTo(10);
+    }
+
+    @Test
+    public void testPagesAreChargedTheirConsumedCapacity() {
+        List<ScanResponse> pages = List.of(page(4), page(6));
+
+        var iterator = limiter.limit(pages.iterator(), ScanResponse::consumedCapacity);
+        iterator.next();
+        iterator.next();
+
+        // the pages used up the bucket, the next reservation puts it 10 units in debt
+        assertThat(limiter.reserve(10)).isZero();
+        assertThat(limiter.reserve(0)).isEqualTo(SECOND);
+    }
+
+    @Test
+    public void testThrottledPageSlowsDown() {
+        var iterator = limiter.limit(List.<ScanResponse>of().iterator(), ScanResponse::consumedCapacity);
+        var throttled = limiter.limit(new Iterator<ScanResponse>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public ScanResponse next() {
+                throw ProvisionedThroughputExceededException.builder().message("slow down").build();
+            }
+        }, ScanResponse::consumedCapacity);
+
+        assertThat(iterator.hasNext()).isFalse();
+        assertThatThrownBy(throttled::next).isInstanceOf(ProvisionedThroughputExceededException.class);
+        assertThat(limiter.getRate()).isEqualTo(5);
+    }
+
+    private static ScanResponse page(double units) {
+        return ScanResponse.builder()
+            .consumedCapacity(ConsumedCapacity.builder().capacityUnits(units).build())
+            .build();
+    }
+}
@@ -0,0 +1,740 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.nobirds.aws.dynamodb.mapper.MapperTest.Pet;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.InternalServerErrorException;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+import software.amazon.awssdk.services.dynamodb.paginators.QueryIterable;
+import software.amazon.awssdk.services.dynamodb.paginators.ScanIterable;
+
+public class DynamoDbMapperTest {
+
+    private static final String TABLE = "pets";
+    private static final String PREFIXED_TABLE = "test-pets";
+
+    private static final RetryPolicy NO_DELAY = RetryPolicy.of(3, Duration.ZERO, Duration.ZERO);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private DynamoDbClient client;
+    private DynamoDbMapper mapper;
+
+    @BeforeEach
+    public void setUp() {
+        client = mock(DynamoDbClient.class);
+        mapper = new DynamoDbMapper(client, name -> "test-" + name);
+    }
+
+    private static List<Pet> pets(int count) {
+        return LongStream.rangeClosed(1, count)
+            .mapToObj(id -> new Pet(id, "pet" + id, null, null, null))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testBatchSaveSplitsItemsAndRetriesUnprocessed() {
+        List<Integer> batchSizes = new ArrayList<>();
+        AtomicBoolean throttled = new AtomicBoolean();
+
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest request = invocation.getArgument(0);
+            assertThat(request.requestItems()).containsOnlyKeys(PREFIXED_TABLE);
+            List<WriteRequest> requests = request.requestItems().get(PREFIXED_TABLE);
+            batchSizes.add(requests.size());
+
+            if (throttled.compareAndSet(false, true)) {
+                return BatchWriteItemResponse.builder()
+                    .unprocessedItems(Map.of(PREFIXED_TABLE, requests.subList(0, 2)))
+                    .build();
+            }
+            return BatchWriteItemResponse.builder().build();
+        });
+
+        BatchWriteResult result = mapper.batchSave(TABLE,
+            BatchOptions.builder().parallelism(1).retryPolicy(NO_DELAY).build(),
+            batch -> pets(60).forEach(pet -> batch.item(pet, Pet.PET_MAPPER)));
+
+        assertThat(batchSizes).containsExactly(25, 2, 25, 10);
+        assertThat(result.getItemCount()).isEqualTo(60);
+        assertThat(result.getWrittenCount()).isEqualTo(60);
+        assertThat(result.getRequestCount()).isEqualTo(4);
+        assertThat(result.getRetryCount()).isEqualTo(1);
+        assertThat(result.isSuccessful()).isTrue();
+    }
+
+    @Test
+    public void testBatchSaveReportsItemsFailedAfterRetries() {
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest request = invocation.getArgument(0);
+            List<WriteRequest> requests = request.requestItems().get(PREFIXED_TABLE);
+            return BatchWriteItemResponse.builder()
+                .unprocessedItems(Map.of(PREFIXED_TABLE, requests.subList(0, 1)))
+                .build();
+        });
+
+        BatchWriteResult result = mapper.batchSave(TABLE,
+            BatchOptions.builder().parallelism(4).retryPolicy(NO_DELAY).build(),
+            batch -> pets(50).forEach(pet -> batch.item(pet, Pet.PET_MAPPER)));
+
+        assertThat(result.getWrittenCount()).isEqualTo(48);
+        assertThat(result.getRetryCount()).isEqualTo(4);
+        assertThat(result.getFailedItems()).hasSize(2);
+        assertThat(result.isSuccessful()).isFalse();
+    }
+
+    @Test
+    public void testBatchSaveRetriesServerErrorsAndFailsRejectedChunks() {
+        AtomicInteger calls = new AtomicInteger();
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            switch (calls.incrementAndGet()) {
+                case 1:
+                    throw InternalServerErrorException.builder().message("Internal server error").build();
+                case 2:
+                    throw DynamoDbException.builder()
+                        .message("Provided list of item keys contains duplicates")
+                        .build();
+                default:
+                    return BatchWriteItemResponse.builder().build();
+            }
+        });
+
+        BatchWriteResult result = mapper.batchSave(TABLE,
+            BatchOptions.builder().parallelism(1).retryPolicy(NO_DELAY).build(),
+            batch -> pets(60).forEach(pet -> batch.item(pet, Pet.PET_MAPPER)));
+
+        // the first chunk is retried after the server error and then rejected, the other two are written
+        assertThat(calls.get()).isEqualTo(4);
+        assertThat(result.getWrittenCount()).isEqualTo(35);
+        assertThat(result.getRetryCount()).isEqualTo(1);
+        assertThat(result.getFailedItems()).hasSize(25);
+    }
+
+    @Test
+    public void testBatchSaveRejectsOversizedItemsWithoutSendingThem() {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest request = invocation.getArgument(0);
+            batchSizes.add(request.requestItems().get(PREFIXED_TABLE).size());
+            return BatchWriteItemResponse.builder().build();
+        });
+
+        List<Pet> pets = pets(10);
+        pets.get(3).setName("x".repeat(ItemSize.MAX_ITEM_BYTES));
+
+        BatchWriteResult result = mapper.batchSave(TABLE, BatchOptions.builder().parallelism(1).build(),
+            batch -> pets.forEach(pet -> batch.item(pet, Pet.PET_MAPPER)));
+
+        assertThat(batchSizes).containsExactly(9);
+        assertThat(result.getWrittenCount()).isEqualTo(9);
+        assertThat(result.getFailedItems()).hasSize(1);
+        assertThat(result.getFailedItems().get(0).putRequest().item().get("id").n()).isEqualTo("4");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTableHandleEncodesKeysAndResolvesName() {
+        List<GetItemRequest> gets = new ArrayList<>();
+        when(client.getItem(any(Consumer.class))).thenAnswer(invocation -> {
+            GetItemRequest.Builder builder = GetItemRequest.builder();
+            ((Consumer<GetItemRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            gets.add(builder.build());
+            return GetItemResponse.builder().item(Pet.PET_MAPPER.map(new Pet(1L, "pet", null, null, null))).build();
+        });
+        List<DeleteItemRequest> deletes = new ArrayList<>();
+        when(client.deleteItem(any(Consumer.class))).thenAnswer(invocation -> {
+            DeleteItemRequest.Builder builder = DeleteItemRequest.builder();
+            ((Consumer<DeleteItemRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            deletes.add(builder.build());
+            return DeleteItemResponse.builder().build();
+        });
+        List<QueryRequest> queries = new ArrayList<>();
+        when(client.queryPaginator(any(Consumer.class))).thenAnswer(invocation -> {
+            QueryRequest.Builder builder = QueryRequest.builder();
+            ((Consumer<QueryRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            queries.add(builder.build());
+            return new QueryIterable(client, builder.build());
+        });
+        when(client.query(any(QueryRequest.class))).thenReturn(QueryResponse.builder().items(List.of()).build());
+
+        SortedTable<Pet, String, Long> pets = mapper.table(TABLE, Pet.PET_MAPPER,
+            "pk", AttributeMappers.STRING,
+            "sk", AttributeMappers.STRING
+                .map(BidirectionalMapper.hashed("PET"))
+                .map(BidirectionalMapper.STRING_TO_NUMERIC));
+
+        assertThat(pets.getResolvedName()).isEqualTo(PREFIXED_TABLE);
+        assertThat(pets.get("PET", 1L).map(Pet::getName)).contains("pet");
+        assertThat(gets.get(0).tableName()).isEqualTo(PREFIXED_TABLE);
+        assertThat(gets.get(0).key()).isEqualTo(petKey(1));
+        assertThat(gets.get(0).projectionExpression()).isNotNull();
+
+        pets.delete("PET", 2L);
+        mapper.delete(TABLE, petKey(3));
+        assertThat(deletes).extracting(DeleteItemRequest::tableName).containsExactly(PREFIXED_TABLE, PREFIXED_TABLE);
+        assertThat(deletes.get(0).key()).isEqualTo(petKey(2));
+
+        assertThat(pets.query("PET", builder -> builder
+            .keyConditionExpression("#s > :s")
+            .expressionAttributeNames(Map.of("#s", "sk"))
+            .expressionAttributeValues(Map.of(":s", pets.sortValue(5L))))).isEmpty();
+        QueryRequest query = queries.get(0);
+        assertThat(query.tableName()).isEqualTo(PREFIXED_TABLE);
+        assertThat(query.keyConditionExpression()).isEqualTo("#hk = :hk AND #s > :s");
+        assertThat(query.expressionAttributeNames()).containsEntry("#hk", "pk").containsEntry("#s", "sk");
+        assertThat(query.expressionAttributeValues())
+            .containsEntry(":hk", AttributeValue.builder().s("PET").build())
+            .containsEntry(":s", AttributeValue.builder().s("PET#5").build());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTableHandlesGoThroughHooksAndResolveTheNameOnce() {
+        List<String> hooks = new ArrayList<>();
+        AtomicInteger resolved = new AtomicInteger();
+        DynamoDbMapper intercepting = new DynamoDbMapper(client, name -> {
+            resolved.incrementAndGet();
+            return "test-" + name;
+        }) {
+            @Override
+            protected Optional<Map<String, AttributeValue>> getItem(String tableName, String resolvedName,
+                Map<String, AttributeValue> key, Consumer<GetItemRequest.Builder> projection) {
+                hooks.add("get " + resolvedName);
+                return Optional.empty();
+            }
+
+            @Override
+            protected void putItem(String tableName, String resolvedName, Map<String, AttributeValue> item,
+                Consumer<PutItemRequest.Builder> saveBuilder) {
+                hooks.add("put " + resolvedName);
+            }
+
+            @Override
+            protected void deleteItem(String tableName, String resolvedName, Map<String, AttributeValue> key) {
+                hooks.add("delete " + resolvedName);
+            }
+        };
+        when(client.queryPaginator(any(Consumer.class))).thenAnswer(invocation -> {
+            QueryRequest.Builder builder = QueryRequest.builder();
+            ((Consumer<QueryRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            return new QueryIterable(client, builder.build());
+        });
+        when(client.query(any(QueryRequest.class))).thenReturn(QueryResponse.builder().items(List.of()).build());
+        when(client.scanPaginator(any(Consumer.class))).thenAnswer(invocation -> {
+            ScanRequest.Builder builder = ScanRequest.builder();
+            ((Consumer<ScanRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            assertThat(builder.build().tableName()).isEqualTo(PREFIXED_TABLE);
+            return new ScanIterable(client, builder.build());
+        });
+        when(client.scan(any(ScanRequest.class))).thenReturn(ScanResponse.builder().items(List.of()).build());
+
+        SortedTable<Pet, String, Long> pets = intercepting.table(TABLE, Pet.PET_MAPPER,
+            "pk", AttributeMappers.STRING,
+            "sk", AttributeMappers.STRING
+                .map(BidirectionalMapper.hashed("PET"))
+                .map(BidirectionalMapper.STRING_TO_NUMERIC));
+        AtomicInteger builderRuns = new AtomicInteger();
+
+        assertThat(pets.get("PET", 1L)).isEmpty();
+        pets.save(pets(1).get(0));
+        pets.delete("PET", 1L);
+        assertThat(pets.query("PET", builder -> builderRuns.incrementAndGet())).isEmpty();
+        assertThat(pets.scan()).isEmpty();
+
+        assertThat(hooks).containsExactly("get test-pets", "put test-pets", "delete test-pets");
+        assertThat(builderRuns.get()).isEqualTo(1);
+        assertThat(resolved.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testQueryManyMergesPartitionsBySortKey() {
+        when(client.queryPaginator(any(QueryRequest.class)))
+            .thenAnswer(invocation -> new QueryIterable(client, invocation.getArgument(0)));
+        // partition n holds ids n, n + 3, n + 6, n + 9 in pages of two
+        AtomicInteger requests = new AtomicInteger();
+        List<Integer> limits = Collections.synchronizedList(new ArrayList<>());
+        when(client.query(any(QueryRequest.class))).thenAnswer(invocation -> {
+            QueryRequest request = invocation.getArgument(0);
+            requests.incrementAndGet();
+            limits.add(request.limit());
+            assertThat(request.indexName()).isEqualTo("by-owner");
+            long partition = Long.parseLong(request.expressionAttributeValues().get(":hk").n());
+            boolean forward = !Boolean.FALSE.equals(request.scanIndexForward());
+            long step = forward ? 3 : -3;
+            long first = forward ? partition : partition + 9;
+            if (request.hasExclusiveStartKey()) {
+                first += 2 * step;
+            }
+            QueryResponse.Builder response = QueryResponse.builder().items(
+                Pet.PET_MAPPER.map(new Pet(first, "pet", null, null, null)),
+                Pet.PET_MAPPER.map(new Pet(first + step, "pet", null, null, null)));
+            if (!request.hasExclusiveStartKey()) {
+                response.lastEvaluatedKey(petKey(first + step));
+            }
+            return response.build();
+        });
+
+        List<AttributeValue> owners = LongStream.rangeClosed(1, 3)
+            .mapToObj(owner -> AttributeValue.builder().n(Long.toString(owner)).build())
+            .collect(Collectors.toList());
+
+        try (Stream<Pet> pets = mapper.queryMany(TABLE, "by-owner", Pet.PET_MAPPER, "owner", owners, "id")) {
+            assertThat(pets.map(Pet::getId)).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L);
+        }
+        assertThat(requests.get()).isEqualTo(6);
+        assertThat(limits).containsOnlyNulls();
+
+        limits.clear();
+        AtomicInteger builderRuns = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Stream<Pet> pets = mapper.queryMany(TABLE, "by-owner", Pet.PET_MAPPER, "owner", owners, "id",
+            builder -> {
+                builderRuns.incrementAndGet();
+                builder.scanIndexForward(false).limit(100);
+            },
+            QueryManyOptions.builder().executor(executor).parallelism(1).limit(2).build())) {
+            assertThat(pets.map(Pet::getId)).containsExactly(12L, 11L);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(builderRuns.get()).isEqualTo(1);
+        assertThat(limits).isNotEmpty().containsOnly(2);
+    }
+
+    @Test
+    public void testQueryManyMergesStringSortKeysInUtf8Order() {
+        when(client.queryPaginator(any(QueryRequest.class)))
+            .thenAnswer(invocation -> new QueryIterable(client, invocation.getArgument(0)));
+        // each partition comes sorted by the UTF-8 bytes of the name, U+FF21 sorts before U+1F600 there
+        Map<String, List<String>> names = Map.of("1", List.of("a", "\uFF21"), "2", List.of("\uD83D\uDE00"));
+        when(client.query(any(QueryRequest.class))).thenAnswer(invocation -> {
+            QueryRequest request = invocation.getArgument(0);
+            List<String> partition = names.get(request.expressionAttributeValues().get(":hk").n());
+            return QueryResponse.builder()
+                .items(partition.stream()
+                    .map(name -> Pet.PET_MAPPER.map(new Pet(1L, name, null, null, null)))
+                    .collect(Collectors.toList()))
+                .build();
+        });
+
+        List<AttributeValue> owners = List.of(AttributeValue.builder().n("1").build(),
+            AttributeValue.builder().n("2").build());
+        try (Stream<Pet> pets = mapper.queryMany(TABLE, "by-owner", Pet.PET_MAPPER, "owner", owners, "name")) {
+            assertThat(pets.map(Pet::getName)).containsExactly("a", "\uFF21", "\uD83D\uDE00");
+        }
+    }
+
+    private static Map<String, AttributeValue> petKey(long id) {
+        return Map.of("pk", AttributeValue.builder().s("PET").build(),
+            "sk", AttributeValue.builder().s("PET#" + id).build());
+    }
+
+    @Test
+    public void testBatchGetDeduplicatesKeysAndKeepsInputOrder() {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean throttled = new AtomicBoolean();
+
+        when(client.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(invocation -> {
+            BatchGetItemRequest request = invocation.getArgument(0);
+            List<Map<String, AttributeValue>> keys = request.requestItems().get(PREFIXED_TABLE).keys();
+            batchSizes.add(keys.size());
+
+            List<Map<String, AttributeValue>> found = new ArrayList<>();
+            List<Map<String, AttributeValue>> unprocessed = new ArrayList<>();
+            for (Map<String, AttributeValue> key : keys) {
+                if (unprocessed.isEmpty() && throttled.compareAndSet(false, true)) {
+                    unprocessed.add(key);
+                } else {
+                    found.add(Pet.PET_MAPPER.map(new Pet(Long.parseLong(key.get("sk").s().substring(4)),
+                        "pet", null, null, null)));
+                }
+            }
+
+            return BatchGetItemResponse.builder()
+                .responses(Map.of(PREFIXED_TABLE, found))
+                .unprocessedKeys(unprocessed.isEmpty() ? Map.of()
+                    : Map.of(PREFIXED_TABLE, KeysAndAttributes.builder().keys(unprocessed).build()))
+                .build();
+        });
+
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (long id = 150; id > 0; id--) {
+            keys.add(petKey(id));
+        }
+        keys.add(petKey(1));
+
+        List<Pet> pets = mapper.batchGet(TABLE, Pet.PET_MAPPER, keys);
+
+        assertThat(batchSizes).containsExactlyInAnyOrder(100, 1, 50);
+        assertThat(pets).hasSize(150);
+        assertThat(pets.get(0).getId()).isEqualTo(150L);
+        assertThat(pets.get(149).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testParallelScanMergesAllSegmentPages() {
+        when(client.scanPaginator(any(Consumer.class))).thenAnswer(invocation -> {
+            ScanRequest.Builder builder = ScanRequest.builder();
+            ((Consumer<ScanRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            return new ScanIterable(client, builder.build());
+        });
+
+        when(client.scan(any(ScanRequest.class))).thenAnswer(invocation -> {
+            ScanRequest request = invocation.getArgument(0);
+            assertThat(request.tableName()).isEqualTo(PREFIXED_TABLE);
+            assertThat(request.totalSegments()).isEqualTo(4);
+
+            long page = request.hasExclusiveStartKey() ? 1 : 0;
+            long id = request.segment() * 10 + page * 5;
+            List<Map<String, AttributeValue>> items = pets(5).stream()
+                .peek(pet -> pet.setId(pet.getId() + id))
+                .map(Pet.PET_MAPPER::map)
+                .collect(Collectors.toList());
+
+            ScanResponse.Builder response = ScanResponse.builder().items(items);
+            if (page == 0) {
+                response.lastEvaluatedKey(petKey(id));
+            }
+            return response.build();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (Stream<Pet> pets = mapper.parallelScan(TABLE, Pet.PET_MAPPER, 4, executor)) {
+            assertThat(pets.map(Pet::getId)).containsExactlyInAnyOrderElementsOf(
+                LongStream.rangeClosed(1, 40).boxed().collect(Collectors.toList()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testParallelScanSurfacesSegmentErrorsAndRejectedSegments() {
+        when(client.scanPaginator(any(Consumer.class))).thenAnswer(invocation -> {
+            ScanRequest.Builder builder = ScanRequest.builder();
+            ((Consumer<ScanRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            return new ScanIterable(client, builder.build());
+        });
+        when(client.scan(any(ScanRequest.class))).thenAnswer(invocation -> {
+            ScanRequest request = invocation.getArgument(0);
+            if (request.segment() == 1) {
+                throw new NoClassDefFoundError("broken mapper");
+            }
+            return ScanResponse.builder().items(Pet.PET_MAPPER.map(pets(1).get(0))).build();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (Stream<Pet> pets = mapper.parallelScan(TABLE, Pet.PET_MAPPER, 2, executor)) {
+            assertThatThrownBy(pets::count).isInstanceOf(NoClassDefFoundError.class);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the first segment is started, the second one is rejected
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService bounded = Executors.newSingleThreadExecutor();
+        Executor rejecting = task -> {
+            if (accepted.getAndIncrement() > 0) {
+                throw new RejectedExecutionException("queue is full");
+            }
+            bounded.execute(task);
+        };
+        try {
+            assertThatThrownBy(() -> mapper.parallelScan(TABLE, Pet.PET_MAPPER, 2, rejecting))
+                .isInstanceOf(RejectedExecutionException.class);
+        } finally {
+            bounded.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testQueryProjectsMapperAttributes() {
+        List<QueryRequest> requests = new ArrayList<>();
+        when(client.queryPaginator(any(Consumer.class))).thenAnswer(invocation -> {
+            QueryRequest.Builder builder = QueryRequest.builder();
+            ((Consumer<QueryRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            QueryRequest request = builder.build();
+            requests.add(request);
+            return new QueryIterable(client, request);
+        });
+        when(client.query(any(QueryRequest.class))).thenReturn(QueryResponse.builder()
+            .items(pets(2).stream().map(Pet.PET_MAPPER::map).collect(Collectors.toList()))
+            .build());
+
+        // the request builder runs once per request, not once more to find the projection
+        AtomicInteger built = new AtomicInteger();
+        Consumer<QueryRequest.Builder> byPk = builder -> builder
+            .keyConditionExpression("#pk = :pk")
+            .expressionAttributeNames(Map.of("#pk", "pk"))
+            .expressionAttributeValues(Map.of(":pk", AttributeValue.builder().s("PET#" + built.incrementAndGet())
+                .build()));
+
+        assertThat(mapper.query(TABLE, Pet.PET_MAPPER, byPk).map(Pet::getId)).containsExactly(1L, 2L);
+        assertThat(mapper.query(TABLE, "byName", Pet.PET_MAPPER, byPk).count()).isEqualTo(2);
+        assertThat(built.get()).isEqualTo(2);
+
+        QueryRequest projected = requests.get(0);
+        assertThat(projected.tableName()).isEqualTo(PREFIXED_TABLE);
+        assertThat(projected.expressionAttributeNames()).containsEntry("#pk", "pk");
+        assertThat(projected.expressionAttributeValues().get(":pk").s()).isEqualTo("PET#1");
+        assertThat(Stream.of(projected.projectionExpression().split(","))
+            .map(projected.expressionAttributeNames()::get))
+            .containsExactlyInAnyOrder("id", "name", "sk", "cost", "dateOfBirth", "owner");
+
+        QueryRequest index = requests.get(1);
+        assertThat(index.projectionExpression()).isNull();
+        assertThat(index.expressionAttributeNames()).containsOnlyKeys("#pk");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPrefetchedQueryKeepsOrderAndStaysBounded() throws Exception {
+        AtomicInteger fetched = new AtomicInteger();
+        when(client.queryPaginator(any(Consumer.class))).thenAnswer(invocation -> {
+            QueryRequest.Builder builder = QueryRequest.builder();
+            ((Consumer<QueryRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            return new QueryIterable(client, builder.build());
+        });
+        when(client.query(any(QueryRequest.class))).thenAnswer(invocation -> {
+            QueryRequest request = invocation.getArgument(0);
+            int page = request.hasExclusiveStartKey()
+                ? Integer.parseInt(request.exclusiveStartKey().get("page").n()) + 1
+                : 0;
+            fetched.incrementAndGet();
+
+            QueryResponse.Builder response = QueryResponse.builder().items(LongStream
+                .range(page * 100, page * 100 + 100)
+                .mapToObj(id -> Pet.PET_MAPPER.map(new Pet(id, "pet" + id, null, null, null)))
+                .collect(Collectors.toList()));
+            if (page < 9) {
+                response.lastEvaluatedKey(Map.of("page", AttributeValues.number(page)));
+            }
+            return response.build();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            PrefetchOptions prefetch = PrefetchOptions.builder()
+                .pages(1)
+                .mappingExecutor(executor)
+                .mappingChunkSize(16)
+                .build();
+
+            try (Stream<Pet> pets = mapper.query(TABLE, Pet.PET_MAPPER, builder -> {}, prefetch)) {
+                Iterator<Pet> iterator = pets.iterator();
+                assertThat(iterator.next().getId()).isZero();
+
+                // one page queued and one waiting to be queued, the rest is not fetched yet
+                Thread.sleep(200);
+                assertThat(fetched.get()).isLessThanOrEqualTo(3);
+            }
+
+            try (Stream<Pet> pets = mapper.query(TABLE, Pet.PET_MAPPER, builder -> {}, prefetch)) {
+                assertThat(pets.map(Pet::getId).collect(Collectors.toList()))
+                    .isEqualTo(LongStream.range(0, 1000).boxed().collect(Collectors.toList()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPrefetchedQuerySurfacesFetchErrorsAndRejection() {
+        when(client.queryPaginator(any(Consumer.class))).thenAnswer(invocation -> {
+            QueryRequest.Builder builder = QueryRequest.builder();
+            ((Consumer<QueryRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            return new QueryIterable(client, builder.build());
+        });
+        when(client.query(any(QueryRequest.class))).thenThrow(new NoClassDefFoundError("QueryResponse"));
+
+        try (Stream<Pet> pets = mapper.query(TABLE, Pet.PET_MAPPER, builder -> {}, PrefetchOptions.DEFAULT)) {
+            assertThatThrownBy(pets::count).isInstanceOf(NoClassDefFoundError.class);
+        }
+
+        Executor rejecting = task -> {
+            throw new RejectedExecutionException("queue is full");
+        };
+        assertThatThrownBy(() -> mapper.query(TABLE, Pet.PET_MAPPER, builder -> {},
+            PrefetchOptions.builder().executor(rejecting).build()))
+            .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateSendsOnlyChangedAttributes() {
+        when(client.getItem(any(Consumer.class))).thenReturn(GetItemResponse.builder()
+            .item(Pet.PET_MAPPER.map(new Pet(1L, "pet", null, 10.0, null)))
+            .build());
+        List<UpdateItemRequest> updates = new ArrayList<>();
+        when(client.updateItem(any(Consumer.class))).thenAnswer(invocation -> {
+            UpdateItemRequest.Builder builder = UpdateItemRequest.builder();
+            ((Consumer<UpdateItemRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            updates.add(builder.build());
+            return UpdateItemResponse.builder().build();
+        });
+
+        Tracked<Pet> tracked = mapper.getTracked(TABLE, Pet.PET_MAPPER, petKey(1)).orElseThrow();
+        tracked.getValue().setName("renamed");
+        tracked.getValue().setCost(null);
+        AtomicInteger built = new AtomicInteger();
+        mapper.update(TABLE, Pet.PET_MAPPER, tracked, builder -> builder
+            .conditionExpression("attribute_exists(#u" + built.getAndIncrement() + ")")
+            .expressionAttributeNames(Map.of("#u0", "pk")));
+
+        assertThat(built.get()).isEqualTo(1);
+        assertThat(updates).hasSize(1);
+        UpdateItemRequest update = updates.get(0);
+        assertThat(update.tableName()).isEqualTo(PREFIXED_TABLE);
+        assertThat(update.key()).isEqualTo(petKey(1));
+        assertThat(update.conditionExpression()).isEqualTo("attribute_exists(#u0)");
+        assertThat(update.updateExpression()).isEqualTo("SET #u1 = :u1 REMOVE #u2");
+        assertThat(update.expressionAttributeNames())
+            .containsExactlyInAnyOrderEntriesOf(Map.of("#u0", "pk", "#u1", "name", "#u2", "cost"));
+        assertThat(update.expressionAttributeValues())
+            .containsExactlyEntriesOf(Map.of(":u1", AttributeValue.builder().s("renamed").build()));
+
+        mapper.update(TABLE, Pet.PET_MAPPER, tracked);
+        assertThat(updates).hasSize(1);
+
+        tracked.getValue().setName("again");
+        assertThatThrownBy(() -> mapper.update(TABLE, Pet.PET_MAPPER, tracked, builder -> builder
+            .updateExpression("ADD #visits :one")))
+            .isInstanceOf(IllegalArgumentException.class);
+        tracked.getValue().setId(2L);
+        assertThatThrownBy(() -> mapper.update(TABLE, Pet.PET_MAPPER, tracked))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(updates).hasSize(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConfiguredLimitersPaceScansAndBatchWrites() {
+        List<Long> readWaits = new ArrayList<>();
+        List<Long> writeWaits = new ArrayList<>();
+        // the clock stands still, so every wait is what the mapper's own requests put the bucket into
+        mapper.limit(TABLE, recordingLimiter(readWaits), recordingLimiter(writeWaits));
+
+        List<ScanRequest> requests = new ArrayList<>();
+        when(client.scanPaginator(any(Consumer.class))).thenAnswer(invocation -> {
+            ScanRequest.Builder builder = ScanRequest.builder();
+            ((Consumer<ScanRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            requests.add(builder.build());
+            return new ScanIterable(client, builder.build());
+        });
+        AtomicInteger pages = new AtomicInteger();
+        when(client.scan(any(ScanRequest.class))).thenAnswer(invocation -> {
+            int page = pages.incrementAndGet();
+            ScanResponse.Builder response = ScanResponse.builder()
+                .items(List.of(Pet.PET_MAPPER.map(pets(page).get(page - 1))))
+                .consumedCapacity(capacity -> capacity.tableName(PREFIXED_TABLE).capacityUnits(10.0));
+            if (page < 3) {
+                response.lastEvaluatedKey(petKey(page));
+            }
+            return response.build();
+        });
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class)))
+            .thenReturn(BatchWriteItemResponse.builder().build());
+
+        assertThat(mapper.scan(TABLE, Pet.PET_MAPPER).count()).isEqualTo(3);
+        mapper.batchSave(TABLE, BatchOptions.builder().parallelism(1).retryPolicy(NO_DELAY).build(),
+            batch -> pets(60).forEach(pet -> batch.item(pet, Pet.PET_MAPPER)));
+
+        assertThat(requests.get(0).returnConsumedCapacity()).isEqualTo(ReturnConsumedCapacity.TOTAL);
+        // 10 units a page against a 10 units bucket, the third page waits for the second one's units
+        assertThat(readWaits).containsExactly(0L, 0L, SECOND);
+        // 25, 25 and 10 items of one unit each, every chunk waits off the debt of the ones before it
+        assertThat(writeWaits).containsExactly(0L, SECOND * 15 / 10, SECOND * 4);
+    }
+
+    private static CapacityLimiter recordingLimiter(List<Long> waits) {
+        return new CapacityLimiter(10, () -> 0L) {
+            @Override
+            public void acquire(double units) {
+                waits.add(reserve(units));
+            }
+        };
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMetricsRecordPagesCapacityAndMapping() {
+        InMemoryMapperMetrics metrics = new InMemoryMapperMetrics();
+        DynamoDbMapper metered = new DynamoDbMapper(client, name -> "test-" + name, metrics);
+
+        List<QueryRequest> requests = new ArrayList<>();
+        when(client.queryPaginator(any(Consumer.class))).thenAnswer(invocation -> {
+            QueryRequest.Builder builder = QueryRequest.builder();
+            ((Consumer<QueryRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            requests.add(builder.build());
+            return new QueryIterable(client, builder.build());
+        });
+        when(client.query(any(QueryRequest.class))).thenAnswer(invocation -> {
+            QueryRequest request = invocation.getArgument(0);
+            long page = request.hasExclusiveStartKey() ? 1 : 0;
+            QueryResponse.Builder response = QueryResponse.builder()
+                .items(pets(3).stream().map(Pet.PET_MAPPER::map).collect(Collectors.toList()))
+                .consumedCapacity(capacity -> capacity.tableName(PREFIXED_TABLE).capacityUnits(1.5));
+            if (page == 0) {
+                response.lastEvaluatedKey(petKey(3));
+            }
+            return response.build();
+        });
+
+        assertThat(metered.query(TABLE, Pet.PET_MAPPER).count()).isEqualTo(6);
+
+        assertThat(requests.get(0).returnConsumedCapacity()).isEqualTo(ReturnConsumedCapacity.TOTAL);
+        InMemoryMapperMetrics.OperationMetrics query = metrics.metrics(PREFIXED_TABLE, MapperOperation.QUERY);
+        assertThat(query.getLatency().getCount()).isEqualTo(2);
+        assertThat(query.getItems().getCount()).isEqualTo(2);
+        assertThat(query.getItems().getMax()).isEqualTo(3);
+        assertThat(query.getMapping().getCount()).isEqualTo(6);
+        assertThat(query.getConsumedCapacity()).isEqualTo(3.0);
+        assertThat(metrics.tables()).containsExactly(PREFIXED_TABLE);
+    }
+}
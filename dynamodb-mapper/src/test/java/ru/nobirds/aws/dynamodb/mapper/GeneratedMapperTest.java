@@ -0,0 +1,89 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.Test;
+
+public class GeneratedMapperTest {
+
+    private static final AttributesMapper<Address> ADDRESS_MAPPER = AttributeMappers.builder(Address::new)
+        .string("city", Address::getCity, Address::setCity)
+        .number("zip", Address::getZip, Address::setZip)
+        .build();
+
+    private static final AttributesMapper<Owner> OWNER_MAPPER = AttributeMappers.builder(Owner::new)
+        .constantValue("pk", "OWNER", AttributeMappers.STRING)
+        .attribute("sk", Owner::getId, Owner::setId, AttributeMappers.STRING
+            .map(BidirectionalMapper.hashed("OWNER"))
+            .map(BidirectionalMapper.STRING_TO_NUMERIC))
+        .string("name", Owner::getName, Owner::setName)
+        .attribute("externalId", Owner::getExternalId, Owner::setExternalId,
+            AttributeMappers.STRING.map(BidirectionalMapper.withPrefix("C_")))
+        .decimal("cost", Owner::getCost, Owner::setCost)
+        .attribute("dateOfBirth", Owner::getDateOfBirth, Owner::setDateOfBirth,
+            AttributeMappers.STRING.map(BidirectionalMapper.STRING_TO_DATE))
+        .enumeration("type", Owner::getType, Owner::setType, OwnerType.class)
+        .object("home", Owner::getHome, Owner::setHome, ADDRESS_MAPPER)
+        .list("addresses", Owner::getAddresses, Owner::setAddresses, AttributeMappers.object(ADDRESS_MAPPER))
+        .list("tags", Owner::getTags, Owner::setTags, AttributeMappers.STRING)
+        .build();
+
+    private static final Owner OWNER = new Owner(
+        7L, "owner", "42", 10.5, LocalDate.of(2000, 1, 1), OwnerType.PERSON,
+        new Address("home", 1L), List.of(new Address("first", 2L), new Address("second", null)),
+        List.of("a", "b"));
+
+    @Test
+    public void testGeneratedMapperWritesSameAttributes() {
+        assertThat(GeneratedMapperTest_OwnerAttributesMapper.INSTANCE.map(OWNER)).isEqualTo(OWNER_MAPPER.map(OWNER));
+        assertThat(GeneratedMapperTest_OwnerAttributesMapper.INSTANCE.map(new Owner()))
+            .isEqualTo(OWNER_MAPPER.map(new Owner()));
+    }
+
+    @Test
+    public void testGeneratedMapperReadsSameObject() {
+        assertThat(GeneratedMapperTest_OwnerAttributesMapper.INSTANCE.map(OWNER_MAPPER.map(OWNER))).isEqualTo(OWNER);
+        assertThat(GeneratedMapperTest_OwnerAttributesMapper.INSTANCE.map(Map.of())).isEqualTo(new Owner());
+    }
+
+    public enum OwnerType {
+        PERSON, COMPANY
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @DynamoDbEntity
+    @DynamoDbConstant(name = "pk", value = "OWNER")
+    public static final class Owner {
+
+        @DynamoDbAttribute("sk")
+        @DynamoDbPrefix(value = "OWNER", hashed = true)
+        private Long id;
+        private String name;
+        @DynamoDbPrefix("C_")
+        private String externalId;
+        private Double cost;
+        private LocalDate dateOfBirth;
+        private OwnerType type;
+        private Address home;
+        private List<Address> addresses;
+        private List<String> tags;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @DynamoDbEntity
+    public static final class Address {
+
+        private String city;
+        private Long zip;
+    }
+}
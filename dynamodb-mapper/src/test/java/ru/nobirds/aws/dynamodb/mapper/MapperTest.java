@@ -1,9 +1,19 @@
 package ru.nobirds.aws.dynamodb.mapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 import ru.nobirds.aws.dynamodb.mapper.MapperTest.Person.PersonType;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -12,6 +22,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 public class MapperTest {
@@ -93,6 +104,13 @@ public class MapperTest {
         assertThat(result).isEqualTo(PET);
     }
 
+    @Test
+    public void testCompiledMapperMatchesBuiltMapper() {
+        assertThat(Pet.COMPILED_PET_MAPPER.map(PET)).isEqualTo(Pet.PET_MAPPER.map(PET));
+        assertThat(Pet.COMPILED_PET_MAPPER.map(MAP)).isEqualTo(PET);
+        assertThat(Pet.COMPILED_PET_MAPPER.map(new Pet())).isEqualTo(Pet.PET_MAPPER.map(new Pet()));
+    }
+
     @Test
     public void testMapFromEmptyAttributesToObject() {
         Pet pet = Pet.PET_MAPPER.map(Map.of());
@@ -112,25 +130,244 @@ public class MapperTest {
             .forEach(attributeValue -> assertThat(attributeValue.nul()).isTrue());
     }
 
+    @Test
+    public void testPrimitiveNumberAttributes() {
+        Counter counter = new Counter(Long.MAX_VALUE, -42, 0.125);
+
+        var attributes = Counter.COUNTER_MAPPER.map(counter);
+
+        assertThat(attributes.get("total").n()).isEqualTo(Long.toString(Long.MAX_VALUE));
+        assertThat(attributes.get("delta").n()).isEqualTo("-42");
+        assertThat(attributes.get("ratio").n()).isEqualTo("0.125");
+        assertThat(Counter.COUNTER_MAPPER.map(attributes)).isEqualTo(counter);
+        assertThat(Counter.COUNTER_MAPPER.map(Map.of("ratio", nullAttr()))).isEqualTo(new Counter());
+    }
+
+    @Test
+    public void testNumberMappersParseLikeJdk() {
+        for (String value : List.of("0", "-0", "007", "9223372036854775807", "-9223372036854775808", "1e3")) {
+            assertThat(AttributeMappers.NUMBER.map(AttributeValue.builder().n(value).build()))
+                .isEqualTo(new BigDecimal(value).longValueExact());
+        }
+        for (String value : List.of("0.1", "-2.5E-3", "123456789.123456789", "1e308", "4.9e-324", "10")) {
+            assertThat(AttributeMappers.DECIMAL.map(AttributeValue.builder().n(value).build()))
+                .isEqualTo(Double.parseDouble(value));
+        }
+    }
+
+    @Test
+    public void testPartialMapperDecodesOnlySelectedAttributes() {
+        AttributesMapper<Pet> partial = Pet.attributes().partial(ID, NAME);
+
+        assertThat(Pet.PET_MAPPER.attributeNames()).hasValueSatisfying(names -> assertThat(names)
+            .containsExactlyInAnyOrder(ID, NAME, SK, COST, DATE_OF_BIRTH, OWNER));
+        assertThat(partial.attributeNames()).hasValueSatisfying(names -> assertThat(names)
+            .containsExactlyInAnyOrder(ID, NAME));
+        assertThat(partial.map(MAP)).isEqualTo(new Pet(1L, "test1", null, null, null));
+        assertThat(partial.map(PET)).containsOnlyKeys(PK, ID, NAME);
+    }
+
+    @Test
+    public void testLazyAttributesDecodeOnAccess() {
+        Kennel kennel = new Kennel(Lazy.of(PET.getOwner()), List.of(PET, PET));
+        var attributes = Kennel.KENNEL_MAPPER.map(kennel);
+
+        Kennel result = Kennel.KENNEL_MAPPER.map(attributes);
+        assertThat(result.getOwner().isDecoded()).isFalse();
+        assertThat(result.getPets()).isInstanceOf(LazyList.class);
+        LazyList<Pet> pets = (LazyList<Pet>) result.getPets();
+        assertThat(pets).hasSize(2);
+        assertThat(pets.decodedCount()).isZero();
+
+        // untouched values go back as the raw attributes
+        assertThat(Kennel.KENNEL_MAPPER.map(result)).isEqualTo(attributes);
+
+        result.getPets().get(1).setName("changed");
+        assertThat(pets.decodedCount()).isEqualTo(1);
+        assertThat(result.getOwner().get()).isEqualTo(PET.getOwner());
+        assertThat(result.getOwner().isDecoded()).isTrue();
+
+        var changed = Kennel.KENNEL_MAPPER.map(result);
+        assertThat(changed.get("pets").l().get(0)).isSameAs(attributes.get("pets").l().get(0));
+        assertThat(changed.get("pets").l().get(1).m().get(NAME).s()).isEqualTo("changed");
+        assertThat(Kennel.KENNEL_MAPPER.map(Map.of())).isEqualTo(new Kennel());
+    }
+
+    @Test
+    public void testRepeatedValuesAreShared() {
+        var first = Pet.COMPILED_PET_MAPPER.map(PET);
+        var second = Pet.COMPILED_PET_MAPPER.map(new Pet());
+
+        assertThat(first.get(PK)).isSameAs(second.get(PK));
+        assertThat(Pet.PET_MAPPER.map(PET).get(PK)).isSameAs(Pet.PET_MAPPER.map(new Pet()).get(PK));
+        assertThat(first.get(ID)).isSameAs(AttributeValues.number(1L));
+        assertThat(second.get(NAME)).isSameAs(AttributeValues.NULL);
+        assertThat(first.get(OWNER).m().get(TYPE))
+            .isSameAs(Person.PERSON_MAPPER.map(PET.getOwner()).get(TYPE));
+        assertThat(AttributeMappers.BOOLEAN.map(true)).isSameAs(AttributeValues.TRUE);
+
+        AttributeValuePool pool = new AttributeValuePool(1, 8);
+        assertThat(pool.string("a")).isSameAs(pool.string("a"));
+        assertThat(pool.string("b")).isNotSameAs(pool.string("b"));
+        assertThat(pool.string("too long value")).isNotSameAs(pool.string("too long value"));
+        assertThat(pool.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCompressedObjectsAreStoredAsBinary() {
+        AttributeMapper<Pet> compressed = AttributeMappers.compressed(Pet.PET_MAPPER);
+
+        AttributeValue small = compressed.map(PET);
+        assertThat(small.b()).isNotNull();
+        assertThat(small.b().asByteArrayUnsafe()[0]).isZero();
+        assertThat(compressed.map(small)).isEqualTo(PET);
+
+        List<Pet> pets = Collections.nCopies(50, PET);
+        AttributeMapper<List<Pet>> list = AttributeMappers.list(AttributeMappers.object(Pet.PET_MAPPER));
+        AttributeValue large = AttributeMappers.compressed(list).map(pets);
+        AttributeValue plain = AttributeMappers.compressed(list, Integer.MAX_VALUE).map(pets);
+        assertThat(large.b().asByteArrayUnsafe()[0]).isEqualTo((byte) 1);
+        assertThat(large.b().asByteArrayUnsafe().length).isLessThan(plain.b().asByteArrayUnsafe().length / 10);
+        assertThat(AttributeMappers.compressed(list).map(large)).isEqualTo(pets);
+        assertThat(AttributeMappers.compressed(list).map(plain)).isEqualTo(pets);
+
+        assertThat(compressed.map((Pet) null)).isSameAs(AttributeValues.NULL);
+        assertThat(compressed.map(AttributeValues.NULL)).isNull();
+    }
+
+    @Test
+    public void testBinaryValuesAreNotCopied() {
+        byte[] bytes = {1, 2, 3};
+
+        AttributeValue value = AttributeMappers.BYTE_BUFFER.map(ByteBuffer.wrap(bytes));
+        assertThat(value.b().asByteArrayUnsafe()).isSameAs(bytes);
+        assertThat(AttributeMappers.BYTE_BUFFER.map(value)).isEqualTo(ByteBuffer.wrap(bytes));
+        assertThat(AttributeMappers.BYTE_BUFFER.map(value).isReadOnly()).isTrue();
+        assertThat(AttributeMappers.BYTE_BUFFER.map(ByteBuffer.wrap(bytes, 1, 2)).b().asByteArray())
+            .containsExactly((byte) 2, (byte) 3);
+
+        SdkBytes sdkBytes = SdkBytes.fromByteArrayUnsafe(bytes);
+        assertThat(AttributeMappers.BINARY.map(AttributeMappers.BINARY.map(sdkBytes))).isSameAs(sdkBytes);
+    }
+
+    @Test
+    public void testEmptyBinaryValuesAreDecoded() {
+        AttributeValue empty = AttributeValue.builder().b(SdkBytes.fromByteArray(new byte[0])).build();
+
+        assertThat(AttributeMappers.BYTE_BUFFER.map(empty).remaining()).isZero();
+        assertThat(AttributeMappers.BINARY.map(empty).asByteArrayUnsafe()).isEmpty();
+        assertThat(AttributeMappers.compressed(Pet.PET_MAPPER).map(empty)).isNull();
+        assertThat(AttributeMappers.BYTE_BUFFER.map(AttributeMappers.BYTE_BUFFER.map(ByteBuffer.allocate(0)))
+            .remaining()).isZero();
+
+        AttributeValue truncated = AttributeValue.builder().b(SdkBytes.fromByteArray(new byte[] {1, 0})).build();
+        assertThatThrownBy(() -> AttributeMappers.compressed(Pet.PET_MAPPER).map(truncated))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Compressed value is truncated");
+    }
+
+    @Test
+    public void testSizeIsComputedWithoutBuildingTheItem() {
+        Counter counter = new Counter(-1234567L, 42, 0.5);
+        assertThat(Counter.COUNTER_MAPPER.size(counter))
+            .isEqualTo(ItemSize.bytes(Counter.COUNTER_MAPPER.map(counter)));
+
+        AttributeMapper<String> strings = spy(AttributeMappers.STRING);
+        DoubleAttributeMapper doubles = mock(DoubleAttributeMapper.class);
+        AttributeMappers.AttributesBuilder<Person> people = AttributeMappers.builder(Person::new)
+            .attribute(NAME, Person::getName, Person::setName, strings)
+            .list(ADDRESS, Person::getAddress, Person::setAddress, strings)
+            .number(PHONE_NUMBER, Person::getPhoneNumber, Person::setPhoneNumber)
+            .enumeration(TYPE, Person::getType, Person::setType, PersonType.class)
+            .attribute(EXTERNAL_ID, Person::getExternalId, Person::setExternalId,
+                strings.map(BidirectionalMapper.withPrefix("C_").then(BidirectionalMapper.STRING_TO_NUMERIC)));
+        Person person = new Person("test2", 28L, 12345L, PersonType.ADULT, List.of("test4", "test5"));
+        long expected = ItemSize.bytes(Person.PERSON_MAPPER.map(person));
+        assertThat(people.build().size(person)).isEqualTo(expected);
+        assertThat(people.compile().size(person)).isEqualTo(expected);
+        assertThat(AttributeMappers.builder(Counter::new)
+            .attribute(new DoubleAttribute<>("ratio", Counter::getRatio, Counter::setRatio, doubles))
+            .build()
+            .size(counter)).isEqualTo(ItemSize.bytes(Map.of("ratio", AttributeMappers.DOUBLE.map(0.5))));
+        verify(strings, never()).map(any(String.class));
+        verify(doubles, never()).writeDouble(anyDouble());
+        assertThat(Pet.PET_MAPPER.size(PET)).isEqualTo(ItemSize.bytes(Pet.PET_MAPPER.map(PET)));
+        assertThat(Pet.COMPILED_PET_MAPPER.size(PET)).isEqualTo(ItemSize.bytes(Pet.PET_MAPPER.map(PET)));
+        assertThat(Pet.COMPILED_PET_MAPPER.size(new Pet())).isEqualTo(ItemSize.bytes(Pet.PET_MAPPER.map(new Pet())));
+
+        for (long value : new long[] {0, 9, 10, -1, -10, 12345, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertThat(ItemSize.number(value))
+                .isEqualTo(ItemSize.bytes(AttributeValue.builder().n(Long.toString(value)).build()));
+        }
+    }
+
+    @Test
+    public void testCapacityUnitsFollowItemSize() {
+        Map<String, AttributeValue> small = Map.of("id", stringAttr("1"));
+        Map<String, AttributeValue> large = Map.of("id", stringAttr("x".repeat(1500)));
+
+        assertThat(ItemSize.writeUnits(small)).isEqualTo(1);
+        assertThat(ItemSize.writeUnits(large)).isEqualTo(2);
+        assertThat(ItemSize.readUnits(small, true)).isEqualTo(1);
+        assertThat(ItemSize.readUnits(small, false)).isEqualTo(0.5);
+        assertThat(ItemSize.readUnits(List.of(large, large, large), true)).isEqualTo(2);
+        assertThat(ItemSize.writeUnits(PET, Pet.PET_MAPPER)).isEqualTo(1);
+    }
+
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
-    public static final class Pet {
+    public static final class Kennel {
 
-        public static final AttributesMapper<Pet> PET_MAPPER = AttributeMappers
-            .builder(Pet::new)
-            .constantValue(PK, "PET", AttributeMappers.STRING)
-            .number(ID, Pet::getId, Pet::setId)
-            .string(NAME, Pet::getName, Pet::setName)
-            .attribute(SK, Pet::getId, Pet::setId, AttributeMappers.STRING
-                .map(BidirectionalMapper.hashed("PET"))
-                .map(BidirectionalMapper.STRING_TO_NUMERIC))
-            .decimal(COST, Pet::getCost, Pet::setCost)
-            .attribute(DATE_OF_BIRTH, Pet::getDateOfBirth, Pet::setDateOfBirth,
-                AttributeMappers.STRING.map(BidirectionalMapper.STRING_TO_DATE))
-            .object(OWNER, Pet::getOwner, Pet::setOwner, Person.PERSON_MAPPER)
+        private static final AttributesMapper<Kennel> KENNEL_MAPPER = AttributeMappers.builder(Kennel::new)
+            .lazyObject(OWNER, Kennel::getOwner, Kennel::setOwner, Person.PERSON_MAPPER)
+            .lazyList("pets", Kennel::getPets, Kennel::setPets, AttributeMappers.object(Pet.PET_MAPPER))
             .build();
 
+        private Lazy<Person> owner;
+        private List<Pet> pets;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static final class Counter {
+
+        private static final AttributesMapper<Counter> COUNTER_MAPPER = AttributeMappers.builder(Counter::new)
+            .longAttribute("total", Counter::getTotal, Counter::setTotal)
+            .intAttribute("delta", Counter::getDelta, Counter::setDelta)
+            .doubleAttribute("ratio", Counter::getRatio, Counter::setRatio)
+            .build();
+
+        private long total;
+        private int delta;
+        private double ratio;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static final class Pet {
+
+        public static final AttributesMapper<Pet> PET_MAPPER = attributes().build();
+
+        public static final AttributesMapper<Pet> COMPILED_PET_MAPPER = attributes().compile();
+
+        private static AttributeMappers.AttributesBuilder<Pet> attributes() {
+            return AttributeMappers
+                .builder(Pet::new)
+                .constantValue(PK, "PET", AttributeMappers.STRING)
+                .number(ID, Pet::getId, Pet::setId)
+                .string(NAME, Pet::getName, Pet::setName)
+                .attribute(SK, Pet::getId, Pet::setId, AttributeMappers.STRING
+                    .map(BidirectionalMapper.hashed("PET"))
+                    .map(BidirectionalMapper.STRING_TO_NUMERIC))
+                .decimal(COST, Pet::getCost, Pet::setCost)
+                .attribute(DATE_OF_BIRTH, Pet::getDateOfBirth, Pet::setDateOfBirth,
+                    AttributeMappers.STRING.map(BidirectionalMapper.STRING_TO_DATE))
+                .object(OWNER, Pet::getOwner, Pet::setOwner, Person.PERSON_MAPPER);
+        }
+
         private Long id;
         private String name;
         private LocalDate dateOfBirth;
@@ -0,0 +1,182 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+import software.amazon.awssdk.services.dynamodb.paginators.ScanIterable;
+
+public class TableExportTest {
+
+    private static final int PAGES = 3;
+    private static final int PAGE_SIZE = 40;
+
+    @TempDir
+    Path directory;
+
+    private DynamoDbClient client;
+    private final AtomicInteger failingPage = new AtomicInteger(-1);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        client = mock(DynamoDbClient.class);
+
+        when(client.scanPaginator(any(Consumer.class))).thenAnswer(invocation -> {
+            ScanRequest.Builder builder = ScanRequest.builder();
+            ((Consumer<ScanRequest.Builder>) invocation.getArgument(0)).accept(builder);
+            return new ScanIterable(client, builder.build());
+        });
+
+        when(client.scan(any(ScanRequest.class))).thenAnswer(invocation -> {
+            ScanRequest request = invocation.getArgument(0);
+            assertThat(request.tableName()).isEqualTo("test-pets");
+
+            int page = request.hasExclusiveStartKey()
+                ? Integer.parseInt(request.exclusiveStartKey().get("page").n()) + 1
+                : 0;
+            if (page == failingPage.get()) {
+                throw new IllegalStateException("connection lost");
+            }
+
+            List<Map<String, AttributeValue>> items = LongStream.range(page * PAGE_SIZE, (page + 1) * PAGE_SIZE)
+                .mapToObj(TableExportTest::item)
+                .collect(Collectors.toList());
+            ScanResponse.Builder response = ScanResponse.builder().items(items);
+            if (page < PAGES - 1) {
+                response.lastEvaluatedKey(Map.of("page", AttributeValues.number(page)));
+            }
+            return response.build();
+        });
+    }
+
+    @Test
+    public void testExportedItemsAreImported() {
+        Path file = directory.resolve("pets.ddb");
+        ExportResult result = new TableExporter(client, name -> "test-" + name).export("pets", file);
+
+        assertThat(result.getItemCount()).isEqualTo(PAGES * PAGE_SIZE);
+        assertThat(result.getPageCount()).isEqualTo(PAGES);
+        assertThat(result.isResumed()).isFalse();
+        assertThat(Files.exists(ExportFile.checkpointPath(file))).isFalse();
+
+        try (Stream<Map<String, AttributeValue>> items = TableImporter.read(file)) {
+            assertThat(items.collect(Collectors.toList())).containsExactlyElementsOf(
+                LongStream.range(0, PAGES * PAGE_SIZE).mapToObj(TableExportTest::item).collect(Collectors.toList()));
+        }
+
+        List<WriteRequest> written = Collections.synchronizedList(new ArrayList<>());
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest request = invocation.getArgument(0);
+            written.addAll(request.requestItems().get("test-pets"));
+            return BatchWriteItemResponse.builder().build();
+        });
+
+        BatchWriteResult imported = new TableImporter(client, name -> "test-" + name)
+            .write("pets", file, BatchOptions.builder().parallelism(1).build());
+
+        assertThat(imported.isSuccessful()).isTrue();
+        assertThat(imported.getWrittenCount()).isEqualTo(PAGES * PAGE_SIZE);
+        assertThat(imported.getRequestCount()).isEqualTo((PAGES * PAGE_SIZE + 24) / 25);
+        assertThat(written).extracting(request -> request.putRequest().item().get("id").n())
+            .containsExactlyInAnyOrderElementsOf(LongStream.range(0, PAGES * PAGE_SIZE)
+                .mapToObj(Long::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testInterruptedExportResumesFromCheckpoint() {
+        assertResumesFromCheckpoint(ExportOptions.builder().gzip(false).build());
+    }
+
+    @Test
+    public void testInterruptedGzipExportResumesFromCheckpoint() {
+        assertResumesFromCheckpoint(ExportOptions.builder().gzip(true).build());
+    }
+
+    @Test
+    public void testFreshExportDropsStaleCheckpoint() {
+        Path file = directory.resolve("pets.ddb");
+        TableExporter exporter = new TableExporter(client, name -> "test-" + name);
+
+        failingPage.set(1);
+        assertThatThrownBy(() -> exporter.export("pets", file)).hasMessage("connection lost");
+        assertThat(Files.exists(ExportFile.checkpointPath(file))).isTrue();
+
+        // the fresh run truncates the file and is interrupted before it gets to write a checkpoint of its own
+        failingPage.set(0);
+        assertThatThrownBy(() -> exporter.export("pets", file, ExportOptions.builder().resume(false).build()))
+            .hasMessage("connection lost");
+        assertThat(Files.exists(ExportFile.checkpointPath(file))).isFalse();
+
+        failingPage.set(-1);
+        ExportResult result = exporter.export("pets", file);
+
+        assertThat(result.isResumed()).isFalse();
+        assertExported(file);
+    }
+
+    private void assertResumesFromCheckpoint(ExportOptions options) {
+        Path file = directory.resolve("pets.ddb");
+        TableExporter exporter = new TableExporter(client, name -> "test-" + name);
+
+        failingPage.set(1);
+        assertThatThrownBy(() -> exporter.export("pets", file, options)).hasMessage("connection lost");
+        assertThat(Files.exists(ExportFile.checkpointPath(file))).isTrue();
+
+        failingPage.set(-1);
+        ExportResult result = exporter.export("pets", file, options);
+
+        assertThat(result.isResumed()).isTrue();
+        assertThat(result.getItemCount()).isEqualTo(PAGES * PAGE_SIZE);
+        assertThat(result.getPageCount()).isEqualTo(PAGES);
+        assertThat(Files.exists(ExportFile.checkpointPath(file))).isFalse();
+        assertExported(file);
+    }
+
+    private static void assertExported(Path file) {
+        try (Stream<Map<String, AttributeValue>> items = TableImporter.read(file)) {
+            assertThat(items.map(item -> item.get("id").n()).collect(Collectors.toList()))
+                .containsExactlyElementsOf(LongStream.range(0, PAGES * PAGE_SIZE)
+                    .mapToObj(Long::toString).collect(Collectors.toList()));
+        }
+    }
+
+    private static Map<String, AttributeValue> item(long id) {
+        return Map.of(
+            "id", AttributeValues.number(id),
+            "name", AttributeValues.string("pet " + id),
+            "good", AttributeValues.bool(id % 2 == 0),
+            "photo", AttributeValue.builder().b(SdkBytes.fromUtf8String("photo " + id)).build(),
+            "tags", AttributeValue.builder().ss("a", "b").build(),
+            "owner", AttributeValue.builder().m(Map.of(
+                "name", AttributeValues.string("owner"),
+                "visits", AttributeValue.builder().l(AttributeValues.number(1), AttributeValues.NULL).build()
+            )).build()
+        );
+    }
+
+}
@@ -0,0 +1,210 @@
+package ru.nobirds.aws.dynamodb.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.nobirds.aws.dynamodb.mapper.MapperTest.Pet;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+public class WriteBehindDynamoDbMapperTest {
+
+    private static final String TABLE = "pets";
+
+    private DynamoDbClient client;
+    private WriteBehindDynamoDbMapper mapper;
+    private final List<List<WriteRequest>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void setUp() {
+        client = mock(DynamoDbClient.class);
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest request = invocation.getArgument(0);
+            batches.add(request.requestItems().get(TABLE));
+            return BatchWriteItemResponse.builder().build();
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        mapper.close();
+    }
+
+    private void writeBehind(int flushItems, Duration flushInterval) {
+        mapper = new WriteBehindDynamoDbMapper(client, name -> name)
+            .writeBehind(TABLE, WriteBehindConfig.builder()
+                .keyAttributes(Set.of("pk", "sk"))
+                .flushItems(flushItems)
+                .flushInterval(flushInterval)
+                .build());
+    }
+
+    private static Map<String, AttributeValue> petKey(long id) {
+        return Map.of("pk", AttributeValue.builder().s("PET").build(),
+            "sk", AttributeValue.builder().s("PET#" + id).build());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWritesToTheSameKeyAreMerged() {
+        writeBehind(100, Duration.ofHours(1));
+
+        CompletableFuture<Pet> first = mapper.saveAsync(TABLE, Pet.PET_MAPPER, new Pet(1L, "first", null, null, null));
+        CompletableFuture<Pet> last = mapper.saveAsync(TABLE, Pet.PET_MAPPER, new Pet(1L, "last", null, null, null));
+        mapper.save(TABLE, Pet.PET_MAPPER, new Pet(2L, "deleted", null, null, null));
+        CompletableFuture<Void> deleted = mapper.deleteAsync(TABLE, petKey(2));
+
+        assertThat(mapper.pending(TABLE)).isEqualTo(2);
+        assertThat(mapper.get(TABLE, Pet.PET_MAPPER, petKey(1)).map(Pet::getName)).contains("last");
+        assertThat(mapper.get(TABLE, Pet.PET_MAPPER, petKey(2))).isEmpty();
+        verify(client, never()).getItem(any(Consumer.class));
+        assertThat(first).isNotDone();
+
+        mapper.flush();
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(2);
+        assertThat(batches.get(0).get(0).putRequest().item().get("name").s()).isEqualTo("last");
+        assertThat(batches.get(0).get(1).deleteRequest().key()).isEqualTo(petKey(2));
+        assertThat(first.join().getName()).isEqualTo("first");
+        assertThat(last.join().getName()).isEqualTo("last");
+        assertThat(deleted).isCompleted();
+        assertThat(mapper.pending(TABLE)).isZero();
+    }
+
+    @Test
+    public void testBufferIsFlushedInTheBackground() throws Exception {
+        writeBehind(BatchWriter.MAX_BATCH_SIZE, Duration.ofMillis(10));
+
+        List<CompletableFuture<Pet>> futures = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            futures.add(mapper.saveAsync(TABLE, Pet.PET_MAPPER, new Pet(id, "pet" + id, null, null, null)));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(30);
+        assertThat(batches).allSatisfy(batch -> assertThat(batch.size()).isLessThanOrEqualTo(25));
+    }
+
+    @Test
+    public void testFullBufferQueuesOneFlush() {
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        mapper = new WriteBehindDynamoDbMapper(client, name -> name, MapperMetrics.NOOP, scheduler)
+            .writeBehind(TABLE, WriteBehindConfig.builder()
+                .keyAttributes(Set.of("pk", "sk"))
+                .flushItems(2)
+                .flushInterval(Duration.ofHours(1))
+                .build());
+
+        // the queued flush does not run, the buffer keeps growing like behind a slow write
+        for (long id = 1; id <= 10; id++) {
+            mapper.save(TABLE, Pet.PET_MAPPER, new Pet(id, "pet" + id, null, null, null));
+        }
+        verify(scheduler, times(1)).execute(any(Runnable.class));
+
+        mapper.flush();
+        mapper.save(TABLE, Pet.PET_MAPPER, new Pet(11L, "pet11", null, null, null));
+        mapper.save(TABLE, Pet.PET_MAPPER, new Pet(12L, "pet12", null, null, null));
+        verify(scheduler, times(2)).execute(any(Runnable.class));
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(10);
+    }
+
+    @Test
+    public void testFailedWritesCompleteExceptionally() {
+        writeBehind(100, Duration.ofHours(1));
+        doThrow(new IllegalStateException("down")).when(client).batchWriteItem(any(BatchWriteItemRequest.class));
+
+        CompletableFuture<Pet> saved = mapper.saveAsync(TABLE, Pet.PET_MAPPER, new Pet(1L, "pet", null, null, null));
+        mapper.flush();
+
+        assertThat(saved).isCompletedExceptionally();
+    }
+
+    @Test
+    public void testFailedFlushOfPlainSavesIsRecorded() {
+        InMemoryMapperMetrics metrics = new InMemoryMapperMetrics();
+        mapper = new WriteBehindDynamoDbMapper(client, name -> name, metrics)
+            .writeBehind(TABLE, WriteBehindConfig.builder()
+                .keyAttributes(Set.of("pk", "sk"))
+                .flushInterval(Duration.ofHours(1))
+                .build());
+        doThrow(new IllegalStateException("down")).when(client).batchWriteItem(any(BatchWriteItemRequest.class));
+
+        mapper.save(TABLE, Pet.PET_MAPPER, new Pet(1L, "pet", null, null, null));
+        mapper.delete(TABLE, petKey(2));
+        mapper.flush();
+
+        assertThat(metrics.metrics(TABLE, MapperOperation.BATCH_WRITE).getFailures()).isEqualTo(2);
+    }
+
+    @Test
+    public void testBatchSaveDoesNotOvertakeBufferedWrites() {
+        writeBehind(100, Duration.ofHours(1));
+
+        mapper.save(TABLE, Pet.PET_MAPPER, new Pet(1L, "buffered", null, null, null));
+        mapper.batchSave(TABLE, batch -> batch.item(new Pet(1L, "batch", null, null, null), Pet.PET_MAPPER));
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0).get(0).putRequest().item().get("name").s()).isEqualTo("buffered");
+        assertThat(batches.get(1).get(0).putRequest().item().get("name").s()).isEqualTo("batch");
+        assertThat(mapper.pending(TABLE)).isZero();
+    }
+
+    @Test
+    public void testSavesWithConditionsOrOverridesAreSentDirectly() {
+        writeBehind(100, Duration.ofHours(1));
+        List<PutItemRequest> puts = new ArrayList<>();
+        when(client.putItem(any(PutItemRequest.class))).thenAnswer(invocation -> {
+            puts.add(invocation.getArgument(0));
+            return PutItemResponse.builder().build();
+        });
+        AtomicInteger builderRuns = new AtomicInteger();
+
+        mapper.save(TABLE, Pet.PET_MAPPER, new Pet(1L, "buffered", null, null, null),
+            builder -> builder.returnValues(ReturnValue.NONE));
+        mapper.save(TABLE, Pet.PET_MAPPER, new Pet(2L, "override", null, null, null), builder -> {
+            builderRuns.incrementAndGet();
+            builder.overrideConfiguration(override -> override.putHeader("x-trace", "1"));
+        });
+        mapper.save(TABLE, Pet.PET_MAPPER, new Pet(3L, "conditional", null, null, null), builder -> {
+            builderRuns.incrementAndGet();
+            builder.conditionExpression("attribute_not_exists(pk)");
+        });
+
+        // each direct save flushes what was buffered before it
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(1);
+        assertThat(puts).extracting(put -> put.item().get("name").s()).containsExactly("override", "conditional");
+        assertThat(puts.get(0).overrideConfiguration()).isPresent();
+        assertThat(builderRuns.get()).isEqualTo(2);
+        assertThat(mapper.pending(TABLE)).isZero();
+    }
+
+}
@@ -1,3 +1,7 @@
 rootProject.name = "aws-utils"
 
 include("dynamodb-mapper")
+include("dynamodb-mapper-processor")
+include("dynamodb-mapper-jmh")
+include("dynamodb-mapper-fixtures")
+include("dynamodb-mapper-streams")